@@ -0,0 +1,11 @@
+-- Runs once when the replica's volume is initialized; the replica reconnects and resumes on later restarts.
+-- Only transformer_db is replicated (--replicate-do-db), so the users each server created for itself do not clash.
+CHANGE REPLICATION SOURCE TO
+    SOURCE_HOST = 'mysql',
+    SOURCE_PORT = 3306,
+    SOURCE_USER = 'root',
+    SOURCE_PASSWORD = 'rootpassword',
+    SOURCE_AUTO_POSITION = 1,
+    GET_SOURCE_PUBLIC_KEY = 1,
+    SOURCE_CONNECT_RETRY = 10;
+START REPLICA;
@@ -0,0 +1,42 @@
+#!/bin/bash
+# Upload throughput with platform threads vs virtual threads against a slow stub detector.
+# Usage: compare_threads.sh <concurrency> <total>
+#
+# Needs the packaged jar (mvn package) and a MySQL/MariaDB database. Settings via environment:
+#   JAVA            a Java 21+ java binary (virtual threads are inert on older runtimes)   default: java
+#   DB_URL          JDBC URL                                           default: jdbc:mysql://127.0.0.1:3306/transformer_db
+#   DB_USER/DB_PASSWORD                                                 default: root / (empty)
+#   DETECTOR_DELAY  seconds the stub detector takes per image                               default: 20
+#   POOL_SIZE       spring.datasource.hikari.maximum-pool-size                              default: 40
+#   APP_ARGS        extra application arguments (e.g. the Hibernate dialect for MariaDB)
+set -u
+cd "$(dirname "$0")"
+CONCURRENCY=${1:?concurrency}; TOTAL=${2:?total}
+JAVA=${JAVA:-java}
+JAR=$(ls ../target/transformer-management-*.jar 2>/dev/null | head -1)
+[ -n "$JAR" ] || { echo "build the jar first: mvn -DskipTests package"; exit 1; }
+PORT=18080; DETECTOR_PORT=18090
+LOG_DIR=$(mktemp -d)
+
+python3 stub_detector.py "${DETECTOR_DELAY:-20}" $DETECTOR_PORT &
+DETECTOR_PID=$!
+trap 'kill $DETECTOR_PID 2>/dev/null' EXIT
+
+for VIRTUAL in false true; do
+  "$JAVA" -Xmx1g -jar "$JAR" --server.port=$PORT \
+    --spring.datasource.url="${DB_URL:-jdbc:mysql://127.0.0.1:3306/transformer_db}" \
+    --spring.datasource.username="${DB_USER:-root}" --spring.datasource.password="${DB_PASSWORD:-}" \
+    --spring.datasource.hikari.maximum-pool-size="${POOL_SIZE:-40}" \
+    --anomaly-detection.api-url=http://127.0.0.1:$DETECTOR_PORT/ --file.upload-dir="$LOG_DIR/uploads/" \
+    --spring.threads.virtual.enabled=$VIRTUAL --logging.level.root=WARN ${APP_ARGS:-} > "$LOG_DIR/app-$VIRTUAL.log" 2>&1 &
+  APP_PID=$!
+  for _ in $(seq 1 120); do
+    curl -s -o /dev/null "http://127.0.0.1:$PORT/api/transformers" && break
+    kill -0 $APP_PID 2>/dev/null || { echo "application failed to start, see $LOG_DIR/app-$VIRTUAL.log"; exit 1; }
+    sleep 1
+  done
+  curl -s "http://127.0.0.1:$DETECTOR_PORT/reset" > /dev/null
+  echo "virtual=$VIRTUAL $(python3 upload_load.py "http://127.0.0.1:$PORT" "$CONCURRENCY" "$TOTAL")"
+  echo "  detector concurrency: $(curl -s "http://127.0.0.1:$DETECTOR_PORT/")"
+  kill $APP_PID; wait $APP_PID 2>/dev/null
+done
@@ -0,0 +1,53 @@
+# Stand-in for the anomaly detection API: answers every POST with one prediction after DELAY seconds.
+# GET / reports the current and peak number of concurrent requests; GET /reset restarts the peak.
+# Usage: stub_detector.py [delay_seconds=1.0] [port=18090]
+import json, sys, threading, time
+from http.server import ThreadingHTTPServer, BaseHTTPRequestHandler
+
+DELAY = float(sys.argv[1]) if len(sys.argv) > 1 else 1.0
+PORT = int(sys.argv[2]) if len(sys.argv) > 2 else 18090
+BODY = json.dumps({"outputs": [{"count_objects": 1, "predictions": {"predictions": [
+    {"detection_id": "s1", "class": "faulty", "confidence": 0.9, "x": 20, "y": 20, "width": 10, "height": 10}]}}]}).encode()
+
+lock = threading.Lock()
+current, peak = 0, 0
+
+
+class Handler(BaseHTTPRequestHandler):
+    protocol_version = "HTTP/1.1"
+
+    def do_POST(self):
+        global current, peak
+        self.rfile.read(int(self.headers.get("Content-Length", 0)))
+        with lock:
+            current += 1
+            peak = max(peak, current)
+        time.sleep(DELAY)
+        with lock:
+            current -= 1
+        self.send_response(200)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(BODY)))
+        self.end_headers()
+        self.wfile.write(BODY)
+
+    def do_GET(self):
+        global peak
+        with lock:
+            body = json.dumps({"current": current, "peak": peak}).encode()
+            if self.path == "/reset":
+                peak = current
+        self.send_response(200)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(body)))
+        self.end_headers()
+        self.wfile.write(body)
+
+    def log_message(self, *args):
+        pass
+
+
+ThreadingHTTPServer.request_queue_size = 4096
+server = ThreadingHTTPServer(("127.0.0.1", PORT), Handler)
+server.daemon_threads = True
+server.serve_forever()
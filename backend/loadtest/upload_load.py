@@ -0,0 +1,91 @@
+# Concurrent maintenance-image uploads against a running backend. Creates a transformer and an inspection,
+# then posts <total> small PNGs from <concurrency> connections and prints throughput and latency.
+# Usage: upload_load.py <base_url> <concurrency> <total>, e.g. upload_load.py http://127.0.0.1:18080 200 1000
+import collections, http.client, json, struct, sys, threading, time, urllib.parse, uuid, zlib
+
+base, concurrency, total = sys.argv[1], int(sys.argv[2]), int(sys.argv[3])
+target = urllib.parse.urlparse(base)
+
+
+def png(width, height):
+    raw = b"".join(b"\x00" + b"\x80" * width * 3 for _ in range(height))
+    chunk = lambda kind, data: struct.pack(">I", len(data)) + kind + data + struct.pack(">I", zlib.crc32(kind + data))
+    return (b"\x89PNG\r\n\x1a\n" + chunk(b"IHDR", struct.pack(">IIBBBBB", width, height, 8, 2, 0, 0, 0))
+            + chunk(b"IDAT", zlib.compress(raw)) + chunk(b"IEND", b""))
+
+
+def connect():
+    return http.client.HTTPConnection(target.hostname, target.port or 80, timeout=300)
+
+
+def post_json(path, payload):
+    connection = connect()
+    connection.request("POST", path, json.dumps(payload), {"Content-Type": "application/json"})
+    response = connection.getresponse()
+    body = response.read()
+    if response.status != 200:
+        sys.exit(f"POST {path} failed: {response.status} {body[:200]}")
+    return json.loads(body)
+
+
+run = uuid.uuid4().hex[:8]
+transformer = post_json("/api/transformers", {"transformerNo": "LT-" + run, "poleNo": "LT", "region": "Load test",
+                                              "type": "Distribution"})
+inspection = post_json("/api/inspections", {"transformerId": transformer["id"], "inspectionNo": "LT-" + run,
+                                            "inspectedDate": time.strftime("%Y-%m-%dT%H:%M:%SZ", time.gmtime())})
+
+image = png(64, 64)
+meta = b'{"imageType":"Maintenance","weatherCondition":"Sunny"}'
+latencies, failures, lock = [], collections.Counter(), threading.Lock()
+remaining = iter(range(total))
+
+
+def multipart():
+    boundary = uuid.uuid4().hex.encode()
+    parts = [b"--" + boundary, b'Content-Disposition: form-data; name="image"', b"Content-Type: application/json", b"", meta,
+             b"--" + boundary, b'Content-Disposition: form-data; name="file"; filename="t.png"', b"Content-Type: image/png",
+             b"", image, b"--" + boundary + b"--", b""]
+    return boundary.decode(), b"\r\n".join(parts)
+
+
+def worker():
+    connection = connect()
+    while True:
+        with lock:
+            if next(remaining, None) is None:
+                return
+        boundary, data = multipart()
+        started = time.time()
+        try:
+            connection.request("POST", "/api/thermal-images/upload?inspectionId=" + inspection["id"], data,
+                               {"Content-Type": "multipart/form-data; boundary=" + boundary})
+            response = connection.getresponse()
+            body = response.read()
+            failure = None if response.status == 200 else f"{response.status} {body[:120]}"
+        except Exception as e:
+            failure = repr(e)[:120]
+            connection = connect()
+        with lock:
+            if failure:
+                failures[failure] += 1
+            else:
+                latencies.append(time.time() - started)
+
+
+started = time.time()
+threads = [threading.Thread(target=worker) for _ in range(concurrency)]
+for thread in threads:
+    thread.start()
+for thread in threads:
+    thread.join()
+elapsed = time.time() - started
+
+latencies.sort()
+if latencies:
+    print(f"concurrency={concurrency} ok={len(latencies)} failed={sum(failures.values())} "
+          f"{len(latencies) / elapsed:.1f} uploads/s p50={latencies[len(latencies) // 2] * 1000:.0f}ms "
+          f"p99={latencies[max(int(len(latencies) * .99) - 1, 0)] * 1000:.0f}ms")
+else:
+    print(f"concurrency={concurrency} ok=0 failed={sum(failures.values())}")
+for reason, count in failures.most_common(5):
+    print(f"  {count} x {reason}")
@@ -0,0 +1,36 @@
+package com.example.transformermanagement.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override that sends read-only transactions to the primary instead of the read replica.
+ *
+ * The routing decision is made when a transaction first touches the database, so a read-only service method can
+ * pin itself to the primary at its start, before its first query. Has no effect without a replica configured.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private ReadRouting() {}
+
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (isPrimaryPinned()) {
+            return read.get();
+        }
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_PINNED.remove();
+        }
+    }
+
+    public static <T> T onPrimaryIf(boolean condition, Supplier<T> read) {
+        return condition ? onPrimary(read) : read.get();
+    }
+
+    static boolean isPrimaryPinned() {
+        return PRIMARY_PINNED.get() != null;
+    }
+}
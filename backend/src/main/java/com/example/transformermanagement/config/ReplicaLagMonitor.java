@@ -0,0 +1,113 @@
+package com.example.transformermanagement.config;
+
+import com.example.transformermanagement.dto.AnnotationDelta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Replication lag of the read replica, measured through the replica_heartbeat row.
+ *
+ * Every datasource.replica.heartbeat-ms the primary's row is stamped with the current time and the replica's copy
+ * is read back; the replica has applied every transaction committed before the timestamp it returns. The replica
+ * is used only while that timestamp is within datasource.replica.max-lag-ms of now, so a stalled or unreachable
+ * replica drops out of routing by itself and rejoins once it catches up.
+ *
+ * Read-your-writes for annotations: each committed annotation change records its thermal image and the commit
+ * time, and reads of that image stay on the primary until the replica has passed it. Assumes a single writer
+ * clock, which holds while one application instance stamps the heartbeat.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+
+    private final Map<UUID, Instant> annotationWrites = new ConcurrentHashMap<>();
+    private volatile Instant lastAnnotationWrite;
+    private volatile Instant replicatedUpTo;
+    private volatile boolean usable;
+
+    ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMs) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = Duration.ofMillis(maxLagMs);
+    }
+
+    public boolean isReplicaUsable() {
+        Instant upTo = replicatedUpTo;
+        boolean now = upTo != null && Duration.between(upTo, Instant.now()).compareTo(maxLag) <= 0;
+        if (now != usable) {
+            usable = now;
+            if (now) {
+                logger.info("Read replica within {} ms of the primary; routing read-only transactions to it", maxLag.toMillis());
+            } else {
+                logger.warn("Read replica lagging more than {} ms (replicated up to {}); reading from the primary",
+                    maxLag.toMillis(), upTo);
+            }
+        }
+        return now;
+    }
+
+    /**
+     * @return false while the replica may not yet have the last committed annotation change of the image
+     */
+    public boolean hasReplicatedAnnotations(UUID thermalImageId) {
+        return hasReplicated(annotationWrites.get(thermalImageId));
+    }
+
+    /**
+     * @return false while the replica may not yet have the last committed annotation change of any image
+     */
+    public boolean hasReplicatedAllAnnotations() {
+        return hasReplicated(lastAnnotationWrite);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAnnotationDelta(AnnotationDelta delta) {
+        // Taken after commit: a heartbeat stamped later than this commits later, so the replica applies it later
+        Instant committed = Instant.now();
+        annotationWrites.put(delta.thermalImageId(), committed);
+        lastAnnotationWrite = committed;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.heartbeat-ms:1000}")
+    public void heartbeat() {
+        try {
+            primary.update("update replica_heartbeat set beat_at = ? where id = 1", Timestamp.from(Instant.now()));
+        } catch (DataAccessException e) {
+            logger.warn("Could not write the replication heartbeat on the primary: {}", e.getMessage());
+        }
+        try {
+            Timestamp beat = replica.queryForObject("select beat_at from replica_heartbeat where id = 1", Timestamp.class);
+            if (beat != null) {
+                replicatedUpTo = beat.toInstant();
+            }
+        } catch (DataAccessException e) {
+            logger.debug("Could not read the replication heartbeat on the replica: {}", e.getMessage());
+        }
+        // Writes older than the lag limit are either replicated or the replica is not used at all
+        Instant horizon = Instant.now().minus(maxLag);
+        annotationWrites.values().removeIf(written -> written.isBefore(horizon) || hasReplicated(written));
+        isReplicaUsable();
+    }
+
+    private boolean hasReplicated(Instant written) {
+        Instant upTo = replicatedUpTo;
+        return written == null || (upTo != null && upTo.isAfter(written));
+    }
+}
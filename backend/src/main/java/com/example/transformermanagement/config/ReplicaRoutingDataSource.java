@@ -0,0 +1,51 @@
+package com.example.transformermanagement.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends connections of read-only transactions started by a service method to the replica while it is within the
+ * lag limit, and everything else (read-write transactions, non-transactional access, Flyway) to the primary.
+ *
+ * Spring Data wraps each repository call made outside a service transaction in its own read-only transaction;
+ * those stay on the primary so that a lookup right after a write (detection right after an upload, a controller's
+ * load-modify-save) never misses the row.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: Hibernate asks for the connection when the transaction begins,
+ * before Spring has marked the transaction read-only, and the proxy defers the lookup to the first statement.
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    // Transactions are named after the method that started them
+    private static final String SERVICE_PACKAGE = "com.example.transformermanagement.service.";
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && startedByService(TransactionSynchronizationManager.getCurrentTransactionName())
+                && !ReadRouting.isPrimaryPinned()
+                && lagMonitor.isReplicaUsable()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+
+    private static boolean startedByService(String transactionName) {
+        return transactionName != null && transactionName.startsWith(SERVICE_PACKAGE);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.transformermanagement.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Fails startup when an index declared in an entity's @Table(indexes) is missing from the database or
+ * covers different columns.
+ *
+ * The schema is owned by the Flyway migrations in db/migration; Hibernate validates tables and column types
+ * (ddl-auto=validate) but not indexes, so a migration that forgot an index, or an index dropped by hand, would
+ * otherwise only show up as a slow query. Extra indexes in the database (foreign key and unique constraint
+ * indexes) are ignored.
+ */
+@Component
+public class SchemaDriftCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaDriftCheck.class);
+
+    // Injected so the check runs after Flyway has migrated and Hibernate has validated the schema
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${schema.drift-check.enabled:true}")
+    private boolean enabled;
+
+    @PostConstruct
+    void verify() throws SQLException {
+        if (!enabled) {
+            return;
+        }
+        List<String> problems = new ArrayList<>();
+        int checked = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+                Table table = entity.getJavaType().getAnnotation(Table.class);
+                if (table == null || table.indexes().length == 0) {
+                    continue;
+                }
+                Map<String, List<String>> actual = indexesOf(metaData, connection.getCatalog(), table.name());
+                for (Index index : table.indexes()) {
+                    checked++;
+                    List<String> expected = columnsOf(index.columnList());
+                    List<String> found = actual.get(index.name().toLowerCase(Locale.ROOT));
+                    if (found == null) {
+                        problems.add("missing index " + table.name() + "." + index.name() + " " + expected);
+                    } else if (!found.equals(expected)) {
+                        problems.add("index " + table.name() + "." + index.name() + " covers " + found + ", expected " + expected);
+                    }
+                }
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Schema drift detected; add a migration under db/migration: " + String.join("; ", problems));
+        }
+        logger.info("Schema drift check passed ({} declared indexes present)", checked);
+    }
+
+    // Index name -> column names in key order
+    private static Map<String, List<String>> indexesOf(DatabaseMetaData metaData, String catalog, String table) throws SQLException {
+        Map<String, TreeMap<Integer, String>> ordered = new HashMap<>();
+        for (String name : new String[]{table, table.toUpperCase(Locale.ROOT)}) {
+            try (ResultSet rows = metaData.getIndexInfo(catalog, null, name, false, true)) {
+                while (rows.next()) {
+                    String indexName = rows.getString("INDEX_NAME");
+                    String column = rows.getString("COLUMN_NAME");
+                    if (indexName != null && column != null) {
+                        ordered.computeIfAbsent(indexName.toLowerCase(Locale.ROOT), k -> new TreeMap<>())
+                            .put((int) rows.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            if (!ordered.isEmpty()) {
+                break;
+            }
+        }
+        Map<String, List<String>> indexes = new HashMap<>();
+        ordered.forEach((name, columns) -> indexes.put(name, new ArrayList<>(columns.values())));
+        return indexes;
+    }
+
+    // "batchId, createdAt" -> [batch_id, created_at], matching the physical naming strategy
+    private static List<String> columnsOf(String columnList) {
+        return Arrays.stream(columnList.split(","))
+            .map(column -> column.trim().split("\\s+")[0])
+            .map(column -> column.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT))
+            .toList();
+    }
+}
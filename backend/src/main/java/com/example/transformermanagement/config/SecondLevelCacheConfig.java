@@ -0,0 +1,81 @@
+package com.example.transformermanagement.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache backed by Caffeine through JCache.
+ *
+ * Every region is created here with a size bound and a TTL before Hibernate starts, and
+ * hibernate.javax.cache.missing_cache_strategy=fail turns a new @Cache region without a matching
+ * entry below into a startup error instead of an unbounded cache. Entity regions are READ_WRITE, so
+ * Hibernate updates or invalidates them on every write made through JPA; writes that bypass Hibernate
+ * (JdbcTemplate) to cached tables must evict the region themselves.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String TRANSFORMERS_REGION = "transformers";
+    public static final String INSPECTIONS_REGION = "inspections";
+    public static final String INSPECTION_LOOKUPS_REGION = "inspection-lookups";
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Value("${cache.second-level.entity-max-entries:10000}")
+    private long entityMaxEntries;
+
+    @Value("${cache.second-level.entity-ttl-seconds:3600}")
+    private long entityTtlSeconds;
+
+    @Value("${cache.second-level.query-max-entries:1000}")
+    private long queryMaxEntries;
+
+    @Value("${cache.second-level.query-ttl-seconds:300}")
+    private long queryTtlSeconds;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        createRegion(cacheManager, TRANSFORMERS_REGION, entityMaxEntries, entityTtlSeconds);
+        createRegion(cacheManager, INSPECTIONS_REGION, entityMaxEntries, entityTtlSeconds);
+        createRegion(cacheManager, INSPECTION_LOOKUPS_REGION, queryMaxEntries, queryTtlSeconds);
+        createRegion(cacheManager, QUERY_RESULTS_REGION, queryMaxEntries, queryTtlSeconds);
+        // Table modification timestamps must outlive every cached query result, so no TTL and no size bound
+        // beyond the number of tables
+        createRegion(cacheManager, UPDATE_TIMESTAMPS_REGION, 0, 0);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return (Map<String, Object> properties) -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maxEntries, long ttlSeconds) {
+        if (cacheManager.getCache(name) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if (maxEntries > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        }
+        if (ttlSeconds > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        }
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(name, configuration);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.transformermanagement.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares while serving each API request.
+ *
+ * Registered as Hibernate's statement inspector and as a servlet filter. Requests that exceed
+ * jpa.statement-budget.warn-threshold are logged at WARN with their count, so an N+1 introduced by a
+ * lazy association or a missing fetch join shows up in the log of the first request that hits it.
+ * The count is also left on the request as the STATEMENT_COUNT_ATTRIBUTE attribute, which the statement
+ * budget tests assert on.
+ */
+@Component
+public class SqlStatementCounter extends OncePerRequestFilter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementCounter.class);
+
+    public static final String STATEMENT_COUNT_ATTRIBUTE = SqlStatementCounter.class.getName() + ".count";
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Value("${jpa.statement-budget.warn-threshold:25}")
+    private int warnThreshold;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        int[] count = new int[1];
+        COUNT.set(count);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            COUNT.remove();
+            request.setAttribute(STATEMENT_COUNT_ATTRIBUTE, count[0]);
+            if (count[0] > warnThreshold) {
+                logger.warn("{} {} executed {} SQL statements (threshold {})",
+                    request.getMethod(), request.getRequestURI(), count[0], warnThreshold);
+            } else {
+                logger.debug("{} {} executed {} SQL statements", request.getMethod(), request.getRequestURI(), count[0]);
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ public class WebConfig implements WebMvcConfigurer {
                     .allowedOriginPatterns("*")
                     .allowedMethods("GET","POST","PUT","DELETE","OPTIONS")
                     .allowedHeaders("*")
+                    .exposedHeaders("X-Annotation-Revision", "X-Next-Cursor")
                     .allowCredentials(true);
             }
         };
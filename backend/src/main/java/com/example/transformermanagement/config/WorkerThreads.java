@@ -0,0 +1,57 @@
+package com.example.transformermanagement.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factories for the application's own worker pools (detection alert lanes, Roboflow uploads, event stream
+ * senders, training trigger).
+ *
+ * With spring.threads.virtual.enabled=true on a Java 21 runtime, Spring Boot runs request handling and @Scheduled
+ * jobs on virtual threads, and the pools created here get virtual threads too. Pool sizes still bound how much
+ * work runs at once; only the threads become cheap. On older runtimes (including the Java 17 the project
+ * builds for) the setting has no effect: a warning is logged at startup and everything, Tomcat included, runs on
+ * platform threads, the pools here on named daemon threads.
+ */
+@Component
+public class WorkerThreads {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerThreads.class);
+
+    private final boolean virtual;
+
+    @Autowired
+    public WorkerThreads(Environment environment) {
+        this.virtual = Threading.VIRTUAL.isActive(environment);
+        if (!virtual && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            logger.warn("spring.threads.virtual.enabled=true has no effect: virtual threads need a Java 21 runtime, " +
+                "this is Java {}. Request handling and workers stay on platform threads", Runtime.version().feature());
+        }
+    }
+
+    /**
+     * @param prefix thread name prefix; threads are numbered from 1
+     */
+    public ThreadFactory named(String prefix) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        ThreadFactory delegate = Executors.defaultThreadFactory();
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = delegate.newThread(runnable);
+            thread.setName(prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
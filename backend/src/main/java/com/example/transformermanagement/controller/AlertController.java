@@ -3,9 +3,12 @@ package com.example.transformermanagement.controller;
 import com.example.transformermanagement.model.Alert;
 import com.example.transformermanagement.service.AlertService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/alerts")
@@ -13,13 +16,53 @@ public class AlertController {
     @Autowired
     private AlertService alertService;
 
+    /**
+     * GET /api/alerts?transformerId=...&severity=high&isRead=false&direction=desc&limit=100&cursor=...
+     * The next page cursor is returned in the X-Next-Cursor header
+     */
     @GetMapping
-    public List<Alert> getAllAlerts() {
-        return alertService.getAllAlerts();
+    public ResponseEntity<List<Alert>> getAllAlerts(
+            @RequestParam(required = false) UUID transformerId,
+            @RequestParam(required = false) String severity,
+            @RequestParam(required = false) Boolean isRead,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return PageResponses.of(alertService.findAlerts(transformerId, severity, isRead, sort, direction, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
     public Alert createAlert(@RequestBody Alert alert) {
         return alertService.saveAlert(alert);
     }
+
+    /**
+     * Marks an alert read (default) or unread again; keeps the per-transformer unread counter in step
+     */
+    @PutMapping("/{id}/read")
+    public ResponseEntity<Alert> markRead(@PathVariable UUID id, @RequestParam(defaultValue = "true") boolean isRead) {
+        try {
+            return ResponseEntity.ok(alertService.markRead(id, isRead));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * GET /api/alerts/unread-counts[?transformerId=...]
+     * Unread alerts per transformer, read from maintained counters; transformers without unread alerts are omitted
+     * unless requested by id
+     */
+    @GetMapping("/unread-counts")
+    public Map<UUID, Long> getUnreadCounts(@RequestParam(required = false) UUID transformerId) {
+        if (transformerId != null) {
+            return Map.of(transformerId, alertService.getUnreadCount(transformerId));
+        }
+        return alertService.getUnreadCounts();
+    }
 }
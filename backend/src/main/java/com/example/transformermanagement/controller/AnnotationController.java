@@ -1,19 +1,29 @@
 package com.example.transformermanagement.controller;
 
 import com.example.transformermanagement.dto.DetectionDTO;
+import com.example.transformermanagement.dto.RevisionedResult;
+import com.example.transformermanagement.exception.AnnotationConflictException;
 import com.example.transformermanagement.model.Annotation;
 import com.example.transformermanagement.service.AnnotationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * Annotation CRUD. Every mutation accepts an optional X-Annotation-Revision header carrying the
+ * revision the client last saw; stale edits are rejected with 409 and the current revision is
+ * returned in the same header. Accepted changes are broadcast over /ws (see AnnotationStreamPublisher).
+ */
 @RestController
 @RequestMapping("/api/annotations")
 public class AnnotationController {
 
+    private static final String REVISION_HEADER = "X-Annotation-Revision";
+
     @Autowired
     private AnnotationService annotationService;
 
@@ -21,54 +31,74 @@ public class AnnotationController {
     public ResponseEntity<List<Annotation>> getAnnotations(
             @PathVariable UUID thermalImageId,
             @RequestParam(defaultValue = "false") boolean includeDeleted) {
+        long revision = annotationService.getAnnotationRevision(thermalImageId);
         List<Annotation> annotations = annotationService.getAnnotationsByThermalImageId(thermalImageId, includeDeleted);
-        return ResponseEntity.ok(annotations);
+        return ResponseEntity.ok()
+                .header(REVISION_HEADER, Long.toString(revision))
+                .body(annotations);
     }
 
     @PostMapping("/thermal-image/{thermalImageId}")
     public ResponseEntity<Annotation> createAnnotation(
             @PathVariable UUID thermalImageId,
             @RequestBody Annotation annotation,
-            @RequestHeader(value = "X-User-Id", defaultValue = "system") String userId) {
-        Annotation created = annotationService.createAnnotation(thermalImageId, annotation, userId);
-        return ResponseEntity.ok(created);
+            @RequestHeader(value = "X-User-Id", defaultValue = "system") String userId,
+            @RequestHeader(value = REVISION_HEADER, required = false) Long expectedRevision) {
+        RevisionedResult<Annotation> created = annotationService.createAnnotation(thermalImageId, annotation, userId, expectedRevision);
+        return withRevision(created.revision()).body(created.value());
     }
 
     @PutMapping("/{annotationId}")
     public ResponseEntity<Annotation> updateAnnotation(
             @PathVariable UUID annotationId,
             @RequestBody Annotation annotation,
-            @RequestHeader(value = "X-User-Id", defaultValue = "system") String userId) {
-        Annotation updated = annotationService.updateAnnotation(annotationId, annotation, userId);
-        return ResponseEntity.ok(updated);
+            @RequestHeader(value = "X-User-Id", defaultValue = "system") String userId,
+            @RequestHeader(value = REVISION_HEADER, required = false) Long expectedRevision) {
+        RevisionedResult<Annotation> updated = annotationService.updateAnnotation(annotationId, annotation, userId, expectedRevision);
+        return withRevision(updated.revision()).body(updated.value());
     }
 
     @DeleteMapping("/{annotationId}")
     public ResponseEntity<Void> deleteAnnotation(
             @PathVariable UUID annotationId,
             @RequestParam(defaultValue = "false") boolean hardDelete,
-            @RequestHeader(value = "X-User-Id", defaultValue = "system") String userId) {
-        annotationService.deleteAnnotation(annotationId, userId, hardDelete);
-        return ResponseEntity.ok().build();
+            @RequestHeader(value = "X-User-Id", defaultValue = "system") String userId,
+            @RequestHeader(value = REVISION_HEADER, required = false) Long expectedRevision) {
+        long revision = annotationService.deleteAnnotation(annotationId, userId, hardDelete, expectedRevision);
+        return withRevision(revision).build();
     }
 
     @PostMapping("/thermal-image/{thermalImageId}/sync")
     public ResponseEntity<List<DetectionDTO>> syncAnnotations(
             @PathVariable UUID thermalImageId,
             @RequestBody List<DetectionDTO> detectionDTOs,
-            @RequestHeader(value = "X-User-Id", defaultValue = "system") String userId) {
+            @RequestHeader(value = "X-User-Id", defaultValue = "system") String userId,
+            @RequestHeader(value = REVISION_HEADER, required = false) Long expectedRevision) {
         try {
-            List<Annotation> synced = annotationService.syncAnnotationsFromDTO(thermalImageId, detectionDTOs, userId);
+            RevisionedResult<List<Annotation>> synced = annotationService.syncAnnotationsFromDTO(thermalImageId, detectionDTOs, userId, expectedRevision);
             
             // Convert back to DTOs for response
-            List<DetectionDTO> responseDTOs = annotationService.convertAnnotationsToDTO(synced);
+            List<DetectionDTO> responseDTOs = annotationService.convertAnnotationsToDTO(synced.value());
             
-            return ResponseEntity.ok(responseDTOs);
+            return withRevision(synced.revision()).body(responseDTOs);
+        } catch (AnnotationConflictException e) {
+            return conflict(e);
         } catch (Exception e) {
             System.err.println("Failed to sync annotations: " + e.getMessage());
             e.printStackTrace();
             return ResponseEntity.internalServerError().build();
         }
     }
-}
 
+    @ExceptionHandler(AnnotationConflictException.class)
+    public <T> ResponseEntity<T> conflict(AnnotationConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(REVISION_HEADER, Long.toString(e.getCurrentRevision()))
+                .build();
+    }
+
+    // The revision the change produced, not a re-read after commit that may already include someone else's edit
+    private ResponseEntity.BodyBuilder withRevision(long revision) {
+        return ResponseEntity.ok().header(REVISION_HEADER, Long.toString(revision));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.transformermanagement.controller;
+
+import com.example.transformermanagement.service.CacheStatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Second-level cache observability
+ */
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
+    /**
+     * GET /api/cache/stats
+     * Hits, misses, puts and hit ratio per cache region since startup
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(cacheStatisticsService.getStatistics());
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.transformermanagement.controller;
+
+import com.example.transformermanagement.dto.FleetSummary;
+import com.example.transformermanagement.service.FleetRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Fleet-wide dashboard counters served from the precomputed rollup table
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+
+    @Autowired
+    private FleetRollupService fleetRollupService;
+
+    /**
+     * GET /api/dashboard/summary?windows=1,7,30
+     * windows: anomaly count windows in days (defaults to dashboard.anomaly-windows-days)
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<FleetSummary> getSummary(@RequestParam(required = false) List<Integer> windows) {
+        return ResponseEntity.ok(fleetRollupService.getSummary(windows));
+    }
+}
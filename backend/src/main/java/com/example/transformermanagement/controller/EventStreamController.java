@@ -0,0 +1,50 @@
+package com.example.transformermanagement.controller;
+
+import com.example.transformermanagement.service.EventStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Server-Sent Events push channel replacing alert and detection polling
+ */
+@RestController
+@RequestMapping("/api/events")
+public class EventStreamController {
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    /**
+     * GET /api/events?transformerId=...&region=...&types=alert,detection,annotation
+     * Event names: alert, detection, annotation, and overflow when the client fell behind and must re-fetch
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestParam(required = false) List<UUID> transformerId,
+                                             @RequestParam(required = false) String region,
+                                             @RequestParam(required = false) List<String> types) {
+        Set<String> typeFilter = types == null ? Set.of()
+            : types.stream().map(t -> t.trim().toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        if (!EventStreamService.TYPES.containsAll(typeFilter)) {
+            return ResponseEntity.badRequest().build();
+        }
+        EventStreamService.Filter filter = new EventStreamService.Filter(
+            transformerId == null ? Set.of() : Set.copyOf(transformerId),
+            region == null || region.isBlank() ? null : region,
+            typeFilter);
+        try {
+            return ResponseEntity.ok(eventStreamService.subscribe(filter));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
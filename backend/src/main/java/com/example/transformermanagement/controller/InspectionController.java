@@ -4,11 +4,14 @@ import com.example.transformermanagement.model.Inspection;
 import com.example.transformermanagement.model.Transformer;
 import com.example.transformermanagement.service.InspectionService;
 import com.example.transformermanagement.service.TransformerService;
+import com.example.transformermanagement.dto.InspectionDetail;
 import com.example.transformermanagement.dto.InspectionRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,12 +25,25 @@ public class InspectionController {
     @Autowired
     private TransformerService transformerService;
 
+    /**
+     * GET /api/inspections?transformerId=...&status=...&from=...&to=...&sort=createdAt&direction=desc&limit=100&cursor=...
+     * from/to bound inspectedDate; the next page cursor is returned in the X-Next-Cursor header
+     */
     @GetMapping
-    public List<Inspection> getAllInspections(@RequestParam(required = false) UUID transformerId) {
-        if (transformerId != null) {
-            return inspectionService.getInspectionsByTransformerId(transformerId);
+    public ResponseEntity<List<Inspection>> getAllInspections(
+            @RequestParam(required = false) UUID transformerId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return PageResponses.of(inspectionService.findInspections(transformerId, status, from, to, sort, direction, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
-        return inspectionService.getAllInspections();
     }
 
     @GetMapping("/{id}")
@@ -35,6 +51,19 @@ public class InspectionController {
         return inspectionService.getInspectionById(id);
     }
 
+    /**
+     * Inspection, transformer, images grouped by type, live annotations per image and the
+     * weather-matched baseline URL in one round trip
+     *
+     * GET /api/inspections/{id}/detail
+     */
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<InspectionDetail> getInspectionDetail(@PathVariable UUID id) {
+        return inspectionService.getInspectionDetail(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping
     public Inspection createInspection(@RequestBody InspectionRequest request) {
         Transformer transformer = transformerService.getTransformerById(request.transformerId())
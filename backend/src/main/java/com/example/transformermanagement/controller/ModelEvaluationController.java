@@ -0,0 +1,44 @@
+package com.example.transformermanagement.controller;
+
+import com.example.transformermanagement.dto.ModelEvaluationReport;
+import com.example.transformermanagement.service.ModelEvaluationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Detector quality metrics (precision, recall, mAP@0.5, confusion) computed from user corrections
+ */
+@RestController
+@RequestMapping("/api/evaluation")
+public class ModelEvaluationController {
+
+    @Autowired
+    private ModelEvaluationService modelEvaluationService;
+
+    /**
+     * GET /api/evaluation?from=2025-01-01T00:00:00Z&to=2025-02-01T00:00:00Z&bucket=week&iou=0.5
+     * Defaults to the last 30 days as a single window.
+     */
+    @GetMapping
+    public ResponseEntity<ModelEvaluationReport> evaluate(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(defaultValue = "none") String bucket,
+            @RequestParam(defaultValue = "0.5") double iou,
+            @RequestParam(defaultValue = "true") boolean reviewedOnly) {
+        OffsetDateTime resolvedTo = to != null ? to : OffsetDateTime.now();
+        OffsetDateTime resolvedFrom = from != null ? from : resolvedTo.minusDays(30);
+        if (!resolvedFrom.isBefore(resolvedTo) || iou <= 0 || iou > 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(modelEvaluationService.evaluate(resolvedFrom, resolvedTo, bucket, iou, reviewedOnly));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package com.example.transformermanagement.controller;
 
+import com.example.transformermanagement.dto.BatchUploadStatus;
+import com.example.transformermanagement.dto.RetrainingCandidate;
+import com.example.transformermanagement.service.ActiveLearningService;
+import com.example.transformermanagement.service.DatasetExportService;
+import com.example.transformermanagement.service.RoboflowBatchUploadService;
 import com.example.transformermanagement.service.RoboflowDatasetService;
+import com.example.transformermanagement.service.TrainingTriggerService;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.OffsetDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +33,18 @@ public class RoboflowDatasetController {
     @Autowired
     private RoboflowDatasetService roboflowDatasetService;
 
+    @Autowired
+    private RoboflowBatchUploadService roboflowBatchUploadService;
+
+    @Autowired
+    private ActiveLearningService activeLearningService;
+
+    @Autowired
+    private TrainingTriggerService trainingTriggerService;
+
+    @Autowired
+    private DatasetExportService datasetExportService;
+
     /**
      * Upload a single thermal image with annotations to Roboflow
      * 
@@ -52,6 +76,7 @@ public class RoboflowDatasetController {
 
     /**
      * Batch upload multiple thermal images with annotations
+     * Queued in the upload outbox; poll GET /api/roboflow/jobs/{jobId} for progress
      * 
      * POST /api/roboflow/upload/batch?split=train
      * Body: ["uuid1", "uuid2", "uuid3"]
@@ -66,10 +91,15 @@ public class RoboflowDatasetController {
                 .map(UUID::fromString)
                 .toList();
             
-            Map<String, Object> result = roboflowDatasetService.batchUploadImages(uuids, split);
+            BatchUploadStatus job = roboflowBatchUploadService.startBatchUpload(uuids, split);
+            
+            Map<String, Object> result = new HashMap<>();
             result.put("success", true);
+            result.put("jobId", job.jobId());
+            result.put("total", job.total());
+            result.put("split", split);
             
-            return ResponseEntity.ok(result);
+            return ResponseEntity.accepted().body(result);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
             error.put("success", false);
@@ -78,20 +108,74 @@ public class RoboflowDatasetController {
         }
     }
 
+    /**
+     * Progress and per-image status of a batch upload job
+     * 
+     * GET /api/roboflow/jobs/{jobId}
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<BatchUploadStatus> getUploadJob(@PathVariable UUID jobId) {
+        return roboflowBatchUploadService.getJob(jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Cancel a running batch upload job; images not yet started are skipped
+     * 
+     * DELETE /api/roboflow/jobs/{jobId}
+     */
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<BatchUploadStatus> cancelUploadJob(@PathVariable UUID jobId) {
+        return roboflowBatchUploadService.cancelJob(jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Upload all user-edited/corrected annotations for retraining
      * This finds all images where users have made corrections and uploads them
      * 
-     * POST /api/roboflow/upload/user-corrections?split=train
+     * Only the most informative images are uploaded (see ActiveLearningService); budget caps the count
+     * Runs in the background; the response carries the jobId to poll
+     * 
+     * POST /api/roboflow/upload/user-corrections?split=train&budget=50
      */
     @PostMapping("/upload/user-corrections")
     public ResponseEntity<Map<String, Object>> uploadUserCorrections(
-            @RequestParam(defaultValue = "train") String split) {
+            @RequestParam(defaultValue = "train") String split,
+            @RequestParam(required = false) Integer budget) {
+        
+        try {
+            Map<String, Object> result = roboflowBatchUploadService.uploadUserCorrectedAnnotations(split, budget);
+            result.put("success", true);
+            result.put("message", "User-corrected annotations queued for upload to Roboflow for retraining");
+            
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("error", e.getMessage());
+            return ResponseEntity.internalServerError().body(error);
+        }
+    }
+
+    /**
+     * Preview which user-corrected images the next retraining upload would select, with their scores
+     * 
+     * GET /api/roboflow/selection?budget=50
+     */
+    @GetMapping("/selection")
+    public ResponseEntity<Map<String, Object>> previewSelection(
+            @RequestParam(required = false) Integer budget) {
         
         try {
-            Map<String, Object> result = roboflowDatasetService.uploadUserCorrectedAnnotations(split);
+            List<RetrainingCandidate> selected = activeLearningService.selectForRetraining(budget);
+            
+            Map<String, Object> result = new HashMap<>();
             result.put("success", true);
-            result.put("message", "User-corrected annotations uploaded to Roboflow for retraining");
+            result.put("budget", budget != null && budget > 0 ? budget : activeLearningService.getDefaultBudget());
+            result.put("selected", selected);
             
             return ResponseEntity.ok(result);
         } catch (Exception e) {
@@ -126,8 +210,42 @@ public class RoboflowDatasetController {
         }
     }
 
+    /**
+     * Download every annotated image plus labels as a ZIP, streamed (no server-side buffering)
+     * format: yolo (txt labels + data.yaml), coco (annotations.json) or voc (Pascal VOC XML)
+     * 
+     * GET /api/roboflow/export/dataset?format=yolo&transformerId=...&from=...&to=...
+     */
+    @GetMapping("/export/dataset")
+    public ResponseEntity<StreamingResponseBody> exportDataset(
+            @RequestParam(defaultValue = "yolo") String format,
+            @RequestParam(required = false) UUID transformerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
+        
+        DatasetExportService.Format exportFormat;
+        try {
+            exportFormat = DatasetExportService.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        DatasetExportService.ExportRequest request = new DatasetExportService.ExportRequest(
+            exportFormat,
+            transformerId,
+            from != null ? from : OffsetDateTime.parse("1970-01-01T00:00:00Z"),
+            to != null ? to : OffsetDateTime.now().plusDays(1));
+        
+        String fileName = "dataset-" + exportFormat.name().toLowerCase() + ".zip";
+        StreamingResponseBody body = out -> datasetExportService.writeZip(request, out);
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+            .contentType(MediaType.parseMediaType("application/zip"))
+            .body(body);
+    }
+
     /**
      * Trigger model training on Roboflow
+     * Refused with 409 while the previous trainer job is still running
      *
      * POST /api/roboflow/train?version=2
      */
@@ -136,7 +254,7 @@ public class RoboflowDatasetController {
             @RequestParam(required = false) String version) {
         
         try {
-            JsonNode response = roboflowDatasetService.triggerModelTraining();
+            JsonNode response = trainingTriggerService.triggerNow();
             
             Map<String, Object> result = new HashMap<>();
             result.put("success", true);
@@ -144,6 +262,11 @@ public class RoboflowDatasetController {
             result.put("roboflowResponse", response);
             
             return ResponseEntity.ok(result);
+        } catch (IllegalStateException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
             error.put("success", false);
@@ -151,5 +274,14 @@ public class RoboflowDatasetController {
             return ResponseEntity.internalServerError().body(error);
         }
     }
-}
 
+    /**
+     * Coalesced training trigger state: pending requests, running trainer job
+     *
+     * GET /api/roboflow/train/status
+     */
+    @GetMapping("/train/status")
+    public ResponseEntity<Map<String, Object>> getTrainingStatus() {
+        return ResponseEntity.ok(trainingTriggerService.getStatus());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.transformermanagement.controller;
+
+import com.example.transformermanagement.dto.UploadGcReport;
+import com.example.transformermanagement.service.StorageStatisticsService;
+import com.example.transformermanagement.service.UploadGarbageCollector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Database and upload storage observability
+ */
+@RestController
+@RequestMapping("/api/storage")
+public class StorageController {
+
+    @Autowired
+    private StorageStatisticsService storageStatisticsService;
+
+    @Autowired
+    private UploadGarbageCollector uploadGarbageCollector;
+
+    /**
+     * GET /api/storage/tables
+     * Estimated rows, data bytes and index bytes per table, largest first
+     */
+    @GetMapping("/tables")
+    public ResponseEntity<?> getTableStatistics() {
+        try {
+            return ResponseEntity.ok(storageStatisticsService.getTableStatistics());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/storage/uploads/gc
+     * Report of the last orphaned-upload garbage collection pass
+     */
+    @GetMapping("/uploads/gc")
+    public ResponseEntity<?> getUploadGcReport() {
+        UploadGcReport report = uploadGarbageCollector.getLastReport();
+        if (report == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "No garbage collection pass has run yet"));
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * POST /api/storage/uploads/gc?dryRun=true
+     * Run a pass now. A dry run returns the report of orphaned files without deleting them;
+     * a deleting run (dryRun=false) is rate limited, so it is only started and reported at GET
+     */
+    @PostMapping("/uploads/gc")
+    public ResponseEntity<?> runUploadGc(@RequestParam(defaultValue = "true") boolean dryRun) {
+        try {
+            CompletableFuture<UploadGcReport> run = uploadGarbageCollector.runNow(dryRun);
+            if (!dryRun) {
+                return ResponseEntity.accepted().body(Map.of("message", "Garbage collection started; see GET /api/storage/uploads/gc"));
+            }
+            return ResponseEntity.ok(run.get());
+        } catch (ExecutionException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", String.valueOf(e.getCause().getMessage())));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
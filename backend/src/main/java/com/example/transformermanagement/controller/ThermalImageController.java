@@ -1,16 +1,19 @@
 package com.example.transformermanagement.controller;
 
 import com.example.transformermanagement.model.ThermalImage;
+import com.example.transformermanagement.service.BaselineComparisonService;
 import com.example.transformermanagement.service.ThermalImageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -20,15 +23,25 @@ public class ThermalImageController {
     @Autowired
     private ThermalImageService thermalImageService;
 
+    @Autowired
+    private BaselineComparisonService baselineComparisonService;
+
+    /**
+     * GET /api/thermal-images?inspectionId=...&imageType=Baseline&sort=uploadedAt&direction=asc&limit=100&cursor=...
+     * The next page cursor is returned in the X-Next-Cursor header
+     */
     @GetMapping
-    public List<ThermalImage> getAllThermalImages(@RequestParam(required = false) UUID inspectionId,
-                                                  @RequestParam(required = false) String imageType) {
-        if (inspectionId != null && imageType != null && !imageType.isBlank()) {
-            return thermalImageService.getThermalImagesByInspectionIdAndType(inspectionId, imageType);
-        } else if (inspectionId != null) {
-            return thermalImageService.getThermalImagesByInspectionId(inspectionId);
+    public ResponseEntity<List<ThermalImage>> getAllThermalImages(@RequestParam(required = false) UUID inspectionId,
+                                                                  @RequestParam(required = false) String imageType,
+                                                                  @RequestParam(required = false) String sort,
+                                                                  @RequestParam(required = false) String direction,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer limit) {
+        try {
+            return PageResponses.of(thermalImageService.findThermalImages(inspectionId, imageType, sort, direction, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
-        return thermalImageService.getAllThermalImages();
     }
 
     @PostMapping("/upload")
@@ -41,6 +54,34 @@ public class ThermalImageController {
         return thermalImageService.saveThermalImage(inspectionId, thermalImage, file);
     }
 
+    /**
+     * Luminance difference between the image and the transformer baseline for its weather condition
+     *
+     * GET /api/thermal-images/{id}/baseline-comparison
+     */
+    @GetMapping("/{id}/baseline-comparison")
+    public ResponseEntity<?> compareWithBaseline(@PathVariable UUID id) {
+        try {
+            return baselineComparisonService.compare(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Raw detection JSON of the image (legacy/backup); not part of the image list or upload responses
+     */
+    @GetMapping(value = "/{id}/detections", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getDetections(@PathVariable UUID id) {
+        return thermalImageService.getDetectionData(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     @PutMapping("/{id}/detections")
     public ResponseEntity<ThermalImage> updateDetections(@PathVariable UUID id,
                                                          @RequestBody String detectionsJson) {
@@ -17,9 +17,24 @@ public class TransformerController {
     @Autowired
     private TransformerService transformerService;
 
+    /**
+     * GET /api/transformers?region=...&type=...&status=...&sort=transformerNo&direction=asc&limit=100&cursor=...
+     * The cursor for the next page is returned in the X-Next-Cursor header (absent on the last page)
+     */
     @GetMapping
-    public List<Transformer> getAllTransformers() {
-        return transformerService.getAllTransformers();
+    public ResponseEntity<List<Transformer>> getAllTransformers(
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return PageResponses.of(transformerService.findTransformers(region, type, status, sort, direction, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,26 @@
+package com.example.transformermanagement.dto;
+
+import com.example.transformermanagement.model.Alert;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// New or recurring alert, published by AlertService and AlertRuleEngine and pushed to event stream subscribers after commit
+public record AlertEvent(
+        UUID id,
+        UUID transformerId,
+        UUID thermalImageId,
+        String alertType,
+        String severity,
+        String message,
+        int occurrenceCount,
+        OffsetDateTime createdAt,
+        OffsetDateTime lastSeenAt
+) {
+    public static AlertEvent from(Alert alert) {
+        return new AlertEvent(alert.getId(),
+            alert.getTransformer() != null ? alert.getTransformer().getId() : null,
+            alert.getThermalImageId(), alert.getAlertType(), alert.getSeverity(), alert.getMessage(),
+            alert.getOccurrenceCount() != null ? alert.getOccurrenceCount() : 1, alert.getCreatedAt(), alert.getLastSeenAt());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.transformermanagement.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Annotation change pushed to subscribers of /topic/thermal-images/{thermalImageId}/annotations
+// operation is one of: created, updated, deleted, synced (synced carries the full annotation set)
+public record AnnotationDelta(
+        UUID thermalImageId,
+        long revision,
+        String operation,
+        List<DetectionDTO> annotations,
+        String userId,
+        OffsetDateTime timestamp
+) {}
@@ -0,0 +1,20 @@
+package com.example.transformermanagement.dto;
+
+import java.util.UUID;
+
+/**
+ * Pixel-level difference between a maintenance image and its transformer's baseline for the same weather.
+ * Differences are on luminance (0-255); a pixel counts as changed or warmer when it differs by more than
+ * the comparison threshold. The baseline is sampled to the maintenance image's size if the two differ.
+ */
+public record BaselineComparison(
+        UUID thermalImageId,
+        UUID transformerId,
+        String weatherCondition,
+        String baselineImageUrl,
+        int width,
+        int height,
+        double meanAbsoluteDifference,
+        double changedPixelRatio,
+        double warmerPixelRatio) {
+}
@@ -0,0 +1,28 @@
+package com.example.transformermanagement.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Progress of a batch upload, read back from the upload outbox
+public record BatchUploadStatus(
+        UUID jobId,
+        String status,
+        int total,
+        int pending,
+        int succeeded,
+        int failed,
+        int cancelled,
+        double progress,
+        List<Item> items
+) {
+
+    public record Item(
+            UUID thermalImageId,
+            String status,
+            int attempts,
+            String roboflowId,
+            String message,
+            OffsetDateTime updatedAt
+    ) {}
+}
@@ -8,6 +8,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  */
 public class DetectionDTO {
     
+    private String id; // Annotation entity ID (null for detections not yet persisted)
+    
     @JsonProperty("detection_id")
     private String detectionId;
     
@@ -32,6 +34,14 @@ public class DetectionDTO {
     public DetectionDTO() {}
     
     // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
     public String getDetectionId() {
         return detectionId;
     }
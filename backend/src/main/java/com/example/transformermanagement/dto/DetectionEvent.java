@@ -0,0 +1,19 @@
+package com.example.transformermanagement.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// Anomaly detection state of a maintenance image, published by ThermalImageService around the detector call
+// state is one of: started, completed, failed (message carries the failure reason)
+public record DetectionEvent(
+        UUID thermalImageId,
+        UUID inspectionId,
+        UUID transformerId,
+        String state,
+        String message,
+        OffsetDateTime timestamp
+) {
+    public static final String STARTED = "started";
+    public static final String COMPLETED = "completed";
+    public static final String FAILED = "failed";
+}
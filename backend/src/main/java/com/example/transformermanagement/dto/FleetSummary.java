@@ -0,0 +1,25 @@
+package com.example.transformermanagement.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fleet dashboard counters per (region, type) segment plus fleet-wide totals.
+ * anomaliesByClass is keyed by window length in days, then by detection class.
+ */
+public record FleetSummary(
+        OffsetDateTime refreshedAt,
+        List<Integer> windowsDays,
+        Segment totals,
+        List<Segment> segments) {
+
+    public record Segment(
+            String region,
+            String type,
+            long transformers,
+            Map<String, Long> inspectionsByStatus,
+            Map<String, Long> openAlertsBySeverity,
+            Map<Integer, Map<String, Long>> anomaliesByClass) {
+    }
+}
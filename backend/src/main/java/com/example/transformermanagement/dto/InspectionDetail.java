@@ -0,0 +1,24 @@
+package com.example.transformermanagement.dto;
+
+import com.example.transformermanagement.model.Inspection;
+import com.example.transformermanagement.model.ThermalImage;
+import com.example.transformermanagement.model.Transformer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Everything the inspection page needs in one response.
+ * imagesByType is keyed by image type (Baseline, Maintenance); annotationsByImage holds the
+ * non-deleted annotations of each image; baselineImageUrl is the transformer baseline for the
+ * inspection's weather condition (null if none).
+ */
+public record InspectionDetail(
+        Inspection inspection,
+        Transformer transformer,
+        Map<String, List<ThermalImage>> imagesByType,
+        Map<UUID, List<DetectionDTO>> annotationsByImage,
+        String baselineWeatherCondition,
+        String baselineImageUrl) {
+}
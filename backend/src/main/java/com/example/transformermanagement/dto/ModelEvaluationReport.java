@@ -0,0 +1,43 @@
+package com.example.transformermanagement.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Result of comparing AI predictions with the final human annotations, grouped by model version and time window
+public record ModelEvaluationReport(
+        OffsetDateTime from,
+        OffsetDateTime to,
+        String bucket,
+        double iouThreshold,
+        List<Result> results
+) {
+
+    public record Result(
+            String modelVersion,
+            OffsetDateTime windowStart,
+            OffsetDateTime windowEnd,
+            int images,
+            int predictions,
+            int groundTruths,
+            int truePositives,
+            int falsePositives,
+            int falseNegatives,
+            double precision,
+            double recall,
+            double mAP50,
+            Map<String, ClassMetrics> perClass,
+            // ground-truth class -> predicted class -> count; "background" marks a missed or spurious box
+            Map<String, Map<String, Long>> confusion
+    ) {}
+
+    public record ClassMetrics(
+            int groundTruths,
+            int truePositives,
+            int falsePositives,
+            int falseNegatives,
+            double precision,
+            double recall,
+            double ap50
+    ) {}
+}
@@ -0,0 +1,12 @@
+package com.example.transformermanagement.dto;
+
+import java.util.UUID;
+
+// Informativeness score of a user-corrected image; each signal is in [0, 1]
+public record RetrainingCandidate(
+        UUID thermalImageId,
+        double score,
+        double uncertainty,
+        double disagreement,
+        double rarity
+) {}
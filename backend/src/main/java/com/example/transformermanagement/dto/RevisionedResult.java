@@ -0,0 +1,7 @@
+package com.example.transformermanagement.dto;
+
+/**
+ * Result of an annotation change with the image's annotation revision it produced (read inside the transaction)
+ */
+public record RevisionedResult<T>(T value, long revision) {
+}
@@ -0,0 +1,20 @@
+package com.example.transformermanagement.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+// Result of one upload garbage collector pass; a dry run reports the orphans without deleting any
+public record UploadGcReport(
+        OffsetDateTime startedAt,
+        OffsetDateTime finishedAt,
+        boolean dryRun,
+        long referencedFiles,
+        long scannedFiles,
+        long withinGracePeriod, // Unreferenced but too recent to delete (upload still in progress, row not committed yet)
+        long orphanFiles,
+        long orphanBytes,
+        long deletedFiles,
+        long deletedBytes,
+        String skippedReason, // Why nothing was deleted despite orphans; null otherwise
+        List<String> sampleOrphans
+) {}
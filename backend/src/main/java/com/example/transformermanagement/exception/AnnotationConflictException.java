@@ -0,0 +1,37 @@
+package com.example.transformermanagement.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+/**
+ * Thrown when a client edits annotations based on a stale revision of a thermal image
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class AnnotationConflictException extends RuntimeException {
+
+    private final UUID thermalImageId;
+    private final long expectedRevision;
+    private final long currentRevision;
+
+    public AnnotationConflictException(UUID thermalImageId, long expectedRevision, long currentRevision) {
+        super("Stale annotation revision for thermal image " + thermalImageId
+                + ": expected " + expectedRevision + " but current is " + currentRevision);
+        this.thermalImageId = thermalImageId;
+        this.expectedRevision = expectedRevision;
+        this.currentRevision = currentRevision;
+    }
+
+    public UUID getThermalImageId() {
+        return thermalImageId;
+    }
+
+    public long getExpectedRevision() {
+        return expectedRevision;
+    }
+
+    public long getCurrentRevision() {
+        return currentRevision;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.transformermanagement.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Moves detection JSON from the baseline thermal_images.detection_data column into thermal_image_detections
+ * (created by V10) and drops the column.
+ *
+ * Rows that are not yet in the side table are copied first, so a database that already had rows written there
+ * by the application keeps them. A no-op when the column is already gone.
+ */
+public class V11__Move_detection_data extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V11__Move_detection_data.class);
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        if (!legacyColumnExists(connection)) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            int moved = statement.executeUpdate(
+                "INSERT INTO thermal_image_detections (thermal_image_id, detection_data, updated_at) " +
+                "SELECT t.id, t.detection_data, CURRENT_TIMESTAMP FROM thermal_images t " +
+                "WHERE t.detection_data IS NOT NULL AND NOT EXISTS " +
+                "(SELECT 1 FROM thermal_image_detections d WHERE d.thermal_image_id = t.id)");
+            statement.execute("ALTER TABLE thermal_images DROP COLUMN detection_data");
+            if (moved > 0) {
+                logger.info("Moved detection data of {} thermal image(s) to thermal_image_detections", moved);
+            }
+        }
+    }
+
+    private static boolean legacyColumnExists(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String table : new String[]{"thermal_images", "THERMAL_IMAGES"}) {
+            for (String column : new String[]{"detection_data", "DETECTION_DATA"}) {
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, table, column)) {
+                    if (columns.next()) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.transformermanagement.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Converts UUID columns stored as text into BINARY(16) on MySQL and MariaDB.
+ *
+ * Schemas created by ddl-auto=update under an older mapping may hold CHAR(36)/VARCHAR(36) ids, which the
+ * baseline cannot fix because ddl-auto never changed column types. Each such column is rewritten in place:
+ * widened to VARBINARY(36), its hex digits packed with UNHEX, then narrowed to BINARY(16). Primary keys and
+ * indexes are kept; MySQL refuses to change the type of a foreign key column, so the foreign keys between these
+ * columns are dropped first and recreated with their names and delete rules afterwards. Values that are already
+ * 16 bytes are left alone, and the migration is a no-op on schemas created by V1. Existing random ids keep
+ * their values; only new rows get time-ordered ids.
+ */
+public class V2__Uuid_columns_to_binary extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V2__Uuid_columns_to_binary.class);
+
+    private static final Map<String, List<String>> UUID_COLUMNS = new LinkedHashMap<>();
+
+    private record ForeignKey(String name, String table, String column, String referencedTable, String referencedColumn,
+                              String deleteRule) {}
+
+    static {
+        UUID_COLUMNS.put("transformers", List.of("id"));
+        UUID_COLUMNS.put("inspections", List.of("id", "transformer_id"));
+        UUID_COLUMNS.put("thermal_images", List.of("id", "inspection_id"));
+        UUID_COLUMNS.put("thermal_image_detections", List.of("thermal_image_id"));
+        UUID_COLUMNS.put("annotations", List.of("id", "thermal_image_id", "transformer_id"));
+        UUID_COLUMNS.put("alerts", List.of("id", "transformer_id", "thermal_image_id"));
+        UUID_COLUMNS.put("alert_unread_counts", List.of("transformer_id"));
+        UUID_COLUMNS.put("fleet_rollups", List.of("id"));
+        UUID_COLUMNS.put("upload_outbox", List.of("id", "thermal_image_id", "batch_id"));
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        String product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        if (!product.contains("mysql") && !product.contains("mariadb")) {
+            return;
+        }
+        List<String[]> textColumns = findTextColumns(connection);
+        if (textColumns.isEmpty()) {
+            return;
+        }
+        logger.info("Converting {} UUID column(s) from text to BINARY(16)", textColumns.size());
+        List<ForeignKey> foreignKeys = findForeignKeys(connection);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+            try {
+                for (ForeignKey foreignKey : foreignKeys) {
+                    statement.execute("ALTER TABLE " + foreignKey.table() + " DROP FOREIGN KEY " + foreignKey.name());
+                }
+                for (String[] column : textColumns) {
+                    convert(statement, column[0], column[1], "YES".equals(column[2]));
+                }
+                for (ForeignKey foreignKey : foreignKeys) {
+                    statement.execute("ALTER TABLE " + foreignKey.table() + " ADD CONSTRAINT " + foreignKey.name() +
+                        " FOREIGN KEY (" + foreignKey.column() + ") REFERENCES " + foreignKey.referencedTable() +
+                        " (" + foreignKey.referencedColumn() + ") ON DELETE " + foreignKey.deleteRule());
+                }
+            } finally {
+                statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+            }
+        }
+    }
+
+    // Single-column foreign keys whose referencing column is one of the UUID columns
+    private static List<ForeignKey> findForeignKeys(Connection connection) throws SQLException {
+        List<ForeignKey> foreignKeys = new ArrayList<>();
+        String sql = "SELECT k.CONSTRAINT_NAME, k.TABLE_NAME, k.COLUMN_NAME, k.REFERENCED_TABLE_NAME, k.REFERENCED_COLUMN_NAME, " +
+                     "r.DELETE_RULE FROM information_schema.KEY_COLUMN_USAGE k JOIN information_schema.REFERENTIAL_CONSTRAINTS r " +
+                     "ON r.CONSTRAINT_SCHEMA = k.CONSTRAINT_SCHEMA AND r.CONSTRAINT_NAME = k.CONSTRAINT_NAME AND r.TABLE_NAME = k.TABLE_NAME " +
+                     "WHERE k.TABLE_SCHEMA = DATABASE() AND k.REFERENCED_TABLE_NAME IS NOT NULL";
+        try (Statement statement = connection.createStatement(); ResultSet rows = statement.executeQuery(sql)) {
+            while (rows.next()) {
+                List<String> columns = UUID_COLUMNS.get(rows.getString(2));
+                if (columns != null && columns.contains(rows.getString(3))) {
+                    foreignKeys.add(new ForeignKey(rows.getString(1), rows.getString(2), rows.getString(3),
+                        rows.getString(4), rows.getString(5), rows.getString(6)));
+                }
+            }
+        }
+        return foreignKeys;
+    }
+
+    private static List<String[]> findTextColumns(Connection connection) throws SQLException {
+        List<String[]> columns = new ArrayList<>();
+        String sql = "SELECT IS_NULLABLE FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() " +
+                     "AND TABLE_NAME = ? AND COLUMN_NAME = ? AND DATA_TYPE IN ('char', 'varchar', 'varbinary')";
+        try (PreparedStatement query = connection.prepareStatement(sql)) {
+            for (Map.Entry<String, List<String>> table : UUID_COLUMNS.entrySet()) {
+                for (String column : table.getValue()) {
+                    query.setString(1, table.getKey());
+                    query.setString(2, column);
+                    try (ResultSet result = query.executeQuery()) {
+                        if (result.next()) {
+                            columns.add(new String[]{table.getKey(), column, result.getString(1)});
+                        }
+                    }
+                }
+            }
+        }
+        return columns;
+    }
+
+    private static void convert(Statement statement, String table, String column, boolean nullable) throws SQLException {
+        String nullability = nullable ? "NULL" : "NOT NULL";
+        statement.execute("ALTER TABLE " + table + " MODIFY " + column + " VARBINARY(36) " + nullability);
+        int rows = statement.executeUpdate("UPDATE " + table + " SET " + column + " = UNHEX(REPLACE(" + column + ", '-', '')) " +
+                                           "WHERE LENGTH(" + column + ") = 36");
+        statement.execute("ALTER TABLE " + table + " MODIFY " + column + " BINARY(16) " + nullability);
+        logger.info("Converted {}.{} ({} row(s))", table, column, rows);
+    }
+}
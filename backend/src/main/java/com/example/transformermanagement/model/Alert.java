@@ -1,13 +1,25 @@
 package com.example.transformermanagement.model;
 
+import com.example.transformermanagement.service.FleetRollupChangeListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
-@Table(name = "alerts")
+@EntityListeners(FleetRollupChangeListener.class)
+@Table(name = "alerts", indexes = {
+    @Index(name = "idx_alerts_created", columnList = "created_at, id"),
+    @Index(name = "idx_alerts_transformer_created", columnList = "transformer_id, created_at, id"),
+    @Index(name = "idx_alerts_severity_created", columnList = "severity, created_at, id"),
+    @Index(name = "idx_alerts_read_created", columnList = "is_read, created_at, id"),
+    @Index(name = "idx_alerts_image_type", columnList = "thermal_image_id, alert_type"),
+    @Index(name = "idx_alerts_dedup", columnList = "transformer_id, alert_type, location_bucket, last_seen_at")
+})
 public class Alert {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @TimeOrderedUuid
     private java.util.UUID id;
 
     @ManyToOne
@@ -23,12 +35,38 @@ public class Alert {
     private String severity;
     private Boolean isRead;
 
+    private java.util.UUID thermalImageId; // Image that first triggered a rule-generated alert; null for client-created alerts
+
+    private java.util.UUID lastThermalImageId; // Image of the latest occurrence folded into this alert
+
+    // Every image that raised or recurred this alert (AlertRuleEngine skips images already recorded here)
+    @JsonIgnore
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "alert_source_images", joinColumns = @JoinColumn(name = "alert_id"))
+    @Column(name = "thermal_image_id")
+    private Set<java.util.UUID> sourceImageIds = new HashSet<>();
+
+    private String locationBucket; // Image grid cell of the triggering detection; empty when the alert has no location
+
+    private Integer occurrenceCount; // Recurrences folded into this row by deduplication
+
     @Column(updatable = false)
     private OffsetDateTime createdAt;
 
+    private OffsetDateTime lastSeenAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = OffsetDateTime.now();
+        if (lastSeenAt == null) {
+            lastSeenAt = createdAt;
+        }
+        if (occurrenceCount == null) {
+            occurrenceCount = 1;
+        }
+        if (locationBucket == null) {
+            locationBucket = "";
+        }
     }
 
     // Getters and Setters
@@ -80,6 +118,26 @@ public class Alert {
         this.isRead = isRead;
     }
 
+    public java.util.UUID getThermalImageId() {
+        return thermalImageId;
+    }
+
+    public void setThermalImageId(java.util.UUID thermalImageId) {
+        this.thermalImageId = thermalImageId;
+    }
+
+    public java.util.UUID getLastThermalImageId() {
+        return lastThermalImageId;
+    }
+
+    public void setLastThermalImageId(java.util.UUID lastThermalImageId) {
+        this.lastThermalImageId = lastThermalImageId;
+    }
+
+    public Set<java.util.UUID> getSourceImageIds() {
+        return sourceImageIds;
+    }
+
     public OffsetDateTime getCreatedAt() {
         return createdAt;
     }
@@ -87,4 +145,28 @@ public class Alert {
     public void setCreatedAt(OffsetDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public String getLocationBucket() {
+        return locationBucket;
+    }
+
+    public void setLocationBucket(String locationBucket) {
+        this.locationBucket = locationBucket;
+    }
+
+    public Integer getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public void setOccurrenceCount(Integer occurrenceCount) {
+        this.occurrenceCount = occurrenceCount;
+    }
+
+    public OffsetDateTime getLastSeenAt() {
+        return lastSeenAt;
+    }
+
+    public void setLastSeenAt(OffsetDateTime lastSeenAt) {
+        this.lastSeenAt = lastSeenAt;
+    }
 }
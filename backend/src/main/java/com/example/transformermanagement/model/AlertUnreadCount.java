@@ -0,0 +1,55 @@
+package com.example.transformermanagement.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Number of unread alerts of one transformer.
+ * Adjusted by AlertService in the same transaction as every alert insert, recurrence and read-flag change,
+ * so the alerts panel reads one row per transformer instead of counting alerts. Deleted with its transformer by the FK.
+ */
+@Entity
+@Table(name = "alert_unread_counts")
+public class AlertUnreadCount {
+    @Id
+    private java.util.UUID transformerId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "transformer_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Transformer transformer;
+
+    @Column(nullable = false)
+    private long unreadCount;
+
+    public AlertUnreadCount() {
+    }
+
+    public AlertUnreadCount(Transformer transformer, long unreadCount) {
+        this.transformer = transformer;
+        this.unreadCount = unreadCount;
+    }
+
+    // Getters and Setters
+    public java.util.UUID getTransformerId() {
+        return transformerId;
+    }
+
+    public Transformer getTransformer() {
+        return transformer;
+    }
+
+    public void setTransformer(Transformer transformer) {
+        this.transformer = transformer;
+    }
+
+    public long getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(long unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+}
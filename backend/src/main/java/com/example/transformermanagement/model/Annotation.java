@@ -1,14 +1,21 @@
 package com.example.transformermanagement.model;
 
+import com.example.transformermanagement.service.FleetRollupChangeListener;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "annotations")
+@EntityListeners(FleetRollupChangeListener.class)
+@Table(name = "annotations", indexes = {
+    @Index(name = "idx_annotations_image_live_created", columnList = "thermal_image_id, is_deleted, created_at"),
+    @Index(name = "idx_annotations_type_live", columnList = "annotation_type, is_deleted, thermal_image_id"),
+    @Index(name = "idx_annotations_live_class", columnList = "is_deleted, detection_class"),
+    @Index(name = "idx_annotations_live_created", columnList = "is_deleted, created_at")
+})
 public class Annotation {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @TimeOrderedUuid
     private java.util.UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
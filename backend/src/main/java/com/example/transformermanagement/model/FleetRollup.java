@@ -0,0 +1,126 @@
+package com.example.transformermanagement.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Precomputed dashboard counter for one (region, type) segment of the fleet.
+ * Rows are rebuilt per segment by FleetRollupService with SQL aggregations whenever a transformer,
+ * inspection, alert or annotation in that segment changes; day is only set for ANOMALY_CLASS rows.
+ */
+@Entity
+@Table(name = "fleet_rollups", indexes = {
+    @Index(name = "idx_fleet_rollups_segment", columnList = "region, type"),
+    @Index(name = "idx_fleet_rollups_day", columnList = "rollup_day")
+})
+public class FleetRollup {
+
+    public static final String TRANSFORMERS = "TRANSFORMERS";
+    public static final String INSPECTION_STATUS = "INSPECTION_STATUS";
+    public static final String OPEN_ALERT_SEVERITY = "OPEN_ALERT_SEVERITY";
+    public static final String ANOMALY_CLASS = "ANOMALY_CLASS";
+
+    @Id
+    @TimeOrderedUuid
+    private java.util.UUID id;
+
+    @Column(nullable = false)
+    private String region;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(nullable = false)
+    private String metric;
+
+    @Column(nullable = false)
+    private String dimension; // Status, severity or detection class; empty for TRANSFORMERS
+
+    @Column(name = "rollup_day") // DAY is a keyword in several SQL dialects
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private Long total;
+
+    private OffsetDateTime refreshedAt;
+
+    public FleetRollup() {
+    }
+
+    public FleetRollup(String region, String type, String metric, String dimension, LocalDate day, Long total,
+                       OffsetDateTime refreshedAt) {
+        this.region = region;
+        this.type = type;
+        this.metric = metric;
+        this.dimension = dimension;
+        this.day = day;
+        this.total = total;
+        this.refreshedAt = refreshedAt;
+    }
+
+    // Getters and Setters
+    public java.util.UUID getId() {
+        return id;
+    }
+
+    public void setId(java.util.UUID id) {
+        this.id = id;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public void setMetric(String metric) {
+        this.metric = metric;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(String dimension) {
+        this.dimension = dimension;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public OffsetDateTime getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    public void setRefreshedAt(OffsetDateTime refreshedAt) {
+        this.refreshedAt = refreshedAt;
+    }
+}
@@ -1,25 +1,40 @@
 package com.example.transformermanagement.model;
 
+import com.example.transformermanagement.config.SecondLevelCacheConfig;
+import com.example.transformermanagement.service.FleetRollupChangeListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "inspections")
+@EntityListeners(FleetRollupChangeListener.class)
+@Table(name = "inspections", indexes = {
+    @Index(name = "idx_inspections_created", columnList = "created_at, id"),
+    @Index(name = "idx_inspections_transformer_created", columnList = "transformer_id, created_at, id"),
+    @Index(name = "idx_inspections_status_created", columnList = "status, created_at, id"),
+    @Index(name = "idx_inspections_inspected_date", columnList = "inspected_date, id")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.INSPECTIONS_REGION)
 public class Inspection {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @TimeOrderedUuid
     private java.util.UUID id;
 
     @Column(unique = true, nullable = false)
     private String inspectionNo;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Lazy: loaded by fetch join (InspectionRepository.findByIdWithTransformer, InspectionService list spec) where it is serialized
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "transformer_id")
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private Transformer transformer;
     
+    // No cascade: deleted by BulkDeleteService with set-based statements instead of entity by entity
     @JsonIgnore
-    @OneToMany(mappedBy = "inspection", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "inspection", fetch = FetchType.LAZY)
     private java.util.List<ThermalImage> thermalImages = new java.util.ArrayList<>();
 
     @Column(nullable = false)
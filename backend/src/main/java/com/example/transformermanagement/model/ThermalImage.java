@@ -6,13 +6,19 @@ import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "thermal_images")
+@Table(name = "thermal_images", indexes = {
+    @Index(name = "idx_thermal_images_inspection_type", columnList = "inspection_id, image_type, uploaded_at, id"),
+    @Index(name = "idx_thermal_images_type_uploaded", columnList = "image_type, uploaded_at, id"),
+    @Index(name = "idx_thermal_images_uploaded", columnList = "uploaded_at, id")
+})
 public class ThermalImage {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @TimeOrderedUuid
     private java.util.UUID id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Lazy: list and annotation paths only need the id; use ThermalImageRepository.findByIdWithInspection when the inspection is needed
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "inspection_id")
     private Inspection inspection;
 
@@ -25,11 +31,35 @@ public class ThermalImage {
     private BigDecimal temperatureReading;
     private Boolean anomalyDetected;
 
-    @Column(columnDefinition = "TEXT")
-    private String detectionData; // JSON string containing bounding box detections (legacy/backup)
+    // Detection JSON (legacy/backup) and the raw AI predictions live in ThermalImageDetections so list queries
+    // never read them
+
+    private String modelVersion; // Detector model version that produced ThermalImageDetections.aiPredictions
 
+    // Read from the image header at upload time so exports never decode the file
+    private Integer imageWidth;
+    private Integer imageHeight;
+    private String imageFormat; // e.g. png, JPEG
+    private Integer bitDepth; // Bits per pixel
+
+    // Roboflow sync state: remote dataset item and the hashes of what was last uploaded/annotated
+    @JsonIgnore
+    private String roboflowImageId;
     @JsonIgnore
-    @OneToMany(mappedBy = "thermalImage", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    private String roboflowContentHash;
+    @JsonIgnore
+    private String roboflowAnnotationHash;
+    private OffsetDateTime roboflowSyncedAt;
+    @JsonIgnore
+    private Long roboflowSyncedRevision; // annotationRevision of the annotations last applied
+
+    // Bumped on every annotation change; only written through ThermalImageRepository revision queries
+    @Column(updatable = false)
+    private Long annotationRevision = 0L;
+
+    // No cascade: deleted by BulkDeleteService with set-based statements instead of entity by entity
+    @JsonIgnore
+    @OneToMany(mappedBy = "thermalImage", fetch = FetchType.LAZY)
     private java.util.List<Annotation> annotations = new java.util.ArrayList<>();
 
     @Column(updatable = false)
@@ -57,6 +87,11 @@ public class ThermalImage {
         this.inspection = inspection;
     }
 
+    // Inspection ID for JSON serialization; reading the id does not initialize the lazy proxy
+    public java.util.UUID getInspectionId() {
+        return inspection != null ? inspection.getId() : null;
+    }
+
     public String getImageUrl() {
         return imageUrl;
     }
@@ -105,12 +140,20 @@ public class ThermalImage {
         this.uploadedAt = uploadedAt;
     }
 
-    public String getDetectionData() {
-        return detectionData;
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
+    public void setModelVersion(String modelVersion) {
+        this.modelVersion = modelVersion;
+    }
+
+    public Long getAnnotationRevision() {
+        return annotationRevision;
     }
 
-    public void setDetectionData(String detectionData) {
-        this.detectionData = detectionData;
+    public void setAnnotationRevision(Long annotationRevision) {
+        this.annotationRevision = annotationRevision;
     }
 
     public java.util.List<Annotation> getAnnotations() {
@@ -120,4 +163,76 @@ public class ThermalImage {
     public void setAnnotations(java.util.List<Annotation> annotations) {
         this.annotations = annotations;
     }
+
+    public Integer getImageWidth() {
+        return imageWidth;
+    }
+
+    public void setImageWidth(Integer imageWidth) {
+        this.imageWidth = imageWidth;
+    }
+
+    public Integer getImageHeight() {
+        return imageHeight;
+    }
+
+    public void setImageHeight(Integer imageHeight) {
+        this.imageHeight = imageHeight;
+    }
+
+    public String getImageFormat() {
+        return imageFormat;
+    }
+
+    public void setImageFormat(String imageFormat) {
+        this.imageFormat = imageFormat;
+    }
+
+    public Integer getBitDepth() {
+        return bitDepth;
+    }
+
+    public void setBitDepth(Integer bitDepth) {
+        this.bitDepth = bitDepth;
+    }
+
+    public String getRoboflowImageId() {
+        return roboflowImageId;
+    }
+
+    public void setRoboflowImageId(String roboflowImageId) {
+        this.roboflowImageId = roboflowImageId;
+    }
+
+    public String getRoboflowContentHash() {
+        return roboflowContentHash;
+    }
+
+    public void setRoboflowContentHash(String roboflowContentHash) {
+        this.roboflowContentHash = roboflowContentHash;
+    }
+
+    public String getRoboflowAnnotationHash() {
+        return roboflowAnnotationHash;
+    }
+
+    public void setRoboflowAnnotationHash(String roboflowAnnotationHash) {
+        this.roboflowAnnotationHash = roboflowAnnotationHash;
+    }
+
+    public OffsetDateTime getRoboflowSyncedAt() {
+        return roboflowSyncedAt;
+    }
+
+    public void setRoboflowSyncedAt(OffsetDateTime roboflowSyncedAt) {
+        this.roboflowSyncedAt = roboflowSyncedAt;
+    }
+
+    public Long getRoboflowSyncedRevision() {
+        return roboflowSyncedRevision;
+    }
+
+    public void setRoboflowSyncedRevision(Long roboflowSyncedRevision) {
+        this.roboflowSyncedRevision = roboflowSyncedRevision;
+    }
 }
@@ -0,0 +1,74 @@
+package com.example.transformermanagement.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Raw detection JSON of a thermal image (legacy/backup copy of the AI detections, replaced by user edits) and the
+ * untouched AI prediction snapshot. Kept out of thermal_images so image rows stay small and list queries never
+ * read them; the detection JSON is fetched on demand through GET /api/thermal-images/{id}/detections, the
+ * predictions by model evaluation and retraining selection. Deleted with its image by the FK.
+ */
+@Entity
+@Table(name = "thermal_image_detections")
+public class ThermalImageDetections {
+    @Id
+    private java.util.UUID thermalImageId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "thermal_image_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private ThermalImage thermalImage;
+
+    @Column(columnDefinition = "TEXT")
+    private String detectionData; // JSON string containing bounding box detections
+
+    // Raw AI predictions as returned by the detector; never overwritten by user edits (model evaluation baseline)
+    @Column(columnDefinition = "TEXT")
+    private String aiPredictions;
+
+    private OffsetDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = OffsetDateTime.now();
+    }
+
+    // Getters and Setters
+    public java.util.UUID getThermalImageId() {
+        return thermalImageId;
+    }
+
+    public ThermalImage getThermalImage() {
+        return thermalImage;
+    }
+
+    public void setThermalImage(ThermalImage thermalImage) {
+        this.thermalImage = thermalImage;
+    }
+
+    public String getDetectionData() {
+        return detectionData;
+    }
+
+    public void setDetectionData(String detectionData) {
+        this.detectionData = detectionData;
+    }
+
+    public String getAiPredictions() {
+        return aiPredictions;
+    }
+
+    public void setAiPredictions(String aiPredictions) {
+        this.aiPredictions = aiPredictions;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -1,15 +1,28 @@
 package com.example.transformermanagement.model;
 
+import com.example.transformermanagement.config.SecondLevelCacheConfig;
+import com.example.transformermanagement.service.FleetRollupChangeListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "transformers")
+@EntityListeners(FleetRollupChangeListener.class)
+@Table(name = "transformers", indexes = {
+    // List filters, each followed by the default keyset sort column
+    @Index(name = "idx_transformers_region_no", columnList = "region, transformer_no, id"),
+    @Index(name = "idx_transformers_type_no", columnList = "type, transformer_no, id"),
+    @Index(name = "idx_transformers_status_no", columnList = "status, transformer_no, id"),
+    // Fleet rollup segments
+    @Index(name = "idx_transformers_segment", columnList = "region, type")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.TRANSFORMERS_REGION)
 public class Transformer {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @TimeOrderedUuid
     private java.util.UUID id;
 
     @Column(unique = true, nullable = false)
@@ -35,8 +48,9 @@ public class Transformer {
     private String cloudyBaselineImageUrl;
     private String rainyBaselineImageUrl;
     
+    // No cascade: deleted by BulkDeleteService with set-based statements instead of entity by entity
     @JsonIgnore
-    @OneToMany(mappedBy = "transformer", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "transformer", fetch = FetchType.LAZY)
     private java.util.List<Inspection> inspections = new java.util.ArrayList<>();
 
     @Column(updatable = false)
@@ -0,0 +1,52 @@
+package com.example.transformermanagement.model;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * Uploaded file whose rows were removed by a bulk delete and that UploadFileCleaner still has to delete from disk.
+ * Written by INSERT ... SELECT in the deleting transaction, so the queue commits or rolls back with the rows
+ * and a restart never forgets a file.
+ */
+@Entity
+@Table(name = "upload_cleanup_queue")
+public class UploadCleanupEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String fileUrl; // e.g. /uploads/filename.jpg
+
+    @Column(nullable = false)
+    private OffsetDateTime enqueuedAt;
+
+    public UploadCleanupEntry() {
+    }
+
+    public UploadCleanupEntry(String fileUrl, OffsetDateTime enqueuedAt) {
+        this.fileUrl = fileUrl;
+        this.enqueuedAt = enqueuedAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public String getFileUrl() {
+        return fileUrl;
+    }
+
+    public void setFileUrl(String fileUrl) {
+        this.fileUrl = fileUrl;
+    }
+
+    public OffsetDateTime getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    public void setEnqueuedAt(OffsetDateTime enqueuedAt) {
+        this.enqueuedAt = enqueuedAt;
+    }
+}
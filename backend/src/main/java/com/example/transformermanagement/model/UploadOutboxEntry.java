@@ -0,0 +1,201 @@
+package com.example.transformermanagement.model;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * Durable queue entry for a Roboflow dataset upload.
+ * Written in the same transaction as the change that requires it, then drained by UploadOutboxWorker
+ * with lease/ack semantics so uploads survive restarts and never run on a request thread.
+ */
+@Entity
+@Table(name = "upload_outbox", indexes = {
+    @Index(name = "idx_upload_outbox_status_available", columnList = "status, availableAt"),
+    @Index(name = "idx_upload_outbox_status_lease", columnList = "status, leaseUntil"),
+    @Index(name = "idx_upload_outbox_batch_created", columnList = "batchId, createdAt"),
+    @Index(name = "idx_upload_outbox_image_status", columnList = "thermalImageId, status")
+})
+public class UploadOutboxEntry {
+
+    public static final String PENDING = "PENDING";
+    public static final String LEASED = "LEASED";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    // Note on a DONE entry whose image and annotations already matched the dataset, so nothing was sent
+    public static final String UNCHANGED_NOTE = "Unchanged since last sync; skipped";
+
+    @Id
+    @TimeOrderedUuid
+    private java.util.UUID id;
+
+    @Column(nullable = false)
+    private java.util.UUID thermalImageId;
+
+    private java.util.UUID batchId; // Null for uploads enqueued by annotation changes
+
+    @Column(nullable = false)
+    private String split;
+
+    @Column(nullable = false)
+    private String status = PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private OffsetDateTime availableAt;
+
+    private String leaseOwner;
+    private OffsetDateTime leaseUntil;
+
+    // Idempotency key parts recorded on ack: SHA-256 of the image bytes and of the annotation set
+    private String contentHash;
+    private String annotationHash;
+
+    private String roboflowId; // Dataset image item ID from the upload response
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(updatable = false)
+    private OffsetDateTime createdAt;
+
+    private OffsetDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = OffsetDateTime.now();
+        updatedAt = createdAt;
+        if (availableAt == null) {
+            availableAt = createdAt;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = OffsetDateTime.now();
+    }
+
+    // Getters and Setters
+    public java.util.UUID getId() {
+        return id;
+    }
+
+    public void setId(java.util.UUID id) {
+        this.id = id;
+    }
+
+    public java.util.UUID getThermalImageId() {
+        return thermalImageId;
+    }
+
+    public void setThermalImageId(java.util.UUID thermalImageId) {
+        this.thermalImageId = thermalImageId;
+    }
+
+    public java.util.UUID getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(java.util.UUID batchId) {
+        this.batchId = batchId;
+    }
+
+    public String getSplit() {
+        return split;
+    }
+
+    public void setSplit(String split) {
+        this.split = split;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public OffsetDateTime getAvailableAt() {
+        return availableAt;
+    }
+
+    public void setAvailableAt(OffsetDateTime availableAt) {
+        this.availableAt = availableAt;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public OffsetDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(OffsetDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getAnnotationHash() {
+        return annotationHash;
+    }
+
+    public void setAnnotationHash(String annotationHash) {
+        this.annotationHash = annotationHash;
+    }
+
+    public String getRoboflowId() {
+        return roboflowId;
+    }
+
+    public void setRoboflowId(String roboflowId) {
+        this.roboflowId = roboflowId;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(OffsetDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(OffsetDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
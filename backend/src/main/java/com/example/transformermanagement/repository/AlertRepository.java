@@ -1,9 +1,36 @@
 package com.example.transformermanagement.repository;
 
 import com.example.transformermanagement.model.Alert;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
 @Repository
-public interface AlertRepository extends JpaRepository<Alert, java.util.UUID> {
+public interface AlertRepository extends JpaRepository<Alert, java.util.UUID>, JpaSpecificationExecutor<Alert> {
+    // Whether the image already raised an alert of this type, including one it was folded into as a recurrence
+    @Query("SELECT CASE WHEN COUNT(a) > 0 THEN true ELSE false END FROM Alert a JOIN a.sourceImageIds s " +
+           "WHERE s = :thermalImageId AND a.alertType = :alertType")
+    boolean existsRaisedForImage(@Param("thermalImageId") UUID thermalImageId, @Param("alertType") String alertType);
+
+    // Most recent alert with the same deduplication key seen since the window start (served by idx_alerts_dedup)
+    @Query("SELECT a FROM Alert a WHERE a.transformer.id = :transformerId AND a.alertType = :alertType " +
+           "AND a.locationBucket = :locationBucket AND a.lastSeenAt >= :since ORDER BY a.lastSeenAt DESC")
+    List<Alert> findRecentDuplicate(@Param("transformerId") UUID transformerId,
+                                    @Param("alertType") String alertType,
+                                    @Param("locationBucket") String locationBucket,
+                                    @Param("since") OffsetDateTime since,
+                                    Pageable pageable);
+
+    // Bulk delete (BulkDeleteService); the transformer's unread counter goes with the transformer through the FK
+    @Modifying
+    @Query("DELETE FROM Alert a WHERE a.transformer.id = :transformerId")
+    int deleteAllOfTransformer(@Param("transformerId") UUID transformerId);
 }
@@ -0,0 +1,27 @@
+package com.example.transformermanagement.repository;
+
+import com.example.transformermanagement.model.AlertUnreadCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AlertUnreadCountRepository extends JpaRepository<AlertUnreadCount, UUID> {
+
+    @Modifying
+    @Query("UPDATE AlertUnreadCount c SET c.unreadCount = c.unreadCount + :delta WHERE c.transformerId = :transformerId")
+    int adjust(@Param("transformerId") UUID transformerId, @Param("delta") long delta);
+
+    @Query("SELECT c FROM AlertUnreadCount c WHERE c.unreadCount > 0")
+    List<AlertUnreadCount> findNonZero();
+
+    // Rebuild source: unread alerts per transformer
+    @Query("SELECT a.transformer.id, COUNT(a) FROM Alert a WHERE a.transformer IS NOT NULL " +
+           "AND (a.isRead = false OR a.isRead IS NULL) GROUP BY a.transformer.id")
+    List<Object[]> countUnreadAlertsByTransformer();
+}
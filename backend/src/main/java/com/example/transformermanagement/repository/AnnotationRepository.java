@@ -2,6 +2,7 @@ package com.example.transformermanagement.repository;
 
 import com.example.transformermanagement.model.Annotation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,7 +19,34 @@ public interface AnnotationRepository extends JpaRepository<Annotation, UUID> {
     @Query("SELECT a FROM Annotation a WHERE a.thermalImage.id = :thermalImageId ORDER BY a.createdAt DESC")
     List<Annotation> findByThermalImageId(@Param("thermalImageId") UUID thermalImageId);
     
+    @Query("SELECT a FROM Annotation a WHERE a.thermalImage.id IN :thermalImageIds")
+    List<Annotation> findByThermalImageIdIn(@Param("thermalImageIds") List<UUID> thermalImageIds);
+    
+    @Query("SELECT a FROM Annotation a WHERE a.thermalImage.id IN :thermalImageIds AND a.isDeleted = false ORDER BY a.createdAt")
+    List<Annotation> findLiveByThermalImageIdIn(@Param("thermalImageIds") List<UUID> thermalImageIds);
+    
     @Query("SELECT a FROM Annotation a WHERE a.isDeleted = false AND (a.annotationType = 'user_added' OR a.annotationType = 'user_edited') ORDER BY a.createdAt DESC")
     List<Annotation> findUserCorrectedAnnotations();
+    
+    // User-corrected images whose annotations changed since they were last applied to the Roboflow dataset
+    @Query("SELECT DISTINCT a.thermalImage.id FROM Annotation a WHERE a.isDeleted = false " +
+           "AND (a.annotationType = 'user_added' OR a.annotationType = 'user_edited') " +
+           "AND (a.thermalImage.roboflowSyncedRevision IS NULL " +
+           "OR a.thermalImage.roboflowSyncedRevision <> COALESCE(a.thermalImage.annotationRevision, 0))")
+    List<UUID> findUserCorrectedThermalImageIdsChangedSinceSync();
+    
+    // Returns [detectionClass, count] rows over live annotations
+    @Query("SELECT a.detectionClass, COUNT(a) FROM Annotation a WHERE a.isDeleted = false GROUP BY a.detectionClass")
+    List<Object[]> countByDetectionClass();
+
+    // Bulk deletes (BulkDeleteService): one statement each, nothing is loaded
+    @Modifying
+    @Query("DELETE FROM Annotation a WHERE a.thermalImage.id IN (SELECT t.id FROM ThermalImage t " +
+           "WHERE t.inspection.id IN (SELECT i.id FROM Inspection i WHERE i.transformer.id = :transformerId))")
+    int deleteAllOfTransformer(@Param("transformerId") UUID transformerId);
+
+    @Modifying
+    @Query("DELETE FROM Annotation a WHERE a.thermalImage.id IN (SELECT t.id FROM ThermalImage t WHERE t.inspection.id = :inspectionId)")
+    int deleteAllOfInspection(@Param("inspectionId") UUID inspectionId);
 }
 
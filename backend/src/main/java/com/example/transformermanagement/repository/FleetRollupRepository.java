@@ -0,0 +1,64 @@
+package com.example.transformermanagement.repository;
+
+import com.example.transformermanagement.model.FleetRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rollup rows plus the aggregations that produce them.
+ * Aggregations take an optional (region, type) segment; null for both means the whole fleet.
+ */
+@Repository
+public interface FleetRollupRepository extends JpaRepository<FleetRollup, UUID> {
+
+    // Everything the dashboard needs in one query: current counters plus daily anomaly rows since the widest window
+    @Query("SELECT r FROM FleetRollup r WHERE r.day IS NULL OR r.day >= :since")
+    List<FleetRollup> findForSummary(@Param("since") LocalDate since);
+
+    @Modifying
+    @Query("DELETE FROM FleetRollup r WHERE (:region IS NULL OR r.region = :region) AND (:type IS NULL OR r.type = :type)")
+    int deleteSegment(@Param("region") String region, @Param("type") String type);
+
+    // Returns [region, type] rows for the segments the given transformers belong to
+    @Query("SELECT DISTINCT t.region, t.type FROM Transformer t WHERE t.id IN :transformerIds")
+    List<Object[]> findSegmentsOfTransformers(@Param("transformerIds") Collection<UUID> transformerIds);
+
+    @Query("SELECT DISTINCT tr.region, tr.type FROM ThermalImage ti JOIN ti.inspection i JOIN i.transformer tr WHERE ti.id IN :thermalImageIds")
+    List<Object[]> findSegmentsOfThermalImages(@Param("thermalImageIds") Collection<UUID> thermalImageIds);
+
+    // Returns [region, type, count]
+    @Query("SELECT t.region, t.type, COUNT(t) FROM Transformer t " +
+           "WHERE (:region IS NULL OR t.region = :region) AND (:type IS NULL OR t.type = :type) GROUP BY t.region, t.type")
+    List<Object[]> countTransformers(@Param("region") String region, @Param("type") String type);
+
+    // Returns [region, type, status, count]
+    @Query("SELECT tr.region, tr.type, i.status, COUNT(i) FROM Inspection i JOIN i.transformer tr " +
+           "WHERE (:region IS NULL OR tr.region = :region) AND (:type IS NULL OR tr.type = :type) " +
+           "GROUP BY tr.region, tr.type, i.status")
+    List<Object[]> countInspectionsByStatus(@Param("region") String region, @Param("type") String type);
+
+    // Returns [region, type, severity, count] over unread alerts
+    @Query("SELECT tr.region, tr.type, a.severity, COUNT(a) FROM Alert a JOIN a.transformer tr " +
+           "WHERE (a.isRead = false OR a.isRead IS NULL) " +
+           "AND (:region IS NULL OR tr.region = :region) AND (:type IS NULL OR tr.type = :type) " +
+           "GROUP BY tr.region, tr.type, a.severity")
+    List<Object[]> countOpenAlertsBySeverity(@Param("region") String region, @Param("type") String type);
+
+    // Returns [region, type, detectionClass, day, count] over live annotations created since the given time
+    @Query("SELECT tr.region, tr.type, an.detectionClass, CAST(an.createdAt AS LocalDate), COUNT(an) " +
+           "FROM Annotation an JOIN an.thermalImage ti JOIN ti.inspection i JOIN i.transformer tr " +
+           "WHERE an.isDeleted = false AND an.createdAt >= :since " +
+           "AND (:region IS NULL OR tr.region = :region) AND (:type IS NULL OR tr.type = :type) " +
+           "GROUP BY tr.region, tr.type, an.detectionClass, CAST(an.createdAt AS LocalDate)")
+    List<Object[]> countAnomaliesByClassAndDay(@Param("region") String region, @Param("type") String type,
+                                               @Param("since") OffsetDateTime since);
+}
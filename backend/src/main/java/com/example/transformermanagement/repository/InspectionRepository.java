@@ -1,8 +1,14 @@
 package com.example.transformermanagement.repository;
 
+import com.example.transformermanagement.config.SecondLevelCacheConfig;
 import com.example.transformermanagement.model.Inspection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -11,17 +17,27 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface InspectionRepository extends JpaRepository<Inspection, java.util.UUID> {
+public interface InspectionRepository extends JpaRepository<Inspection, java.util.UUID>, JpaSpecificationExecutor<Inspection> {
     List<Inspection> findByTransformer_Id(UUID transformerId);
     
     // Optimized queries with JOIN FETCH to avoid N+1 problem
-    // Sorted by createdAt in descending order (newest first)
-    @Query("SELECT i FROM Inspection i LEFT JOIN FETCH i.transformer ORDER BY i.createdAt DESC")
-    List<Inspection> findAllWithTransformer();
-    
+    // Cached: the result is an id pair resolved from the entity regions, invalidated by any write to either table
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.INSPECTION_LOOKUPS_REGION)
+    })
     @Query("SELECT i FROM Inspection i LEFT JOIN FETCH i.transformer WHERE i.id = :id")
     Optional<Inspection> findByIdWithTransformer(@Param("id") UUID id);
-    
-    @Query("SELECT i FROM Inspection i LEFT JOIN FETCH i.transformer WHERE i.transformer.id = :transformerId ORDER BY i.createdAt DESC")
-    List<Inspection> findByTransformerIdWithTransformer(@Param("transformerId") UUID transformerId);
+
+    @Query("SELECT i.transformer.id FROM Inspection i WHERE i.id = :id")
+    Optional<UUID> findTransformerIdById(@Param("id") UUID id);
+
+    // Bulk deletes (BulkDeleteService); Hibernate evicts the inspection cache regions after each statement
+    @Modifying
+    @Query("DELETE FROM Inspection i WHERE i.transformer.id = :transformerId")
+    int deleteAllOfTransformer(@Param("transformerId") UUID transformerId);
+
+    @Modifying
+    @Query("DELETE FROM Inspection i WHERE i.id = :id")
+    int deleteDirectlyById(@Param("id") UUID id);
 }
@@ -0,0 +1,24 @@
+package com.example.transformermanagement.repository;
+
+import com.example.transformermanagement.model.ThermalImageDetections;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ThermalImageDetectionsRepository extends JpaRepository<ThermalImageDetections, UUID> {
+
+    @Query("SELECT d.detectionData FROM ThermalImageDetections d WHERE d.thermalImageId = :thermalImageId")
+    Optional<String> findDetectionData(@Param("thermalImageId") UUID thermalImageId);
+
+    // [thermalImageId, aiPredictions] of those images that have a prediction snapshot
+    @Query("SELECT d.thermalImageId, d.aiPredictions FROM ThermalImageDetections d " +
+           "WHERE d.thermalImageId IN :thermalImageIds AND d.aiPredictions IS NOT NULL")
+    List<Object[]> findAiPredictions(@Param("thermalImageIds") Collection<UUID> thermalImageIds);
+}
@@ -1,14 +1,94 @@
 package com.example.transformermanagement.repository;
 
 import com.example.transformermanagement.model.ThermalImage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ThermalImageRepository extends JpaRepository<ThermalImage, UUID> {
-    List<ThermalImage> findByInspectionId(UUID inspectionId);
-    List<ThermalImage> findByInspectionIdAndImageTypeIgnoreCase(UUID inspectionId, String imageType);
+public interface ThermalImageRepository extends JpaRepository<ThermalImage, UUID>, JpaSpecificationExecutor<ThermalImage> {
+    List<ThermalImage> findByInspection_Id(UUID inspectionId);
+
+    // Most recent earlier image of the given type on the same transformer (previous inspection's image)
+    @Query("SELECT t FROM ThermalImage t WHERE t.inspection.transformer.id = :transformerId AND t.imageType = :imageType " +
+           "AND t.uploadedAt < :before AND t.inspection.id <> :inspectionId ORDER BY t.uploadedAt DESC")
+    List<ThermalImage> findPreviousOfTransformer(@Param("transformerId") UUID transformerId, @Param("imageType") String imageType,
+                                                 @Param("before") OffsetDateTime before, @Param("inspectionId") UUID inspectionId,
+                                                 Pageable pageable);
+
+    @Query("SELECT t.inspection.transformer.id FROM ThermalImage t WHERE t.id = :id")
+    Optional<UUID> findTransformerIdById(@Param("id") UUID id);
+
+    // Image with its inspection in one query; inspection.transformer stays a proxy whose id is available without loading
+    @Query("SELECT t FROM ThermalImage t LEFT JOIN FETCH t.inspection WHERE t.id = :id")
+    Optional<ThermalImage> findByIdWithInspection(@Param("id") UUID id);
+    List<ThermalImage> findByInspection_IdAndImageTypeIgnoreCase(UUID inspectionId, String imageType);
+
+    // Images with a preserved AI prediction snapshot, for model evaluation; id breaks uploadedAt ties so offset pages
+    // neither skip nor repeat images (idx_thermal_images_uploaded covers the order)
+    @Query("SELECT t FROM ThermalImage t WHERE t.uploadedAt >= :from AND t.uploadedAt < :to " +
+           "AND EXISTS (SELECT d.thermalImageId FROM ThermalImageDetections d WHERE d.thermalImageId = t.id " +
+           "AND d.aiPredictions IS NOT NULL) ORDER BY t.uploadedAt, t.id")
+    Slice<ThermalImage> findWithAiPredictions(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to, Pageable pageable);
+
+    // Images with at least one live annotation, for dataset export
+    @Query("SELECT t FROM ThermalImage t WHERE (:transformerId IS NULL OR t.inspection.transformer.id = :transformerId) " +
+           "AND t.uploadedAt >= :from AND t.uploadedAt < :to " +
+           "AND EXISTS (SELECT a.id FROM Annotation a WHERE a.thermalImage = t AND a.isDeleted = false) ORDER BY t.uploadedAt, t.id")
+    Slice<ThermalImage> findAnnotatedForExport(@Param("transformerId") UUID transformerId, @Param("from") OffsetDateTime from,
+                                               @Param("to") OffsetDateTime to, Pageable pageable);
+
+    // Annotation revision counter used for conflict detection on concurrent edits
+    @Query("SELECT COALESCE(t.annotationRevision, 0) FROM ThermalImage t WHERE t.id = :id")
+    Optional<Long> findAnnotationRevision(@Param("id") UUID id);
+
+    @Modifying
+    @Query("UPDATE ThermalImage t SET t.annotationRevision = COALESCE(t.annotationRevision, 0) + 1 WHERE t.id = :id")
+    int incrementAnnotationRevision(@Param("id") UUID id);
+
+    @Modifying
+    @Query("UPDATE ThermalImage t SET t.annotationRevision = COALESCE(t.annotationRevision, 0) + 1 " +
+           "WHERE t.id = :id AND COALESCE(t.annotationRevision, 0) = :expectedRevision")
+    int compareAndIncrementAnnotationRevision(@Param("id") UUID id, @Param("expectedRevision") long expectedRevision);
+
+    // One-time backfill of header metadata for images uploaded before it was captured
+    @Transactional
+    @Modifying
+    @Query("UPDATE ThermalImage t SET t.imageWidth = :width, t.imageHeight = :height, t.imageFormat = :format, t.bitDepth = :bitDepth WHERE t.id = :id")
+    int updateImageMetadata(@Param("id") UUID id, @Param("width") int width, @Param("height") int height,
+                            @Param("format") String format, @Param("bitDepth") Integer bitDepth);
+
+    // Recorded after a Roboflow sync; annotationHash stays null until the annotations were actually applied
+    @Transactional
+    @Modifying
+    @Query("UPDATE ThermalImage t SET t.roboflowImageId = :remoteId, t.roboflowContentHash = :contentHash, " +
+           "t.roboflowAnnotationHash = :annotationHash, t.roboflowSyncedRevision = :syncedRevision, " +
+           "t.roboflowSyncedAt = :syncedAt WHERE t.id = :id")
+    int updateRoboflowSyncState(@Param("id") UUID id, @Param("remoteId") String remoteId, @Param("contentHash") String contentHash,
+                                @Param("annotationHash") String annotationHash, @Param("syncedRevision") Long syncedRevision,
+                                @Param("syncedAt") OffsetDateTime syncedAt);
+
+    // Keyset page of [id, imageUrl] rows for the upload garbage collector; start with the all-zero UUID
+    @Query("SELECT t.id, t.imageUrl FROM ThermalImage t WHERE t.id > :after ORDER BY t.id")
+    List<Object[]> findImageUrlsAfter(@Param("after") UUID after, Pageable pageable);
+
+    // Bulk deletes (BulkDeleteService); thermal_image_detections rows go with their images through the FK
+    @Modifying
+    @Query("DELETE FROM ThermalImage t WHERE t.inspection.id IN (SELECT i.id FROM Inspection i WHERE i.transformer.id = :transformerId)")
+    int deleteAllOfTransformer(@Param("transformerId") UUID transformerId);
+
+    @Modifying
+    @Query("DELETE FROM ThermalImage t WHERE t.inspection.id = :inspectionId")
+    int deleteAllOfInspection(@Param("inspectionId") UUID inspectionId);
 }
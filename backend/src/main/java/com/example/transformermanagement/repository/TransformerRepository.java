@@ -1,9 +1,27 @@
 package com.example.transformermanagement.repository;
 
 import com.example.transformermanagement.model.Transformer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.UUID;
+
 @Repository
-public interface TransformerRepository extends JpaRepository<Transformer, java.util.UUID> {
+public interface TransformerRepository extends JpaRepository<Transformer, java.util.UUID>, JpaSpecificationExecutor<Transformer> {
+
+    // Keyset page of [id, sunny, cloudy, rainy baseline URL] rows for the upload garbage collector
+    @Query("SELECT t.id, t.sunnyBaselineImageUrl, t.cloudyBaselineImageUrl, t.rainyBaselineImageUrl FROM Transformer t " +
+           "WHERE t.id > :after ORDER BY t.id")
+    List<Object[]> findBaselineUrlsAfter(@Param("after") UUID after, Pageable pageable);
+
+    // Bulk delete (BulkDeleteService); unlike deleteById it does not load and cascade through the inspections
+    @Modifying
+    @Query("DELETE FROM Transformer t WHERE t.id = :id")
+    int deleteDirectlyById(@Param("id") UUID id);
 }
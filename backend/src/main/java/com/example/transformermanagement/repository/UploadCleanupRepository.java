@@ -0,0 +1,31 @@
+package com.example.transformermanagement.repository;
+
+import com.example.transformermanagement.model.UploadCleanupEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UploadCleanupRepository extends JpaRepository<UploadCleanupEntry, Long> {
+
+    // Set-based: the image URLs go from thermal_images straight into the queue without passing through the application
+    @Modifying
+    @Query("INSERT INTO UploadCleanupEntry (fileUrl, enqueuedAt) SELECT t.imageUrl, :now FROM ThermalImage t " +
+           "WHERE t.inspection.id IN (SELECT i.id FROM Inspection i WHERE i.transformer.id = :transformerId)")
+    int enqueueImagesOfTransformer(@Param("transformerId") UUID transformerId, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("INSERT INTO UploadCleanupEntry (fileUrl, enqueuedAt) SELECT t.imageUrl, :now FROM ThermalImage t " +
+           "WHERE t.inspection.id = :inspectionId")
+    int enqueueImagesOfInspection(@Param("inspectionId") UUID inspectionId, @Param("now") OffsetDateTime now);
+
+    // Oldest first, one page per cleaner round
+    List<UploadCleanupEntry> findByOrderByIdAsc(Pageable pageable);
+}
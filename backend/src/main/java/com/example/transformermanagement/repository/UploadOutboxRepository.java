@@ -0,0 +1,94 @@
+package com.example.transformermanagement.repository;
+
+import com.example.transformermanagement.model.UploadOutboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UploadOutboxRepository extends JpaRepository<UploadOutboxEntry, UUID> {
+
+    List<UploadOutboxEntry> findByBatchIdOrderByCreatedAt(UUID batchId);
+
+    boolean existsByThermalImageIdAndSplitAndStatusAndBatchIdIsNull(UUID thermalImageId, String split, String status);
+
+    // Returns [status, count] rows for one batch
+    @Query("SELECT o.status, COUNT(o) FROM UploadOutboxEntry o WHERE o.batchId = :batchId GROUP BY o.status")
+    List<Object[]> countByStatusForBatch(@Param("batchId") UUID batchId);
+
+    // DONE entries of a batch that actually sent the image or its annotations
+    @Query("SELECT COUNT(o) FROM UploadOutboxEntry o WHERE o.batchId = :batchId AND o.status = 'DONE' " +
+           "AND (o.lastError IS NULL OR o.lastError <> :unchangedNote)")
+    long countChangedInBatch(@Param("batchId") UUID batchId, @Param("unchangedNote") String unchangedNote);
+
+    // Batches with entries not yet settled, e.g. when the application stopped mid-batch
+    @Query("SELECT DISTINCT o.batchId FROM UploadOutboxEntry o WHERE o.batchId IS NOT NULL AND o.status IN ('PENDING', 'LEASED')")
+    List<UUID> findUnsettledBatchIds();
+
+    // Pending entries that are due, plus leases abandoned by a crashed or stopped worker
+    @Query("SELECT o.id FROM UploadOutboxEntry o WHERE (o.status = 'PENDING' AND o.availableAt <= :now) " +
+           "OR (o.status = 'LEASED' AND o.leaseUntil < :now) ORDER BY o.createdAt")
+    List<UUID> findClaimable(@Param("now") OffsetDateTime now, Pageable pageable);
+
+    // Conditional update: exactly one worker wins the lease
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadOutboxEntry o SET o.status = 'LEASED', o.leaseOwner = :owner, o.leaseUntil = :leaseUntil, " +
+           "o.attempts = o.attempts + 1, o.updatedAt = :now WHERE o.id = :id " +
+           "AND ((o.status = 'PENDING' AND o.availableAt <= :now) OR (o.status = 'LEASED' AND o.leaseUntil < :now))")
+    int claim(@Param("id") UUID id, @Param("owner") String owner, @Param("now") OffsetDateTime now,
+              @Param("leaseUntil") OffsetDateTime leaseUntil);
+
+    // Ack is fenced on the lease owner so a worker whose lease expired cannot overwrite a newer attempt
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadOutboxEntry o SET o.status = :status, o.leaseOwner = null, o.leaseUntil = null, " +
+           "o.roboflowId = :roboflowId, o.contentHash = :contentHash, o.annotationHash = :annotationHash, " +
+           "o.lastError = :error, o.updatedAt = :now WHERE o.id = :id AND o.leaseOwner = :owner")
+    int complete(@Param("id") UUID id, @Param("owner") String owner, @Param("status") String status,
+                 @Param("roboflowId") String roboflowId, @Param("contentHash") String contentHash,
+                 @Param("annotationHash") String annotationHash, @Param("error") String error,
+                 @Param("now") OffsetDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadOutboxEntry o SET o.status = 'PENDING', o.leaseOwner = null, o.leaseUntil = null, " +
+           "o.availableAt = :availableAt, o.lastError = :error, o.updatedAt = :now WHERE o.id = :id AND o.leaseOwner = :owner")
+    int release(@Param("id") UUID id, @Param("owner") String owner, @Param("availableAt") OffsetDateTime availableAt,
+                @Param("error") String error, @Param("now") OffsetDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadOutboxEntry o SET o.status = 'CANCELLED', o.updatedAt = :now WHERE o.batchId = :batchId AND o.status = 'PENDING'")
+    int cancelPending(@Param("batchId") UUID batchId, @Param("now") OffsetDateTime now);
+
+    // Batches with pending entries for the images of a transformer/inspection about to be bulk deleted
+    @Query("SELECT DISTINCT o.batchId FROM UploadOutboxEntry o WHERE o.batchId IS NOT NULL AND o.status = 'PENDING' " +
+           "AND o.thermalImageId IN (SELECT t.id FROM ThermalImage t WHERE t.inspection.id IN " +
+           "(SELECT i.id FROM Inspection i WHERE i.transformer.id = :transformerId))")
+    List<UUID> findPendingBatchIdsOfTransformer(@Param("transformerId") UUID transformerId);
+
+    @Query("SELECT DISTINCT o.batchId FROM UploadOutboxEntry o WHERE o.batchId IS NOT NULL AND o.status = 'PENDING' " +
+           "AND o.thermalImageId IN (SELECT t.id FROM ThermalImage t WHERE t.inspection.id = :inspectionId)")
+    List<UUID> findPendingBatchIdsOfInspection(@Param("inspectionId") UUID inspectionId);
+
+    // Images about to be bulk deleted (BulkDeleteService); a lease already running fails on the missing image
+    @Modifying
+    @Query("UPDATE UploadOutboxEntry o SET o.status = 'CANCELLED', o.updatedAt = :now WHERE o.status = 'PENDING' " +
+           "AND o.thermalImageId IN (SELECT t.id FROM ThermalImage t WHERE t.inspection.id IN " +
+           "(SELECT i.id FROM Inspection i WHERE i.transformer.id = :transformerId))")
+    int cancelPendingOfTransformer(@Param("transformerId") UUID transformerId, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("UPDATE UploadOutboxEntry o SET o.status = 'CANCELLED', o.updatedAt = :now WHERE o.status = 'PENDING' " +
+           "AND o.thermalImageId IN (SELECT t.id FROM ThermalImage t WHERE t.inspection.id = :inspectionId)")
+    int cancelPendingOfInspection(@Param("inspectionId") UUID inspectionId, @Param("now") OffsetDateTime now);
+}
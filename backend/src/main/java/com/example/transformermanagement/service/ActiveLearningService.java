@@ -0,0 +1,166 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.dto.RetrainingCandidate;
+import com.example.transformermanagement.model.Annotation;
+import com.example.transformermanagement.repository.AnnotationRepository;
+import com.example.transformermanagement.repository.ThermalImageDetectionsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Active-learning sample selection for retraining uploads.
+ *
+ * Ranks user-corrected images by how much the model can learn from them and keeps only the top
+ * {@code budget} in a bounded min-heap, so memory stays O(budget) regardless of how many images
+ * have corrections. Signals:
+ * - uncertainty: 1 - mean confidence of the AI boxes
+ * - disagreement: 1 - F1 between AI boxes and the final user boxes at IoU 0.5
+ * - rarity: how rare the rarest final class on the image is across the fleet
+ */
+@Service
+public class ActiveLearningService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveLearningService.class);
+    private static final int CHUNK_SIZE = 500;
+    private static final double MATCH_IOU = 0.5;
+
+    @Autowired
+    private AnnotationRepository annotationRepository;
+
+    @Autowired
+    private ThermalImageDetectionsRepository thermalImageDetectionsRepository;
+
+    @Value("${retraining.selection.budget:50}")
+    private int defaultBudget;
+
+    @Value("${retraining.selection.weight.uncertainty:0.3}")
+    private double uncertaintyWeight;
+
+    @Value("${retraining.selection.weight.disagreement:0.5}")
+    private double disagreementWeight;
+
+    @Value("${retraining.selection.weight.rarity:0.2}")
+    private double rarityWeight;
+
+    public int getDefaultBudget() {
+        return defaultBudget;
+    }
+
+    /**
+     * @param budget maximum number of images to return; null or non-positive uses retraining.selection.budget
+     * @return the most informative user-corrected images, highest score first
+     */
+    @Transactional(readOnly = true)
+    public List<RetrainingCandidate> selectForRetraining(Integer budget) {
+        int limit = (budget != null && budget > 0) ? budget : defaultBudget;
+
+        // Images already in the dataset at their current annotation revision would teach the model nothing new
+        List<UUID> candidateIds = annotationRepository.findUserCorrectedThermalImageIdsChangedSinceSync();
+        Map<String, Long> classFrequency = loadClassFrequency();
+        long maxFrequency = classFrequency.values().stream().mapToLong(Long::longValue).max().orElse(1L);
+
+        PriorityQueue<RetrainingCandidate> topK = new PriorityQueue<>(
+            limit + 1, Comparator.comparingDouble(RetrainingCandidate::score));
+
+        for (int start = 0; start < candidateIds.size(); start += CHUNK_SIZE) {
+            List<UUID> chunk = candidateIds.subList(start, Math.min(start + CHUNK_SIZE, candidateIds.size()));
+            Map<UUID, List<Annotation>> annotationsByImage = annotationRepository.findByThermalImageIdIn(chunk).stream()
+                .collect(Collectors.groupingBy(a -> a.getThermalImage().getId()));
+            Map<UUID, String> predictions = ModelEvaluationService.aiPredictionsOf(thermalImageDetectionsRepository, chunk);
+
+            for (UUID imageId : chunk) {
+                RetrainingCandidate candidate = score(imageId, predictions.get(imageId),
+                    annotationsByImage.getOrDefault(imageId, List.of()), classFrequency, maxFrequency);
+                topK.offer(candidate);
+                if (topK.size() > limit) {
+                    topK.poll();
+                }
+            }
+        }
+
+        List<RetrainingCandidate> selected = new ArrayList<>(topK);
+        selected.sort(Comparator.comparingDouble(RetrainingCandidate::score).reversed());
+        logger.info("Active-learning selection: {} of {} corrected images changed since their last sync, within budget {}",
+            selected.size(), candidateIds.size(), limit);
+        return selected;
+    }
+
+    private RetrainingCandidate score(UUID imageId, String aiPredictions, List<Annotation> annotations,
+                                      Map<String, Long> classFrequency, long maxFrequency) {
+        List<ModelEvaluationService.Box> aiBoxes = aiBoxes(imageId, aiPredictions, annotations);
+        List<ModelEvaluationService.Box> finalBoxes = annotations.stream()
+            .filter(a -> !Boolean.TRUE.equals(a.getIsDeleted()))
+            .map(ActiveLearningService::toBox)
+            .toList();
+
+        double uncertainty = aiBoxes.isEmpty() ? 0.0
+            : 1.0 - aiBoxes.stream().mapToDouble(ModelEvaluationService.Box::confidence).average().orElse(1.0);
+        double disagreement = 1.0 - f1(aiBoxes, finalBoxes);
+        double rarity = finalBoxes.stream()
+            .mapToDouble(b -> 1.0 - (double) classFrequency.getOrDefault(b.detectionClass(), 0L) / maxFrequency)
+            .max().orElse(0.0);
+
+        double score = uncertaintyWeight * clamp(uncertainty)
+            + disagreementWeight * clamp(disagreement)
+            + rarityWeight * clamp(rarity);
+        return new RetrainingCandidate(imageId, score, uncertainty, disagreement, rarity);
+    }
+
+    /**
+     * Prefer the preserved AI prediction snapshot; older images only have the AI annotations that
+     * survived review (including soft-deleted ones).
+     */
+    private List<ModelEvaluationService.Box> aiBoxes(UUID imageId, String aiPredictions, List<Annotation> annotations) {
+        Optional<List<ModelEvaluationService.Box>> snapshot = ModelEvaluationService.aiBoxes(imageId, aiPredictions);
+        if (snapshot.isPresent()) {
+            return snapshot.get();
+        }
+        return annotations.stream()
+            .filter(a -> "ai_detected".equals(a.getAnnotationType()) || "user_deleted".equals(a.getAnnotationType()))
+            .map(ActiveLearningService::toBox)
+            .toList();
+    }
+
+    private static double f1(List<ModelEvaluationService.Box> predicted, List<ModelEvaluationService.Box> truths) {
+        if (predicted.isEmpty() && truths.isEmpty()) {
+            return 1.0;
+        }
+        boolean[] matched = new boolean[truths.size()];
+        int tp = 0;
+        for (ModelEvaluationService.Box p : predicted) {
+            for (int i = 0; i < truths.size(); i++) {
+                if (!matched[i] && truths.get(i).detectionClass().equals(p.detectionClass())
+                        && ModelEvaluationService.iou(p, truths.get(i)) >= MATCH_IOU) {
+                    matched[i] = true;
+                    tp++;
+                    break;
+                }
+            }
+        }
+        return 2.0 * tp / (predicted.size() + truths.size());
+    }
+
+    private Map<String, Long> loadClassFrequency() {
+        Map<String, Long> frequency = new HashMap<>();
+        for (Object[] row : annotationRepository.countByDetectionClass()) {
+            frequency.merge(ModelEvaluationService.normalizeClass((String) row[0]), (Long) row[1], Long::sum);
+        }
+        return frequency;
+    }
+
+    private static ModelEvaluationService.Box toBox(Annotation a) {
+        return new ModelEvaluationService.Box(ModelEvaluationService.normalizeClass(a.getDetectionClass()),
+            a.getConfidence() != null ? a.getConfidence() : 0.0, a.getX(), a.getY(), a.getWidth(), a.getHeight());
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0.0, Math.min(1.0, value));
+    }
+}
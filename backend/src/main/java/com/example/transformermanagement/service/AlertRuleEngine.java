@@ -0,0 +1,324 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.config.WorkerThreads;
+import com.example.transformermanagement.dto.AnnotationDelta;
+import com.example.transformermanagement.dto.DetectionEvent;
+import com.example.transformermanagement.model.Alert;
+import com.example.transformermanagement.model.Annotation;
+import com.example.transformermanagement.model.Inspection;
+import com.example.transformermanagement.model.ThermalImage;
+import com.example.transformermanagement.model.Transformer;
+import com.example.transformermanagement.repository.AlertRepository;
+import com.example.transformermanagement.repository.AnnotationRepository;
+import com.example.transformermanagement.repository.ThermalImageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Generates alerts from detection results, annotations and temperature readings.
+ *
+ * Rules come from alerts.rules.* and are compiled once at startup into a list of evaluators; detection
+ * rules are indexed by class so each image's annotations are scanned once regardless of rule count.
+ * Evaluation runs on alerts.rules.threads single-threaded lanes after detection finishes or an annotation
+ * change commits, never on the upload thread. An image always maps to the same lane, so its evaluations never
+ * overlap; triggers for an image already waiting are coalesced, and a full lane drops the trigger (logged)
+ * rather than slowing ingest. Each rule raises at most one alert per image. Raised alerts go through
+ * AlertService.ingest, which folds recurrences at the same location into one row.
+ */
+@Service
+public class AlertRuleEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertRuleEngine.class);
+
+    public static final String TYPE_DETECTION_PREFIX = "DETECTION_";
+    public static final String TYPE_TEMPERATURE_LIMIT = "TEMPERATURE_LIMIT";
+    public static final String TYPE_HOTSPOT_GROWTH = "HOTSPOT_GROWTH";
+
+    @Autowired
+    private ThermalImageRepository thermalImageRepository;
+
+    @Autowired
+    private AnnotationRepository annotationRepository;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private WorkerThreads workerThreads;
+
+    @Value("${alerts.rules.enabled:true}")
+    private boolean enabled;
+
+    // class:minConfidence:severity, comma separated
+    @Value("${alerts.rules.detection:faulty:0.5:high,potentially_faulty:0.5:medium}")
+    private String detectionRules;
+
+    // Disabled when <= 0
+    @Value("${alerts.rules.temperature-limit:0}")
+    private double temperatureLimit;
+
+    @Value("${alerts.rules.temperature-severity:high}")
+    private String temperatureSeverity;
+
+    // Current / previous hotspot area at or above this ratio raises an alert; disabled when <= 0
+    @Value("${alerts.rules.hotspot-growth-ratio:1.5}")
+    private double hotspotGrowthRatio;
+
+    @Value("${alerts.rules.hotspot-growth-severity:medium}")
+    private String hotspotGrowthSeverity;
+
+    @Value("${alerts.rules.hotspot-classes:faulty,potentially_faulty}")
+    private List<String> hotspotClasses;
+
+    // Cell size in image pixels of the location bucket detection alerts are deduplicated on
+    @Value("${alerts.dedup.location-grid:64}")
+    private int locationGrid;
+
+    @Value("${alerts.rules.threads:2}")
+    private int threads;
+
+    @Value("${alerts.rules.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private interface Rule {
+        void evaluate(RuleContext context, List<Alert> alerts);
+    }
+
+    private record RuleContext(ThermalImage image, Transformer transformer, List<Annotation> annotations,
+                               Supplier<List<Annotation>> previousAnnotations) {}
+
+    private record DetectionThreshold(double minConfidence, String severity) {}
+
+    private List<Rule> rules = List.of();
+    private ThreadPoolExecutor[] lanes;
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void start() {
+        rules = compileRules();
+        lanes = new ThreadPoolExecutor[Math.max(1, threads)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueCapacity / lanes.length)),
+                workerThreads.named("alert-rules-" + (i + 1) + "-"));
+        }
+        logger.info("Alert rule engine {} with {} rule(s)", enabled ? "enabled" : "disabled", rules.size());
+    }
+
+    @PreDestroy
+    void stop() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdownNow();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDetection(DetectionEvent event) {
+        if (!DetectionEvent.STARTED.equals(event.state())) {
+            submit(event.thermalImageId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAnnotationDelta(AnnotationDelta delta) {
+        submit(delta.thermalImageId());
+    }
+
+    /**
+     * Queue rule evaluation for the image; returns immediately
+     */
+    public void submit(UUID thermalImageId) {
+        if (!enabled || rules.isEmpty() || thermalImageId == null || !pending.add(thermalImageId)) {
+            return;
+        }
+        try {
+            lanes[Math.floorMod(thermalImageId.hashCode(), lanes.length)].execute(() -> {
+                pending.remove(thermalImageId);
+                try {
+                    evaluate(thermalImageId);
+                } catch (Exception e) {
+                    logger.error("Alert rule evaluation failed for thermal image {}: {}", thermalImageId, e.getMessage(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(thermalImageId);
+            logger.warn("Alert rule queue full; skipped evaluation of thermal image {}", thermalImageId);
+        }
+    }
+
+    void evaluate(UUID thermalImageId) {
+        List<Alert> candidates = transactionTemplate.execute(status -> {
+            ThermalImage image = thermalImageRepository.findByIdWithInspection(thermalImageId).orElse(null);
+            Inspection inspection = image != null ? image.getInspection() : null;
+            if (inspection == null || inspection.getTransformer() == null) {
+                return List.of();
+            }
+            List<Annotation> annotations = annotationRepository.findByThermalImageIdAndNotDeleted(thermalImageId);
+            Supplier<List<Annotation>> previous = () -> previousAnnotations(image, inspection);
+            RuleContext context = new RuleContext(image, inspection.getTransformer(), annotations, previous);
+
+            List<Alert> alerts = new ArrayList<>();
+            for (Rule rule : rules) {
+                rule.evaluate(context, alerts);
+            }
+            return alerts.stream()
+                .filter(alert -> !alertRepository.existsRaisedForImage(thermalImageId, alert.getAlertType()))
+                .toList();
+        });
+        if (candidates == null || candidates.isEmpty()) {
+            return;
+        }
+        // Outside the read transaction: ingest takes a per-transformer lock around its own transaction
+        candidates.forEach(alertService::ingest);
+        logger.info("Raised {} alert(s) for thermal image {}", candidates.size(), thermalImageId);
+    }
+
+    private List<Rule> compileRules() {
+        List<Rule> compiled = new ArrayList<>();
+
+        Map<String, List<DetectionThreshold>> thresholdsByClass = new HashMap<>();
+        for (String spec : detectionRules.split(",")) {
+            if (spec.isBlank()) {
+                continue;
+            }
+            String[] parts = spec.trim().split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid alerts.rules.detection entry '" + spec + "' (expected class:minConfidence:severity)");
+            }
+            thresholdsByClass.computeIfAbsent(parts[0].trim().toLowerCase(Locale.ROOT), c -> new ArrayList<>())
+                .add(new DetectionThreshold(Double.parseDouble(parts[1].trim()), parts[2].trim()));
+        }
+        // Highest threshold first, so a box is attributed to the strictest rule it passes
+        thresholdsByClass.values().forEach(list -> list.sort(Comparator.comparingDouble(DetectionThreshold::minConfidence).reversed()));
+        if (!thresholdsByClass.isEmpty()) {
+            compiled.add((context, alerts) -> evaluateDetections(thresholdsByClass, context, alerts));
+        }
+
+        if (temperatureLimit > 0) {
+            BigDecimal limit = BigDecimal.valueOf(temperatureLimit);
+            compiled.add((context, alerts) -> {
+                BigDecimal reading = context.image().getTemperatureReading();
+                if (reading != null && reading.compareTo(limit) > 0) {
+                    alerts.add(alert(context, TYPE_TEMPERATURE_LIMIT, temperatureSeverity,
+                        "Temperature reading " + reading.stripTrailingZeros().toPlainString() + " exceeds limit " + limit.toPlainString()));
+                }
+            });
+        }
+
+        if (hotspotGrowthRatio > 0 && !hotspotClasses.isEmpty()) {
+            Set<String> classes = Set.copyOf(hotspotClasses.stream().map(c -> c.trim().toLowerCase(Locale.ROOT)).toList());
+            compiled.add((context, alerts) -> {
+                double current = hotspotArea(context.annotations(), classes);
+                if (current <= 0) {
+                    return;
+                }
+                double previous = hotspotArea(context.previousAnnotations().get(), classes);
+                if (previous > 0 && current / previous >= hotspotGrowthRatio) {
+                    alerts.add(alert(context, TYPE_HOTSPOT_GROWTH, hotspotGrowthSeverity,
+                        String.format(Locale.ROOT, "Hotspot area grew %.1fx since the previous inspection", current / previous)));
+                }
+            });
+        }
+        return List.copyOf(compiled);
+    }
+
+    private void evaluateDetections(Map<String, List<DetectionThreshold>> thresholdsByClass, RuleContext context, List<Alert> alerts) {
+        Map<String, DetectionThreshold> matchedRule = new HashMap<>();
+        Map<String, Integer> matchedCount = new HashMap<>();
+        Map<String, Annotation> strongest = new HashMap<>();
+        for (Annotation annotation : context.annotations()) {
+            String detectionClass = annotation.getDetectionClass() == null ? "" : annotation.getDetectionClass().toLowerCase(Locale.ROOT);
+            List<DetectionThreshold> thresholds = thresholdsByClass.get(detectionClass);
+            if (thresholds == null || annotation.getConfidence() == null) {
+                continue;
+            }
+            for (DetectionThreshold threshold : thresholds) {
+                if (annotation.getConfidence() >= threshold.minConfidence()) {
+                    matchedRule.merge(detectionClass, threshold,
+                        (a, b) -> a.minConfidence() >= b.minConfidence() ? a : b);
+                    matchedCount.merge(detectionClass, 1, Integer::sum);
+                    strongest.merge(detectionClass, annotation, (a, b) -> a.getConfidence() >= b.getConfidence() ? a : b);
+                    break;
+                }
+            }
+        }
+        matchedRule.forEach((detectionClass, threshold) -> {
+            Annotation top = strongest.get(detectionClass);
+            Alert alert = alert(context, TYPE_DETECTION_PREFIX + detectionClass.toUpperCase(Locale.ROOT), threshold.severity(),
+                String.format(Locale.ROOT, "%d %s detection(s) on %s image (max confidence %.2f)",
+                    matchedCount.get(detectionClass), detectionClass, context.image().getImageType(), top.getConfidence()));
+            alert.setLocationBucket(locationBucket(top));
+            alerts.add(alert);
+        });
+    }
+
+    // Grid cell of the box centre (annotation x/y), e.g. "3:5"; empty when the box has no coordinates
+    private String locationBucket(Annotation annotation) {
+        if (annotation.getX() == null || annotation.getY() == null || locationGrid <= 0) {
+            return "";
+        }
+        return (long) Math.floor(annotation.getX() / locationGrid) + ":" + (long) Math.floor(annotation.getY() / locationGrid);
+    }
+
+    private List<Annotation> previousAnnotations(ThermalImage image, Inspection inspection) {
+        if (image.getUploadedAt() == null) {
+            return List.of();
+        }
+        List<ThermalImage> previous = thermalImageRepository.findPreviousOfTransformer(inspection.getTransformer().getId(),
+            image.getImageType(), image.getUploadedAt(), inspection.getId(), PageRequest.of(0, 1));
+        return previous.isEmpty() ? List.of() : annotationRepository.findByThermalImageIdAndNotDeleted(previous.get(0).getId());
+    }
+
+    private static double hotspotArea(List<Annotation> annotations, Set<String> classes) {
+        double area = 0;
+        for (Annotation annotation : annotations) {
+            if (annotation.getDetectionClass() != null && classes.contains(annotation.getDetectionClass().toLowerCase(Locale.ROOT))
+                    && annotation.getWidth() != null && annotation.getHeight() != null) {
+                area += annotation.getWidth() * annotation.getHeight();
+            }
+        }
+        return area;
+    }
+
+    private static Alert alert(RuleContext context, String type, String severity, String message) {
+        Alert alert = new Alert();
+        alert.setTransformer(context.transformer());
+        alert.setThermalImageId(context.image().getId());
+        alert.setAlertType(type);
+        alert.setSeverity(severity);
+        alert.setMessage(message);
+        alert.setIsRead(false);
+        return alert;
+    }
+}
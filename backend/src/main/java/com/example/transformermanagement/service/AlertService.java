@@ -1,22 +1,253 @@
 package com.example.transformermanagement.service;
 
+import com.example.transformermanagement.dto.AlertEvent;
+import com.example.transformermanagement.dto.KeysetPage;
 import com.example.transformermanagement.model.Alert;
+import com.example.transformermanagement.model.AlertUnreadCount;
 import com.example.transformermanagement.repository.AlertRepository;
+import com.example.transformermanagement.repository.AlertUnreadCountRepository;
+import com.example.transformermanagement.repository.TransformerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
+/**
+ * Alert listing and ingestion.
+ *
+ * Ingestion deduplicates on (transformer, alert type, location bucket): an alert matching one last seen within
+ * alerts.dedup.window-minutes bumps that row's occurrence counter and last-seen time instead of adding a row,
+ * and a recurrence of an alert that was already read marks it unread again. The alert keeps the image that first
+ * raised it and records every image folded into it, so re-evaluating any of those images is not a new occurrence.
+ * Unread alerts per transformer are counted incrementally in alert_unread_counts within the same transaction.
+ * Ingestion and read-flag changes for one transformer are serialized by a striped lock held across the
+ * transaction, so two lanes of the rule engine cannot both insert the same alert.
+ */
 @Service
 public class AlertService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertService.class);
+
+    private static final List<String> SEVERITY_ORDER = List.of("low", "medium", "high", "critical");
+
     @Autowired
     private AlertRepository alertRepository;
 
-    public List<Alert> getAllAlerts() {
-        return alertRepository.findAll();
+    @Autowired
+    private AlertUnreadCountRepository alertUnreadCountRepository;
+
+    @Autowired
+    private TransformerRepository transformerRepository;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Disabled when <= 0
+    @Value("${alerts.dedup.window-minutes:1440}")
+    private long dedupWindowMinutes;
+
+    private static final Map<String, Class<? extends Comparable<?>>> SORTABLE = Map.of(
+        "createdAt", OffsetDateTime.class);
+
+    private final ReentrantLock[] stripes = new ReentrantLock[64];
+
+    public AlertService() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Keyset-paginated list, newest first by default
+     *
+     * @param isRead false also matches alerts whose read flag was never set
+     */
+    public KeysetPage<Alert> findAlerts(UUID transformerId, String severity, Boolean isRead,
+                                        String sort, String direction, String cursor, Integer limit) {
+        Specification<Alert> filter = Specification.<Alert>where(KeysetPager.equalIfPresent("transformer.id", transformerId))
+            .and(KeysetPager.equalIfPresent("severity", severity));
+        if (Boolean.TRUE.equals(isRead)) {
+            filter = filter.and((root, query, cb) -> cb.isTrue(root.get("isRead")));
+        } else if (Boolean.FALSE.equals(isRead)) {
+            filter = filter.and((root, query, cb) -> cb.or(cb.isFalse(root.get("isRead")), cb.isNull(root.get("isRead"))));
+        }
+        KeysetPager.KeysetSort keysetSort = KeysetPager.KeysetSort.of(sort, direction, SORTABLE, "createdAt", true);
+        return keysetPager.page(alertRepository, filter, keysetSort, cursor, limit);
     }
 
     public Alert saveAlert(Alert alert) {
-        return alertRepository.save(alert);
+        return ingest(alert);
+    }
+
+    /**
+     * Stores the alert, or folds it into a matching alert seen within the deduplication window
+     *
+     * @return the inserted alert, or the existing alert it was merged into
+     */
+    public Alert ingest(Alert candidate) {
+        UUID transformerId = candidate.getTransformer() != null ? candidate.getTransformer().getId() : null;
+        return withTransformerLock(transformerId, () -> transactionTemplate.execute(status -> {
+            if (candidate.getLocationBucket() == null) {
+                candidate.setLocationBucket("");
+            }
+            Alert duplicate = findDuplicate(transformerId, candidate);
+            Alert result;
+            if (duplicate == null) {
+                if (candidate.getThermalImageId() != null) {
+                    candidate.setLastThermalImageId(candidate.getThermalImageId());
+                    candidate.getSourceImageIds().add(candidate.getThermalImageId());
+                }
+                result = alertRepository.save(candidate);
+                if (isUnread(result)) {
+                    adjustUnread(transformerId, 1);
+                }
+            } else if (candidate.getThermalImageId() != null && duplicate.getSourceImageIds().contains(candidate.getThermalImageId())) {
+                return duplicate; // An image already folded into this alert re-evaluated: not a new occurrence
+            } else {
+                result = recur(duplicate, candidate, transformerId);
+            }
+            eventPublisher.publishEvent(AlertEvent.from(result));
+            return result;
+        }));
+    }
+
+    /**
+     * @throws RuntimeException if the alert does not exist
+     */
+    public Alert markRead(UUID id, boolean read) {
+        UUID transformerId = alertRepository.findById(id)
+            .map(alert -> alert.getTransformer() != null ? alert.getTransformer().getId() : null)
+            .orElseThrow(() -> new RuntimeException("Alert not found"));
+        return withTransformerLock(transformerId, () -> transactionTemplate.execute(status -> {
+            Alert alert = alertRepository.findById(id).orElseThrow(() -> new RuntimeException("Alert not found"));
+            if (isUnread(alert) == read) {
+                alert.setIsRead(read);
+                adjustUnread(transformerId, read ? -1 : 1);
+            }
+            return alert;
+        }));
+    }
+
+    public long getUnreadCount(UUID transformerId) {
+        return alertUnreadCountRepository.findById(transformerId).map(AlertUnreadCount::getUnreadCount).orElse(0L);
+    }
+
+    /**
+     * Unread alert count of every transformer that has unread alerts
+     */
+    public Map<UUID, Long> getUnreadCounts() {
+        Map<UUID, Long> counts = new LinkedHashMap<>();
+        for (AlertUnreadCount count : alertUnreadCountRepository.findNonZero()) {
+            counts.put(count.getTransformerId(), count.getUnreadCount());
+        }
+        return counts;
+    }
+
+    // Seeds the counters for alerts that existed before counting was introduced
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeUnreadCounts() {
+        if (alertUnreadCountRepository.count() == 0) {
+            int rebuilt = rebuildUnreadCounts();
+            if (rebuilt > 0) {
+                logger.info("Initialized unread alert counts for {} transformer(s)", rebuilt);
+            }
+        }
+    }
+
+    /**
+     * Recomputes every counter from the alerts table; the only path that scans alerts
+     *
+     * @return number of transformers with unread alerts
+     */
+    public int rebuildUnreadCounts() {
+        Integer rebuilt = transactionTemplate.execute(status -> {
+            alertUnreadCountRepository.deleteAllInBatch();
+            List<Object[]> rows = alertUnreadCountRepository.countUnreadAlertsByTransformer();
+            for (Object[] row : rows) {
+                alertUnreadCountRepository.save(new AlertUnreadCount(
+                    transformerRepository.getReferenceById((UUID) row[0]), ((Number) row[1]).longValue()));
+            }
+            return rows.size();
+        });
+        return rebuilt == null ? 0 : rebuilt;
+    }
+
+    private Alert findDuplicate(UUID transformerId, Alert candidate) {
+        if (transformerId == null || dedupWindowMinutes <= 0) {
+            return null;
+        }
+        List<Alert> recent = alertRepository.findRecentDuplicate(transformerId, candidate.getAlertType(),
+            candidate.getLocationBucket(), OffsetDateTime.now().minusMinutes(dedupWindowMinutes), PageRequest.of(0, 1));
+        return recent.isEmpty() ? null : recent.get(0);
+    }
+
+    private Alert recur(Alert existing, Alert occurrence, UUID transformerId) {
+        existing.setOccurrenceCount((existing.getOccurrenceCount() == null ? 1 : existing.getOccurrenceCount()) + 1);
+        existing.setLastSeenAt(OffsetDateTime.now());
+        existing.setMessage(occurrence.getMessage());
+        if (severityRank(occurrence.getSeverity()) > severityRank(existing.getSeverity())) {
+            existing.setSeverity(occurrence.getSeverity());
+        }
+        if (occurrence.getThermalImageId() != null) {
+            existing.setLastThermalImageId(occurrence.getThermalImageId());
+            existing.getSourceImageIds().add(occurrence.getThermalImageId());
+        }
+        if (!isUnread(existing)) {
+            existing.setIsRead(false);
+            adjustUnread(transformerId, 1);
+        }
+        return existing;
+    }
+
+    private void adjustUnread(UUID transformerId, long delta) {
+        if (transformerId == null) {
+            return;
+        }
+        if (alertUnreadCountRepository.adjust(transformerId, delta) == 0 && delta > 0) {
+            alertUnreadCountRepository.save(new AlertUnreadCount(transformerRepository.getReferenceById(transformerId), delta));
+        }
+    }
+
+    private <T> T withTransformerLock(UUID transformerId, Supplier<T> action) {
+        if (transformerId == null) {
+            return action.get();
+        }
+        ReentrantLock lock = stripes[Math.floorMod(transformerId.hashCode(), stripes.length)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean isUnread(Alert alert) {
+        return !Boolean.TRUE.equals(alert.getIsRead());
+    }
+
+    private static int severityRank(String severity) {
+        return severity == null ? -1 : SEVERITY_ORDER.indexOf(severity.toLowerCase(Locale.ROOT));
     }
 }
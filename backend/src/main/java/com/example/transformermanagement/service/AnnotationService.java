@@ -1,11 +1,18 @@
 package com.example.transformermanagement.service;
 
+import com.example.transformermanagement.config.ReadRouting;
+import com.example.transformermanagement.config.ReplicaLagMonitor;
+import com.example.transformermanagement.dto.AnnotationDelta;
 import com.example.transformermanagement.dto.DetectionDTO;
+import com.example.transformermanagement.dto.RevisionedResult;
+import com.example.transformermanagement.exception.AnnotationConflictException;
 import com.example.transformermanagement.model.Annotation;
 import com.example.transformermanagement.model.ThermalImage;
 import com.example.transformermanagement.repository.AnnotationRepository;
 import com.example.transformermanagement.repository.ThermalImageRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,6 +20,7 @@ import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,17 +32,44 @@ public class AnnotationService {
     @Autowired
     private ThermalImageRepository thermalImageRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private RoboflowBatchUploadService roboflowBatchUploadService;
+
+    // Present only when a read replica is configured
+    @Autowired(required = false)
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    // Off by default: retraining uploads are normally picked by the active-learning budget
+    @Value("${roboflow.outbox.enqueue-on-annotation-change:false}")
+    private boolean enqueueOnAnnotationChange;
+
+    @Transactional(readOnly = true)
+    public long getAnnotationRevision(UUID thermalImageId) {
+        return readYourWrites(thermalImageId, () -> thermalImageRepository.findAnnotationRevision(thermalImageId))
+            .orElseThrow(() -> new RuntimeException("Thermal image not found"));
+    }
+
+    @Transactional(readOnly = true)
     public List<Annotation> getAnnotationsByThermalImageId(UUID thermalImageId, boolean includeDeleted) {
-        if (includeDeleted) {
-            return annotationRepository.findByThermalImageId(thermalImageId);
-        }
-        return annotationRepository.findByThermalImageIdAndNotDeleted(thermalImageId);
+        return readYourWrites(thermalImageId, () -> includeDeleted
+            ? annotationRepository.findByThermalImageId(thermalImageId)
+            : annotationRepository.findByThermalImageIdAndNotDeleted(thermalImageId));
+    }
+
+    // Reads the image's annotations from the primary until the replica has its last committed change
+    private <T> T readYourWrites(UUID thermalImageId, Supplier<T> read) {
+        return ReadRouting.onPrimaryIf(
+            replicaLagMonitor != null && !replicaLagMonitor.hasReplicatedAnnotations(thermalImageId), read);
     }
 
     @Transactional
-    public Annotation createAnnotation(UUID thermalImageId, Annotation annotation, String userId) {
-        ThermalImage thermalImage = thermalImageRepository.findById(thermalImageId)
+    public RevisionedResult<Annotation> createAnnotation(UUID thermalImageId, Annotation annotation, String userId, Long expectedRevision) {
+        ThermalImage thermalImage = thermalImageRepository.findByIdWithInspection(thermalImageId)
             .orElseThrow(() -> new RuntimeException("Thermal image not found"));
+        long revision = advanceRevision(thermalImageId, expectedRevision);
         
         annotation.setThermalImage(thermalImage);
         annotation.setCreatedBy(userId != null ? userId : "system");
@@ -45,13 +80,17 @@ public class AnnotationService {
             annotation.setTransformerId(thermalImage.getInspection().getTransformer().getId());
         }
         
-        return annotationRepository.save(annotation);
+        Annotation saved = annotationRepository.save(annotation);
+        publishDelta(thermalImageId, revision, "created", List.of(saved), userId);
+        return new RevisionedResult<>(saved, revision);
     }
 
     @Transactional
-    public Annotation updateAnnotation(UUID annotationId, Annotation updatedAnnotation, String userId) {
+    public RevisionedResult<Annotation> updateAnnotation(UUID annotationId, Annotation updatedAnnotation, String userId, Long expectedRevision) {
         Annotation existing = annotationRepository.findById(annotationId)
             .orElseThrow(() -> new RuntimeException("Annotation not found"));
+        UUID thermalImageId = existing.getThermalImage().getId();
+        long revision = advanceRevision(thermalImageId, expectedRevision);
         
         // Update fields
         existing.setDetectionClass(updatedAnnotation.getDetectionClass());
@@ -69,18 +108,25 @@ public class AnnotationService {
         existing.setModifiedBy(userId != null ? userId : "system");
         existing.setModifiedAt(OffsetDateTime.now());
         
-        return annotationRepository.save(existing);
+        Annotation saved = annotationRepository.save(existing);
+        publishDelta(thermalImageId, revision, "updated", List.of(saved), userId);
+        return new RevisionedResult<>(saved, revision);
     }
 
+    /**
+     * @return the annotation revision after the delete
+     */
     @Transactional
-    public void deleteAnnotation(UUID annotationId, String userId, boolean hardDelete) {
+    public long deleteAnnotation(UUID annotationId, String userId, boolean hardDelete, Long expectedRevision) {
+        Annotation annotation = annotationRepository.findById(annotationId)
+            .orElseThrow(() -> new RuntimeException("Annotation not found"));
+        UUID thermalImageId = annotation.getThermalImage().getId();
+        long revision = advanceRevision(thermalImageId, expectedRevision);
+
         if (hardDelete) {
-            annotationRepository.deleteById(annotationId);
+            annotationRepository.delete(annotation);
         } else {
             // Soft delete
-            Annotation annotation = annotationRepository.findById(annotationId)
-                .orElseThrow(() -> new RuntimeException("Annotation not found"));
-            
             annotation.setIsDeleted(true);
             annotation.setAnnotationType("user_deleted");
             annotation.setModifiedBy(userId != null ? userId : "system");
@@ -88,12 +134,15 @@ public class AnnotationService {
             
             annotationRepository.save(annotation);
         }
+        publishDelta(thermalImageId, revision, "deleted", List.of(annotation), userId);
+        return revision;
     }
 
     @Transactional
-    public List<Annotation> syncAnnotations(UUID thermalImageId, List<Annotation> annotations, String userId) {
-        ThermalImage thermalImage = thermalImageRepository.findById(thermalImageId)
+    public RevisionedResult<List<Annotation>> syncAnnotations(UUID thermalImageId, List<Annotation> annotations, String userId, Long expectedRevision) {
+        ThermalImage thermalImage = thermalImageRepository.findByIdWithInspection(thermalImageId)
             .orElseThrow(() -> new RuntimeException("Thermal image not found"));
+        long revision = advanceRevision(thermalImageId, expectedRevision);
 
         // Get existing annotations
         List<Annotation> existingAnnotations = annotationRepository.findByThermalImageId(thermalImageId);
@@ -123,7 +172,9 @@ public class AnnotationService {
             annotationRepository.save(annotation);
         }
 
-        return annotationRepository.findByThermalImageIdAndNotDeleted(thermalImageId);
+        List<Annotation> current = annotationRepository.findByThermalImageIdAndNotDeleted(thermalImageId);
+        publishDelta(thermalImageId, revision, "synced", current, userId);
+        return new RevisionedResult<>(current, revision);
     }
 
     /**
@@ -131,9 +182,10 @@ public class AnnotationService {
      * Converts DTOs to Annotation entities and saves them
      */
     @Transactional
-    public List<Annotation> syncAnnotationsFromDTO(UUID thermalImageId, List<DetectionDTO> detectionDTOs, String userId) {
-        ThermalImage thermalImage = thermalImageRepository.findById(thermalImageId)
+    public RevisionedResult<List<Annotation>> syncAnnotationsFromDTO(UUID thermalImageId, List<DetectionDTO> detectionDTOs, String userId, Long expectedRevision) {
+        ThermalImage thermalImage = thermalImageRepository.findByIdWithInspection(thermalImageId)
             .orElseThrow(() -> new RuntimeException("Thermal image not found"));
+        long revision = advanceRevision(thermalImageId, expectedRevision);
 
         // Get existing annotations
         List<Annotation> existingAnnotations = annotationRepository.findByThermalImageId(thermalImageId);
@@ -172,7 +224,8 @@ public class AnnotationService {
             savedAnnotations.add(annotationRepository.save(annotation));
         }
 
-        return savedAnnotations;
+        publishDelta(thermalImageId, revision, "synced", savedAnnotations, userId);
+        return new RevisionedResult<>(savedAnnotations, revision);
     }
 
     /**
@@ -181,6 +234,7 @@ public class AnnotationService {
     public List<DetectionDTO> convertAnnotationsToDTO(List<Annotation> annotations) {
         return annotations.stream().map(annotation -> {
             DetectionDTO dto = new DetectionDTO();
+            dto.setId(annotation.getId() != null ? annotation.getId().toString() : null);
             dto.setDetectionId(annotation.getDetectionId());
             dto.setDetectionClass(annotation.getDetectionClass());
             dto.setConfidence(annotation.getConfidence());
@@ -197,5 +251,30 @@ public class AnnotationService {
             return dto;
         }).collect(Collectors.toList());
     }
-}
 
+    /**
+     * Bump the image's annotation revision. When the client supplies the revision its edit was based on,
+     * the bump is a compare-and-set and a stale revision is rejected instead of silently overwriting.
+     */
+    private long advanceRevision(UUID thermalImageId, Long expectedRevision) {
+        if (expectedRevision != null) {
+            int updated = thermalImageRepository.compareAndIncrementAnnotationRevision(thermalImageId, expectedRevision);
+            if (updated == 0) {
+                throw new AnnotationConflictException(thermalImageId, expectedRevision, getAnnotationRevision(thermalImageId));
+            }
+            return expectedRevision + 1;
+        }
+        thermalImageRepository.incrementAnnotationRevision(thermalImageId);
+        // The row is locked by the increment until commit, so this is the revision this change produced
+        return getAnnotationRevision(thermalImageId);
+    }
+
+    private void publishDelta(UUID thermalImageId, long revision, String operation, List<Annotation> annotations, String userId) {
+        eventPublisher.publishEvent(new AnnotationDelta(
+            thermalImageId, revision, operation, convertAnnotationsToDTO(annotations), userId, OffsetDateTime.now()));
+        if (enqueueOnAnnotationChange) {
+            // Same transaction as the edit, so the upload is recorded if and only if the edit commits
+            roboflowBatchUploadService.enqueue(thermalImageId, "train");
+        }
+    }
+}
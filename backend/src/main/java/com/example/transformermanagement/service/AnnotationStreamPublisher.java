@@ -0,0 +1,37 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.dto.AnnotationDelta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Pushes annotation deltas to every client subscribed to a thermal image.
+ * Deltas are sent only after the annotation transaction commits, so subscribers never see rolled back changes.
+ */
+@Component
+public class AnnotationStreamPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnnotationStreamPublisher.class);
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    public static String topicFor(java.util.UUID thermalImageId) {
+        return "/topic/thermal-images/" + thermalImageId + "/annotations";
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAnnotationDelta(AnnotationDelta delta) {
+        try {
+            messagingTemplate.convertAndSend(topicFor(delta.thermalImageId()), delta);
+            logger.debug("Broadcast {} delta rev={} for thermal image {}", delta.operation(), delta.revision(), delta.thermalImageId());
+        } catch (Exception e) {
+            logger.warn("Failed to broadcast annotation delta for thermal image {}: {}", delta.thermalImageId(), e.getMessage());
+        }
+    }
+}
@@ -23,7 +23,6 @@ import java.util.Map;
 public class AnomalyDetectionService {
 
     private static final Logger logger = LoggerFactory.getLogger(AnomalyDetectionService.class);
-    private static final String ANOMALY_DETECTION_API_URL = "https://serverless.roboflow.com/infer/workflows/isiriw/detect-count-and-visualize";
     private static final String API_KEY = "xLuuGmq6EfcX0kVtqEnA";
     
     private final HttpClient httpClient;
@@ -32,11 +31,22 @@ public class AnomalyDetectionService {
     @Value("${file.upload-dir}")
     private String uploadDir;
 
+    @Value("${anomaly-detection.api-url:https://serverless.roboflow.com/infer/workflows/isiriw/detect-count-and-visualize}")
+    private String apiUrl;
+
+    // Bump when the detection workflow is pointed at a retrained model so evaluation can compare versions
+    @Value("${anomaly-detection.model-version:detect-count-and-visualize}")
+    private String modelVersion;
+
     public AnomalyDetectionService() {
         this.httpClient = HttpClient.newHttpClient();
         this.objectMapper = new ObjectMapper();
     }
 
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
     /**
      * Analyzes a maintenance image for anomalies using the detection API
      * @param imageUrl The relative URL of the uploaded maintenance image (e.g., /uploads/filename.jpg)
@@ -77,11 +87,11 @@ public class AnomalyDetectionService {
         String jsonBody = objectMapper.writeValueAsString(requestBody);
         
         System.out.println("Request body prepared (base64 image included)");
-        System.out.println("API URL: " + ANOMALY_DETECTION_API_URL);
+        System.out.println("API URL: " + apiUrl);
         
         // Make HTTP request
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(ANOMALY_DETECTION_API_URL))
+                .uri(URI.create(apiUrl))
                 .header("Content-Type", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
                 .build();
@@ -0,0 +1,99 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.dto.BaselineComparison;
+import com.example.transformermanagement.model.Inspection;
+import com.example.transformermanagement.model.ThermalImage;
+import com.example.transformermanagement.model.Transformer;
+import com.example.transformermanagement.repository.ThermalImageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Compares maintenance images against the weather-matched transformer baseline.
+ * The baseline comes decoded from BaselineRasterCache, so only the maintenance image is decoded per call.
+ */
+@Service
+public class BaselineComparisonService {
+
+    @Autowired
+    private ThermalImageRepository thermalImageRepository;
+
+    @Autowired
+    private BaselineRasterCache baselineRasterCache;
+
+    @Autowired
+    private ImageMetadataService imageMetadataService;
+
+    @Value("${baseline-comparison.threshold:30}")
+    private int threshold;
+
+    /**
+     * @return empty if the image does not exist
+     * @throws IllegalStateException if the transformer has no baseline for the image's weather condition
+     * @throws IOException if either image cannot be decoded
+     */
+    @Transactional(readOnly = true)
+    public Optional<BaselineComparison> compare(UUID thermalImageId) throws IOException {
+        Optional<ThermalImage> found = thermalImageRepository.findByIdWithInspection(thermalImageId);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        ThermalImage image = found.get();
+        Inspection inspection = image.getInspection();
+        Transformer transformer = inspection != null ? inspection.getTransformer() : null;
+        if (transformer == null) {
+            throw new IllegalStateException("Thermal image is not linked to a transformer");
+        }
+        String weather = image.getWeatherCondition() != null ? image.getWeatherCondition()
+            : inspection.getWeatherCondition() != null ? inspection.getWeatherCondition() : "Sunny";
+        String baselineUrl = TransformerService.baselineUrlFor(transformer, weather);
+        if (baselineUrl == null) {
+            throw new IllegalStateException("No " + weather + " baseline image for transformer " + transformer.getTransformerNo());
+        }
+
+        BaselineRasterCache.Raster baseline = baselineRasterCache.get(transformer.getId(), weather, baselineUrl);
+        BufferedImage maintenance = ImageIO.read(imageMetadataService.resolvePath(image).toFile());
+        if (maintenance == null) {
+            throw new IOException("Unsupported image format: " + image.getImageUrl());
+        }
+
+        int width = maintenance.getWidth();
+        int height = maintenance.getHeight();
+        int[] pixels = maintenance.getRGB(0, 0, width, height, null, 0, width);
+        long totalDifference = 0;
+        long changed = 0;
+        long warmer = 0;
+        for (int y = 0; y < height; y++) {
+            int baselineRow = (int) ((long) y * baseline.height() / height) * baseline.width();
+            for (int x = 0; x < width; x++) {
+                int baselinePixel = baseline.rgb()[baselineRow + (int) ((long) x * baseline.width() / width)];
+                int delta = luminance(pixels[y * width + x]) - luminance(baselinePixel);
+                totalDifference += Math.abs(delta);
+                if (Math.abs(delta) > threshold) {
+                    changed++;
+                    if (delta > 0) {
+                        warmer++;
+                    }
+                }
+            }
+        }
+        double count = (double) width * height;
+        return Optional.of(new BaselineComparison(image.getId(), transformer.getId(), weather, baselineUrl, width, height,
+            totalDifference / count, changed / count, warmer / count));
+    }
+
+    private static int luminance(int rgb) {
+        int r = (rgb >> 16) & 0xff;
+        int g = (rgb >> 8) & 0xff;
+        int b = rgb & 0xff;
+        return (r * 299 + g * 587 + b * 114) / 1000;
+    }
+}
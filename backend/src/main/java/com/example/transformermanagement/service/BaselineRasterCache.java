@@ -0,0 +1,179 @@
+package com.example.transformermanagement.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decoded baseline images keyed by (transformer, weather condition).
+ *
+ * Pixels are kept as packed RGB int arrays, so comparing many maintenance images against the same
+ * baseline decodes it once. Eviction is least-recently-used against a byte budget
+ * (baseline-cache.max-bytes) rather than an entry count, because baselines differ widely in resolution.
+ * Concurrent misses for the same baseline file share one decode. Entries remember the URL they were decoded from
+ * and are reloaded if the transformer now points elsewhere; TransformerService also invalidates on upload.
+ */
+@Component
+public class BaselineRasterCache {
+
+    public record Raster(String imageUrl, int width, int height, int[] rgb) {
+        long sizeInBytes() {
+            return (long) rgb.length * Integer.BYTES + 64;
+        }
+    }
+
+    private record Key(UUID transformerId, String weatherCondition) {
+        static Key of(UUID transformerId, String weatherCondition) {
+            return new Key(transformerId, weatherCondition.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    @Value("${baseline-cache.max-bytes:134217728}")
+    private long maxBytes;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, Raster> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Raster>> loading = new ConcurrentHashMap<>();
+    private long currentBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Decoded baseline for the transformer and weather condition, decoding imageUrl on a miss
+     *
+     * @throws IOException if the baseline file cannot be read or decoded
+     */
+    public Raster get(UUID transformerId, String weatherCondition, String imageUrl) throws IOException {
+        Key key = Key.of(transformerId, weatherCondition);
+        lock.lock();
+        try {
+            Raster cached = entries.get(key);
+            if (cached != null && cached.imageUrl().equals(imageUrl)) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        } finally {
+            lock.unlock();
+        }
+
+        // In-flight decodes are keyed by URL so a replaced baseline never joins a decode of the old file
+        CompletableFuture<Raster> created = new CompletableFuture<>();
+        CompletableFuture<Raster> pending = loading.putIfAbsent(imageUrl, created);
+        if (pending != null) {
+            return await(pending);
+        }
+        try {
+            Raster raster = decode(imageUrl);
+            put(key, raster);
+            created.complete(raster);
+            return raster;
+        } catch (IOException | RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(imageUrl, created);
+        }
+    }
+
+    public void invalidate(UUID transformerId, String weatherCondition) {
+        Key key = Key.of(transformerId, weatherCondition);
+        lock.lock();
+        try {
+            Raster removed = entries.remove(key);
+            if (removed != null) {
+                currentBytes -= removed.sizeInBytes();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            statistics.put("hits", hits);
+            statistics.put("misses", misses);
+            statistics.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            statistics.put("evictions", evictions);
+            statistics.put("entries", entries.size());
+            statistics.put("bytes", currentBytes);
+            statistics.put("maxBytes", maxBytes);
+        } finally {
+            lock.unlock();
+        }
+        return statistics;
+    }
+
+    private void put(Key key, Raster raster) {
+        long size = raster.sizeInBytes();
+        if (size > maxBytes) {
+            return; // Larger than the whole budget: serve it uncached
+        }
+        lock.lock();
+        try {
+            Raster previous = entries.put(key, raster);
+            if (previous != null) {
+                currentBytes -= previous.sizeInBytes();
+            }
+            currentBytes += size;
+            Iterator<Map.Entry<Key, Raster>> eldest = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<Key, Raster> entry = eldest.next();
+                if (entry.getKey().equals(key)) {
+                    continue;
+                }
+                currentBytes -= entry.getValue().sizeInBytes();
+                eldest.remove();
+                evictions++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Raster decode(String imageUrl) throws IOException {
+        String fileName = imageUrl.substring(imageUrl.lastIndexOf('/') + 1);
+        Path path = Paths.get(uploadDir, fileName);
+        BufferedImage image = ImageIO.read(path.toFile());
+        if (image == null) {
+            throw new IOException("Unsupported image format: " + fileName);
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        return new Raster(imageUrl, width, height, image.getRGB(0, 0, width, height, null, 0, width));
+    }
+
+    private static Raster await(CompletableFuture<Raster> pending) throws IOException {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for baseline decode", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Baseline decode failed", e.getCause());
+        }
+    }
+}
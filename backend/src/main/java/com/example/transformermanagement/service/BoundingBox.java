@@ -0,0 +1,47 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.model.Annotation;
+
+import java.util.Locale;
+
+/**
+ * Annotation box in image pixels. Like the detector output and the annotation canvas, x/y is the centre of the
+ * box, not its top-left corner; the dataset formats are derived from that here so every export agrees.
+ */
+public record BoundingBox(double centerX, double centerY, double width, double height) {
+
+    public static BoundingBox of(Annotation annotation) {
+        return new BoundingBox(annotation.getX(), annotation.getY(), annotation.getWidth(), annotation.getHeight());
+    }
+
+    public double left() {
+        return centerX - width / 2;
+    }
+
+    public double top() {
+        return centerY - height / 2;
+    }
+
+    public double right() {
+        return centerX + width / 2;
+    }
+
+    public double bottom() {
+        return centerY + height / 2;
+    }
+
+    /**
+     * YOLO label line: class x_center y_center width height, normalized to the image size
+     */
+    public String toYoloLine(int classId, double imageWidth, double imageHeight) {
+        return String.format(Locale.ROOT, "%d %.6f %.6f %.6f %.6f%n",
+            classId, centerX / imageWidth, centerY / imageHeight, width / imageWidth, height / imageHeight);
+    }
+
+    /**
+     * COCO bbox: [left, top, width, height]
+     */
+    public double[] toCocoBbox() {
+        return new double[] { left(), top(), width, height };
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.model.Transformer;
+import com.example.transformermanagement.model.UploadCleanupEntry;
+import com.example.transformermanagement.repository.AlertRepository;
+import com.example.transformermanagement.repository.AnnotationRepository;
+import com.example.transformermanagement.repository.InspectionRepository;
+import com.example.transformermanagement.repository.ThermalImageRepository;
+import com.example.transformermanagement.repository.TransformerRepository;
+import com.example.transformermanagement.repository.UploadCleanupRepository;
+import com.example.transformermanagement.repository.UploadOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Deletes a transformer or an inspection with everything below it using set-based DELETE statements, bottom-up
+ * (annotations, thermal images, inspections, alerts, transformer) in one transaction.
+ *
+ * Nothing is loaded into the persistence context, so memory does not grow with the history being deleted.
+ * The upload files of the deleted images are queued in the same transaction and removed by UploadFileCleaner
+ * after commit. Pending batch uploads of the deleted images are cancelled, and batches left with nothing to do
+ * are closed after commit so they stop holding back training. The statements bypass entity listeners, so fleet rollups are marked here; Hibernate evicts the
+ * second-level cache regions of the deleted entity types itself.
+ */
+@Service
+public class BulkDeleteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkDeleteService.class);
+
+    @Autowired
+    private TransformerRepository transformerRepository;
+
+    @Autowired
+    private InspectionRepository inspectionRepository;
+
+    @Autowired
+    private ThermalImageRepository thermalImageRepository;
+
+    @Autowired
+    private AnnotationRepository annotationRepository;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private UploadOutboxRepository uploadOutboxRepository;
+
+    @Autowired
+    private UploadCleanupRepository uploadCleanupRepository;
+
+    @Autowired
+    private UploadFileCleaner uploadFileCleaner;
+
+    @Autowired
+    private RoboflowBatchUploadService roboflowBatchUploadService;
+
+    @Autowired
+    private FleetRollupService fleetRollupService;
+
+    @Autowired
+    private BaselineRasterCache baselineRasterCache;
+
+    /**
+     * @return false if the transformer does not exist
+     */
+    @Transactional
+    public boolean deleteTransformer(UUID transformerId) {
+        Optional<Transformer> found = transformerRepository.findById(transformerId);
+        if (found.isEmpty()) {
+            return false;
+        }
+        Transformer transformer = found.get();
+        OffsetDateTime now = OffsetDateTime.now();
+
+        int files = uploadCleanupRepository.enqueueImagesOfTransformer(transformerId, now);
+        List<UploadCleanupEntry> baselines = Stream.of(transformer.getSunnyBaselineImageUrl(),
+                transformer.getCloudyBaselineImageUrl(), transformer.getRainyBaselineImageUrl())
+            .filter(url -> url != null && !url.isBlank())
+            .map(url -> new UploadCleanupEntry(url, now))
+            .toList();
+        uploadCleanupRepository.saveAll(baselines);
+
+        List<UUID> batchIds = uploadOutboxRepository.findPendingBatchIdsOfTransformer(transformerId);
+        uploadOutboxRepository.cancelPendingOfTransformer(transformerId, now);
+        int annotations = annotationRepository.deleteAllOfTransformer(transformerId);
+        int images = thermalImageRepository.deleteAllOfTransformer(transformerId);
+        int inspections = inspectionRepository.deleteAllOfTransformer(transformerId);
+        int alerts = alertRepository.deleteAllOfTransformer(transformerId);
+        transformerRepository.deleteDirectlyById(transformerId);
+
+        logger.info("Deleted transformer {} with {} inspection(s), {} image(s), {} annotation(s), {} alert(s); {} file(s) queued for cleanup",
+            transformerId, inspections, images, annotations, alerts, files + baselines.size());
+        afterCommit(() -> {
+            fleetRollupService.markAllChanged();
+            for (String weather : List.of("sunny", "cloudy", "rainy")) {
+                baselineRasterCache.invalidate(transformerId, weather);
+            }
+            batchIds.forEach(roboflowBatchUploadService::settleIfFinished);
+            uploadFileCleaner.wake();
+        });
+        return true;
+    }
+
+    /**
+     * @return false if the inspection does not exist
+     */
+    @Transactional
+    public boolean deleteInspection(UUID inspectionId) {
+        Optional<UUID> transformerId = inspectionRepository.findTransformerIdById(inspectionId);
+        if (transformerId.isEmpty() && !inspectionRepository.existsById(inspectionId)) {
+            return false;
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+
+        int files = uploadCleanupRepository.enqueueImagesOfInspection(inspectionId, now);
+        List<UUID> batchIds = uploadOutboxRepository.findPendingBatchIdsOfInspection(inspectionId);
+        uploadOutboxRepository.cancelPendingOfInspection(inspectionId, now);
+        int annotations = annotationRepository.deleteAllOfInspection(inspectionId);
+        int images = thermalImageRepository.deleteAllOfInspection(inspectionId);
+        inspectionRepository.deleteDirectlyById(inspectionId);
+
+        logger.info("Deleted inspection {} with {} image(s), {} annotation(s); {} file(s) queued for cleanup",
+            inspectionId, images, annotations, files);
+        afterCommit(() -> {
+            if (transformerId.isPresent()) {
+                fleetRollupService.markTransformerChanged(transformerId.get());
+            } else {
+                fleetRollupService.markAllChanged();
+            }
+            batchIds.forEach(roboflowBatchUploadService::settleIfFinished);
+            uploadFileCleaner.wake();
+        });
+        return true;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.config.SecondLevelCacheConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hit/miss counts and hit ratios of the second-level cache regions (from Hibernate statistics) and of the
+ * decoded baseline raster cache
+ */
+@Service
+public class CacheStatisticsService {
+
+    private static final List<String> REGIONS = List.of(
+        SecondLevelCacheConfig.TRANSFORMERS_REGION,
+        SecondLevelCacheConfig.INSPECTIONS_REGION,
+        SecondLevelCacheConfig.INSPECTION_LOOKUPS_REGION,
+        SecondLevelCacheConfig.QUERY_RESULTS_REGION);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BaselineRasterCache baselineRasterCache;
+
+    public Map<String, Object> getStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : REGIONS) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("hits", regionStatistics.getHitCount());
+            entry.put("misses", regionStatistics.getMissCount());
+            entry.put("puts", regionStatistics.getPutCount());
+            entry.put("hitRatio", ratio(regionStatistics.getHitCount(), regionStatistics.getMissCount()));
+            regions.put(region, entry);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        result.put("secondLevelHitRatio", ratio(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()));
+        result.put("queryCacheHitRatio", ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+        result.put("regions", regions);
+        result.put("baselineRasters", baselineRasterCache.getStatistics());
+        return result;
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
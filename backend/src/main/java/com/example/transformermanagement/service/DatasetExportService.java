@@ -0,0 +1,335 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.model.Annotation;
+import com.example.transformermanagement.model.ThermalImage;
+import com.example.transformermanagement.repository.AnnotationRepository;
+import com.example.transformermanagement.repository.ThermalImageRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Local dataset export as a ZIP of images plus labels, written straight to the response stream.
+ *
+ * Images are paged from the DB (only images with live annotations), their annotations are loaded one
+ * page at a time, and image bytes are copied file channel -> zip without buffering whole files.
+ * Layouts:
+ * - YOLO: images/, labels/*.txt (class x_center y_center width height, normalized) and data.yaml
+ * - COCO: images/ and annotations.json (written after the images in a second paged pass)
+ * - VOC:  JPEGImages/ and Annotations/*.xml
+ */
+@Service
+public class DatasetExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetExportService.class);
+    private static final int PAGE_SIZE = 200;
+
+    // Kept in the same order as the historical single-image YOLO export so class ids stay stable
+    private static final List<String> KNOWN_CLASSES = List.of("faulty", "potentially_faulty", "normal");
+
+    public enum Format {
+        YOLO, COCO, VOC;
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value + " (expected yolo, coco or voc)");
+            }
+        }
+    }
+
+    public record ExportRequest(Format format, UUID transformerId, OffsetDateTime from, OffsetDateTime to) {}
+
+    @Autowired
+    private ThermalImageRepository thermalImageRepository;
+
+    @Autowired
+    private AnnotationRepository annotationRepository;
+
+    @Autowired
+    private ImageMetadataService imageMetadataService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Write the whole dataset as a ZIP to the given stream. The stream is finished but not closed.
+     */
+    public void writeZip(ExportRequest request, OutputStream out) throws IOException {
+        List<String> classes = loadClassNames();
+        Map<String, Integer> classIds = new HashMap<>();
+        for (int i = 0; i < classes.size(); i++) {
+            classIds.put(classes.get(i), i);
+        }
+
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        WritableByteChannel zipChannel = Channels.newChannel(zip);
+        int exported = 0;
+
+        Slice<ThermalImage> page = fetchPage(request, 0);
+        while (true) {
+            Map<UUID, List<Annotation>> annotationsByImage = loadAnnotations(page.getContent());
+            for (ThermalImage image : page.getContent()) {
+                Path imagePath = resolveImagePath(image);
+                if (!Files.isRegularFile(imagePath)) {
+                    logger.warn("Skipping thermal image {} in export: file not found at {}", image.getId(), imagePath);
+                    continue;
+                }
+                ImageMetadataService.ImageMetadata size = imageMetadataService.metadataOf(image);
+                String stem = image.getId().toString();
+                String fileName = stem + extension(imagePath);
+                List<Annotation> annotations = annotationsByImage.getOrDefault(image.getId(), List.of());
+
+                writeFileEntry(zip, zipChannel, (request.format() == Format.VOC ? "JPEGImages/" : "images/") + fileName, imagePath);
+                switch (request.format()) {
+                    case YOLO -> writeTextEntry(zip, "labels/" + stem + ".txt", toYolo(annotations, size, classIds));
+                    case VOC -> writeTextEntry(zip, "Annotations/" + stem + ".xml", toVoc(fileName, annotations, size));
+                    case COCO -> { }
+                }
+                exported++;
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = fetchPage(request, page.getNumber() + 1);
+        }
+
+        switch (request.format()) {
+            case YOLO -> writeTextEntry(zip, "data.yaml", yoloDataYaml(classes));
+            case COCO -> writeCocoAnnotations(zip, request, classes, classIds);
+            case VOC -> writeTextEntry(zip, "labels.txt", String.join("\n", classes) + "\n");
+        }
+
+        zip.finish();
+        logger.info("Exported {} images as {} dataset", exported, request.format());
+    }
+
+    private Slice<ThermalImage> fetchPage(ExportRequest request, int pageNumber) {
+        return thermalImageRepository.findAnnotatedForExport(
+            request.transformerId(), request.from(), request.to(), PageRequest.of(pageNumber, PAGE_SIZE));
+    }
+
+    private Map<UUID, List<Annotation>> loadAnnotations(List<ThermalImage> images) {
+        if (images.isEmpty()) {
+            return Map.of();
+        }
+        List<UUID> ids = images.stream().map(ThermalImage::getId).toList();
+        return annotationRepository.findLiveByThermalImageIdIn(ids).stream()
+            .collect(Collectors.groupingBy(a -> a.getThermalImage().getId()));
+    }
+
+    private List<String> loadClassNames() {
+        List<String> classes = new ArrayList<>(KNOWN_CLASSES);
+        annotationRepository.countByDetectionClass().stream()
+            .map(row -> ModelEvaluationService.normalizeClass((String) row[0]))
+            .filter(c -> !classes.contains(c))
+            .sorted()
+            .distinct()
+            .forEach(classes::add);
+        return classes;
+    }
+
+    // Copy the file through its channel so large images never sit in the heap
+    private void writeFileEntry(ZipOutputStream zip, WritableByteChannel zipChannel, String name, Path file) throws IOException {
+        // Image formats are already compressed; deflating them again only costs CPU
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        zip.putNextEntry(new ZipEntry(name));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, zipChannel);
+            }
+        }
+        zip.closeEntry();
+        zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    private void writeTextEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    String toYolo(List<Annotation> annotations, ImageMetadataService.ImageMetadata size, Map<String, Integer> classIds) {
+        StringBuilder yolo = new StringBuilder();
+        for (Annotation ann : annotations) {
+            int classId = classIds.getOrDefault(ModelEvaluationService.normalizeClass(ann.getDetectionClass()), 0);
+            yolo.append(BoundingBox.of(ann).toYoloLine(classId, size.width(), size.height()));
+        }
+        return yolo.toString();
+    }
+
+    private String yoloDataYaml(List<String> classes) {
+        StringBuilder yaml = new StringBuilder();
+        yaml.append("path: .\ntrain: images\nval: images\n");
+        yaml.append("nc: ").append(classes.size()).append('\n');
+        yaml.append("names:\n");
+        for (int i = 0; i < classes.size(); i++) {
+            yaml.append("  ").append(i).append(": ").append(classes.get(i)).append('\n');
+        }
+        return yaml.toString();
+    }
+
+    String toVoc(String fileName, List<Annotation> annotations, ImageMetadataService.ImageMetadata size) throws IOException {
+        java.io.StringWriter buffer = new java.io.StringWriter();
+        try {
+            XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(buffer);
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeStartElement("annotation");
+            element(xml, "folder", "JPEGImages");
+            element(xml, "filename", fileName);
+            xml.writeStartElement("size");
+            element(xml, "width", String.valueOf(size.width()));
+            element(xml, "height", String.valueOf(size.height()));
+            element(xml, "depth", String.valueOf(size.channels()));
+            xml.writeEndElement();
+            element(xml, "segmented", "0");
+            for (Annotation ann : annotations) {
+                xml.writeStartElement("object");
+                element(xml, "name", ModelEvaluationService.normalizeClass(ann.getDetectionClass()));
+                element(xml, "pose", "Unspecified");
+                element(xml, "truncated", "0");
+                element(xml, "difficult", "0");
+                BoundingBox box = BoundingBox.of(ann);
+                xml.writeStartElement("bndbox");
+                element(xml, "xmin", String.valueOf(Math.round(box.left())));
+                element(xml, "ymin", String.valueOf(Math.round(box.top())));
+                element(xml, "xmax", String.valueOf(Math.round(box.right())));
+                element(xml, "ymax", String.valueOf(Math.round(box.bottom())));
+                xml.writeEndElement();
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write VOC annotation for " + fileName, e);
+        }
+        return buffer.toString();
+    }
+
+    private static void element(XMLStreamWriter xml, String name, String value) throws XMLStreamException {
+        xml.writeStartElement(name);
+        xml.writeCharacters(value);
+        xml.writeEndElement();
+    }
+
+    /**
+     * COCO needs every image before any annotation, so annotations.json is produced with two paged
+     * passes over the same selection: one for "images", one for "annotations".
+     */
+    private void writeCocoAnnotations(ZipOutputStream zip, ExportRequest request, List<String> classes,
+                                      Map<String, Integer> classIds) throws IOException {
+        zip.putNextEntry(new ZipEntry("annotations.json"));
+        JsonGenerator json = objectMapper.getFactory().createGenerator(zip, JsonEncoding.UTF8);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.writeStartObject();
+
+        json.writeArrayFieldStart("images");
+        Map<UUID, Long> cocoImageIds = new HashMap<>();
+        Slice<ThermalImage> page = fetchPage(request, 0);
+        while (true) {
+            for (ThermalImage image : page.getContent()) {
+                Path imagePath = resolveImagePath(image);
+                if (!Files.isRegularFile(imagePath)) {
+                    continue;
+                }
+                long cocoId = cocoImageIds.size() + 1L;
+                cocoImageIds.put(image.getId(), cocoId);
+                ImageMetadataService.ImageMetadata size = imageMetadataService.metadataOf(image);
+                json.writeStartObject();
+                json.writeNumberField("id", cocoId);
+                json.writeStringField("file_name", "images/" + image.getId() + extension(imagePath));
+                json.writeNumberField("width", size.width());
+                json.writeNumberField("height", size.height());
+                json.writeStringField("thermal_image_id", image.getId().toString());
+                json.writeEndObject();
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = fetchPage(request, page.getNumber() + 1);
+        }
+        json.writeEndArray();
+
+        json.writeArrayFieldStart("annotations");
+        long annotationId = 1;
+        page = fetchPage(request, 0);
+        while (true) {
+            Map<UUID, List<Annotation>> annotationsByImage = loadAnnotations(page.getContent());
+            for (ThermalImage image : page.getContent()) {
+                Long cocoImageId = cocoImageIds.get(image.getId());
+                if (cocoImageId == null) {
+                    continue;
+                }
+                for (Annotation ann : annotationsByImage.getOrDefault(image.getId(), List.of())) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", annotationId++);
+                    json.writeNumberField("image_id", cocoImageId);
+                    json.writeNumberField("category_id",
+                        classIds.getOrDefault(ModelEvaluationService.normalizeClass(ann.getDetectionClass()), 0) + 1);
+                    double[] bbox = BoundingBox.of(ann).toCocoBbox();
+                    json.writeFieldName("bbox");
+                    json.writeArray(bbox, 0, bbox.length);
+                    json.writeNumberField("area", ann.getWidth() * ann.getHeight());
+                    json.writeNumberField("iscrowd", 0);
+                    json.writeEndObject();
+                }
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = fetchPage(request, page.getNumber() + 1);
+        }
+        json.writeEndArray();
+
+        json.writeArrayFieldStart("categories");
+        for (int i = 0; i < classes.size(); i++) {
+            json.writeStartObject();
+            json.writeNumberField("id", i + 1);
+            json.writeStringField("name", classes.get(i));
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+
+        json.writeEndObject();
+        json.flush();
+        zip.closeEntry();
+    }
+
+    private Path resolveImagePath(ThermalImage image) {
+        return imageMetadataService.resolvePath(image);
+    }
+
+    private static String extension(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot).toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.config.WorkerThreads;
+import com.example.transformermanagement.dto.AlertEvent;
+import com.example.transformermanagement.dto.AnnotationDelta;
+import com.example.transformermanagement.dto.DetectionEvent;
+import com.example.transformermanagement.model.Transformer;
+import com.example.transformermanagement.repository.ThermalImageRepository;
+import com.example.transformermanagement.repository.TransformerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-Sent Events fan-out of alerts, detection state changes and annotation changes.
+ *
+ * Each connection is an async SseEmitter with its own filter and a bounded buffer, so an idle dashboard holds
+ * no thread and costs one heartbeat per events.stream.heartbeat-ms. Publishing only enqueues; a small sender
+ * pool drains buffers. A client that falls behind loses its oldest buffered events and receives an
+ * "overflow" event telling it to re-fetch. Events are published after the originating transaction commits.
+ */
+@Service
+public class EventStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamService.class);
+
+    public static final String ALERT = "alert";
+    public static final String DETECTION = "detection";
+    public static final String ANNOTATION = "annotation";
+    public static final Set<String> TYPES = Set.of(ALERT, DETECTION, ANNOTATION);
+
+    @Autowired
+    private TransformerRepository transformerRepository;
+
+    @Autowired
+    private ThermalImageRepository thermalImageRepository;
+
+    @Autowired
+    private WorkerThreads workerThreads;
+
+    @Value("${events.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${events.stream.max-clients:5000}")
+    private int maxClients;
+
+    @Value("${events.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${events.stream.sender-threads:4}")
+    private int senderThreads;
+
+    /**
+     * Subscription filter; empty transformerIds, null region or empty types match everything
+     */
+    public record Filter(Set<UUID> transformerIds, String region, Set<String> types) {
+        boolean matches(String type, UUID transformerId, String transformerRegion) {
+            return (types.isEmpty() || types.contains(type))
+                && (transformerIds.isEmpty() || transformerIds.contains(transformerId))
+                && (region == null || region.equalsIgnoreCase(transformerRegion));
+        }
+
+        boolean needsTransformer() {
+            return !transformerIds.isEmpty() || region != null;
+        }
+    }
+
+    private record Event(long id, String type, Object payload) {}
+
+    private final class Client {
+        final SseEmitter emitter;
+        final Filter filter;
+        final ReentrantLock lock = new ReentrantLock();
+        final ArrayDeque<Event> buffer = new ArrayDeque<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+        boolean overflowed;
+
+        Client(SseEmitter emitter, Filter filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+        }
+    }
+
+    private final Map<SseEmitter, Client> clients = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private ExecutorService senders;
+
+    @PostConstruct
+    void start() {
+        senders = Executors.newFixedThreadPool(senderThreads, workerThreads.named("event-stream-"));
+    }
+
+    @PreDestroy
+    void stop() {
+        senders.shutdownNow();
+        clients.keySet().forEach(SseEmitter::complete);
+    }
+
+    /**
+     * @throws IllegalStateException when events.stream.max-clients connections are already open
+     */
+    public SseEmitter subscribe(Filter filter) {
+        if (clients.size() >= maxClients) {
+            throw new IllegalStateException("Too many event stream clients");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Client client = new Client(emitter, filter);
+        emitter.onCompletion(() -> clients.remove(emitter));
+        emitter.onTimeout(() -> clients.remove(emitter));
+        emitter.onError(e -> clients.remove(emitter));
+        clients.put(emitter, client);
+        try {
+            emitter.send(SseEmitter.event().comment("connected"));
+        } catch (IOException e) {
+            clients.remove(emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAlert(AlertEvent event) {
+        publish(ALERT, event.transformerId(), event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDetection(DetectionEvent event) {
+        publish(DETECTION, event.transformerId(), event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAnnotationDelta(AnnotationDelta delta) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        // Subscribers get a change notice; the annotations themselves come from the API or the WebSocket topic
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("thermalImageId", delta.thermalImageId());
+        payload.put("revision", delta.revision());
+        payload.put("operation", delta.operation());
+        payload.put("timestamp", delta.timestamp());
+        UUID transformerId = needsTransformer()
+            ? thermalImageRepository.findTransformerIdById(delta.thermalImageId()).orElse(null)
+            : null;
+        publish(ANNOTATION, transformerId, payload);
+    }
+
+    // Keeps proxies from closing idle connections and detects clients that went away
+    @Scheduled(fixedDelayString = "${events.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Client client : clients.values()) {
+            senders.execute(() -> {
+                try {
+                    client.emitter.send(SseEmitter.event().comment("keepalive"));
+                } catch (Exception e) {
+                    drop(client);
+                }
+            });
+        }
+    }
+
+    private void publish(String type, UUID transformerId, Object payload) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        String region = null;
+        if (transformerId != null && clients.values().stream().anyMatch(c -> c.filter.region() != null)) {
+            region = transformerRepository.findById(transformerId).map(Transformer::getRegion).orElse(null);
+        }
+        Event event = new Event(sequence.incrementAndGet(), type, payload);
+        for (Client client : clients.values()) {
+            if (!client.filter.matches(type, transformerId, region)) {
+                continue;
+            }
+            client.lock.lock();
+            try {
+                if (client.buffer.size() >= bufferSize) {
+                    client.buffer.pollFirst();
+                    client.overflowed = true;
+                }
+                client.buffer.addLast(event);
+            } finally {
+                client.lock.unlock();
+            }
+            if (client.draining.compareAndSet(false, true)) {
+                senders.execute(() -> drain(client));
+            }
+        }
+    }
+
+    private void drain(Client client) {
+        try {
+            while (true) {
+                Event event;
+                boolean overflowed;
+                client.lock.lock();
+                try {
+                    event = client.buffer.pollFirst();
+                    overflowed = client.overflowed;
+                    client.overflowed = false;
+                    if (event == null) {
+                        client.draining.set(false);
+                        return;
+                    }
+                } finally {
+                    client.lock.unlock();
+                }
+                if (overflowed) {
+                    client.emitter.send(SseEmitter.event().name("overflow").data(Map.of("reason", "buffer full; re-fetch state")));
+                }
+                client.emitter.send(SseEmitter.event().id(Long.toString(event.id())).name(event.type()).data(event.payload()));
+            }
+        } catch (Exception e) {
+            client.draining.set(false);
+            drop(client);
+        }
+    }
+
+    private void drop(Client client) {
+        if (clients.remove(client.emitter) != null) {
+            logger.debug("Dropping event stream client: send failed");
+            client.emitter.complete();
+        }
+    }
+
+    private boolean needsTransformer() {
+        return clients.values().stream().anyMatch(c -> c.filter.needsTransformer());
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.model.Alert;
+import com.example.transformermanagement.model.Annotation;
+import com.example.transformermanagement.model.Inspection;
+import com.example.transformermanagement.model.Transformer;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that marks fleet rollups stale when dashboard inputs change.
+ * Hibernate obtains it from the Spring context; marks are applied after commit so a refresh
+ * never aggregates data that is about to roll back. Only ids are read, so no lazy loading happens here.
+ */
+@Component
+public class FleetRollupChangeListener {
+
+    // Resolved lazily: Hibernate creates listeners while the EntityManagerFactory the service depends on is still being built
+    @Autowired
+    private ObjectProvider<FleetRollupService> fleetRollupService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Runnable mark;
+        if (entity instanceof Transformer) {
+            mark = () -> fleetRollupService.getObject().markAllChanged();
+        } else if (entity instanceof Inspection inspection && inspection.getTransformer() != null) {
+            java.util.UUID transformerId = inspection.getTransformer().getId();
+            mark = () -> fleetRollupService.getObject().markTransformerChanged(transformerId);
+        } else if (entity instanceof Alert alert && alert.getTransformer() != null) {
+            java.util.UUID transformerId = alert.getTransformer().getId();
+            mark = () -> fleetRollupService.getObject().markTransformerChanged(transformerId);
+        } else if (entity instanceof Annotation annotation && annotation.getThermalImage() != null) {
+            java.util.UUID thermalImageId = annotation.getThermalImage().getId();
+            mark = () -> fleetRollupService.getObject().markThermalImageChanged(thermalImageId);
+        } else {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mark.run();
+                }
+            });
+        } else {
+            mark.run();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.dto.FleetSummary;
+import com.example.transformermanagement.model.FleetRollup;
+import com.example.transformermanagement.repository.FleetRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Maintains the fleet_rollups table behind the dashboard summary.
+ *
+ * Entity changes only mark what became stale (FleetRollupChangeListener, after commit). A scheduled pass
+ * resolves the touched (region, type) segments and rebuilds just those with GROUP BY aggregations, so a
+ * refresh costs the size of the segment, not the fleet, and reading the summary is a single query.
+ */
+@Service
+public class FleetRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetRollupService.class);
+    private static final String UNKNOWN = "Unknown";
+
+    @Autowired
+    private FleetRollupRepository fleetRollupRepository;
+
+    @Value("${dashboard.rollup.anomaly-days:90}")
+    private int anomalyRetentionDays;
+
+    @Value("${dashboard.anomaly-windows-days:1,7,30}")
+    private List<Integer> defaultWindows;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Set<UUID> dirtyTransformers = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> dirtyThermalImages = ConcurrentHashMap.newKeySet();
+    private volatile boolean fullRefreshRequested = true;
+    // A lock rather than a synchronized method: a virtual thread blocking on JDBC inside a monitor pins its carrier
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    public FleetRollupService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void markTransformerChanged(UUID transformerId) {
+        if (transformerId != null) {
+            dirtyTransformers.add(transformerId);
+        }
+    }
+
+    public void markThermalImageChanged(UUID thermalImageId) {
+        if (thermalImageId != null) {
+            dirtyThermalImages.add(thermalImageId);
+        }
+    }
+
+    // A transformer moving between segments leaves stale counts in the old one, so rebuild everything
+    public void markAllChanged() {
+        fullRefreshRequested = true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.rollup.refresh-interval-ms:5000}")
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            refreshLocked();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void refreshLocked() {
+        if (fullRefreshRequested) {
+            fullRefreshRequested = false;
+            dirtyTransformers.clear();
+            dirtyThermalImages.clear();
+            try {
+                rebuildSegment(null, null);
+                logger.info("Rebuilt fleet rollups for the whole fleet");
+            } catch (RuntimeException e) {
+                fullRefreshRequested = true;
+                logger.error("Fleet rollup rebuild failed: {}", e.getMessage(), e);
+            }
+            return;
+        }
+
+        List<UUID> transformers = drain(dirtyTransformers);
+        List<UUID> images = drain(dirtyThermalImages);
+        if (transformers.isEmpty() && images.isEmpty()) {
+            return;
+        }
+
+        Set<List<String>> segments = new HashSet<>();
+        if (!transformers.isEmpty()) {
+            fleetRollupRepository.findSegmentsOfTransformers(transformers)
+                .forEach(row -> segments.add(List.of((String) row[0], (String) row[1])));
+        }
+        if (!images.isEmpty()) {
+            fleetRollupRepository.findSegmentsOfThermalImages(images)
+                .forEach(row -> segments.add(List.of((String) row[0], (String) row[1])));
+        }
+        for (List<String> segment : segments) {
+            try {
+                rebuildSegment(segment.get(0), segment.get(1));
+            } catch (RuntimeException e) {
+                // Retry the whole fleet next time rather than tracking partial failures
+                fullRefreshRequested = true;
+                logger.error("Fleet rollup refresh failed for {}/{}: {}", segment.get(0), segment.get(1), e.getMessage(), e);
+            }
+        }
+        logger.debug("Refreshed fleet rollups for {} segment(s)", segments.size());
+    }
+
+    /**
+     * @param windows anomaly windows in days; null or empty uses dashboard.anomaly-windows-days
+     */
+    public FleetSummary getSummary(List<Integer> windows) {
+        List<Integer> windowsDays = (windows == null || windows.isEmpty() ? defaultWindows : windows).stream()
+            .filter(w -> w > 0)
+            .map(w -> Math.min(w, anomalyRetentionDays))
+            .distinct()
+            .sorted()
+            .toList();
+        int widest = windowsDays.isEmpty() ? 1 : windowsDays.get(windowsDays.size() - 1);
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        Map<List<String>, SegmentBuilder> bySegment = new TreeMap<>(
+            Comparator.<List<String>, String>comparing(k -> k.get(0)).thenComparing(k -> k.get(1)));
+        SegmentBuilder totals = new SegmentBuilder("ALL", "ALL");
+        OffsetDateTime refreshedAt = null;
+
+        for (FleetRollup row : fleetRollupRepository.findForSummary(today.minusDays(widest - 1L))) {
+            SegmentBuilder segment = bySegment.computeIfAbsent(List.of(row.getRegion(), row.getType()),
+                k -> new SegmentBuilder(k.get(0), k.get(1)));
+            segment.add(row, windowsDays, today);
+            totals.add(row, windowsDays, today);
+            if (refreshedAt == null || (row.getRefreshedAt() != null && row.getRefreshedAt().isAfter(refreshedAt))) {
+                refreshedAt = row.getRefreshedAt();
+            }
+        }
+
+        List<FleetSummary.Segment> segments = bySegment.values().stream().map(SegmentBuilder::build).toList();
+        return new FleetSummary(refreshedAt, windowsDays, totals.build(), segments);
+    }
+
+    private void rebuildSegment(String region, String type) {
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime anomalySince = LocalDate.now(ZoneOffset.UTC).minusDays(anomalyRetentionDays - 1L)
+            .atStartOfDay().atOffset(ZoneOffset.UTC);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            fleetRollupRepository.deleteSegment(region, type);
+            List<FleetRollup> rows = new ArrayList<>();
+            for (Object[] r : fleetRollupRepository.countTransformers(region, type)) {
+                rows.add(new FleetRollup((String) r[0], (String) r[1], FleetRollup.TRANSFORMERS, "", null, (Long) r[2], now));
+            }
+            for (Object[] r : fleetRollupRepository.countInspectionsByStatus(region, type)) {
+                rows.add(new FleetRollup((String) r[0], (String) r[1], FleetRollup.INSPECTION_STATUS,
+                    dimension(r[2]), null, (Long) r[3], now));
+            }
+            for (Object[] r : fleetRollupRepository.countOpenAlertsBySeverity(region, type)) {
+                rows.add(new FleetRollup((String) r[0], (String) r[1], FleetRollup.OPEN_ALERT_SEVERITY,
+                    dimension(r[2]), null, (Long) r[3], now));
+            }
+            for (Object[] r : fleetRollupRepository.countAnomaliesByClassAndDay(region, type, anomalySince)) {
+                rows.add(new FleetRollup((String) r[0], (String) r[1], FleetRollup.ANOMALY_CLASS,
+                    ModelEvaluationService.normalizeClass((String) r[2]), (LocalDate) r[3], (Long) r[4], now));
+            }
+            fleetRollupRepository.saveAll(rows);
+        });
+    }
+
+    private static String dimension(Object value) {
+        return value == null || value.toString().isBlank() ? UNKNOWN : value.toString();
+    }
+
+    private static List<UUID> drain(Set<UUID> dirty) {
+        List<UUID> drained = new ArrayList<>(dirty);
+        dirty.removeAll(drained);
+        return drained;
+    }
+
+    private static final class SegmentBuilder {
+        private final String region;
+        private final String type;
+        private long transformers;
+        private final Map<String, Long> inspectionsByStatus = new TreeMap<>();
+        private final Map<String, Long> openAlertsBySeverity = new TreeMap<>();
+        private final Map<Integer, Map<String, Long>> anomaliesByClass = new TreeMap<>();
+
+        SegmentBuilder(String region, String type) {
+            this.region = region;
+            this.type = type;
+        }
+
+        void add(FleetRollup row, List<Integer> windowsDays, LocalDate today) {
+            switch (row.getMetric()) {
+                case FleetRollup.TRANSFORMERS -> transformers += row.getTotal();
+                case FleetRollup.INSPECTION_STATUS -> inspectionsByStatus.merge(row.getDimension(), row.getTotal(), Long::sum);
+                case FleetRollup.OPEN_ALERT_SEVERITY -> openAlertsBySeverity.merge(row.getDimension(), row.getTotal(), Long::sum);
+                case FleetRollup.ANOMALY_CLASS -> {
+                    for (Integer window : windowsDays) {
+                        if (row.getDay() != null && !row.getDay().isBefore(today.minusDays(window - 1L))) {
+                            anomaliesByClass.computeIfAbsent(window, w -> new TreeMap<>())
+                                .merge(row.getDimension(), row.getTotal(), Long::sum);
+                        }
+                    }
+                }
+                default -> { }
+            }
+        }
+
+        FleetSummary.Segment build() {
+            return new FleetSummary.Segment(region, type, transformers, inspectionsByStatus, openAlertsBySeverity, anomaliesByClass);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.model.ThermalImage;
+import com.example.transformermanagement.repository.ThermalImageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+
+/**
+ * Image width, height, format and bit depth read from the file header only.
+ *
+ * ImageReader is positioned on the header and asked for size and raw type; no pixels are decoded.
+ * Values are captured at upload time and stored on ThermalImage; images uploaded before that are
+ * backfilled the first time an exporter asks for them.
+ */
+@Service
+public class ImageMetadataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageMetadataService.class);
+
+    public record ImageMetadata(int width, int height, String format, Integer bitDepth) {
+        // Channel count for Pascal VOC <depth>, assuming 8 bits per channel except 16-bit grayscale
+        public int channels() {
+            if (bitDepth == null || bitDepth <= 16) {
+                return bitDepth == null ? 3 : 1;
+            }
+            return bitDepth / 8;
+        }
+    }
+
+    @Autowired
+    private ThermalImageRepository thermalImageRepository;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    public ImageMetadata read(Path imagePath) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(imagePath.toFile())) {
+            if (input == null) {
+                throw new IOException("Cannot open image: " + imagePath);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format: " + imagePath.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new ImageMetadata(reader.getWidth(0), reader.getHeight(0), reader.getFormatName(), bitDepth(reader));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Copy header metadata onto the entity; a file ImageIO cannot read leaves the fields empty
+     */
+    public void applyTo(ThermalImage thermalImage, Path imagePath) {
+        try {
+            ImageMetadata metadata = read(imagePath);
+            thermalImage.setImageWidth(metadata.width());
+            thermalImage.setImageHeight(metadata.height());
+            thermalImage.setImageFormat(metadata.format());
+            thermalImage.setBitDepth(metadata.bitDepth());
+        } catch (IOException e) {
+            logger.warn("Could not read image header for {}: {}", imagePath.getFileName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Stored metadata for the image, reading and persisting it once for images uploaded before it was captured
+     *
+     * @throws IOException if nothing is stored and the header cannot be read
+     */
+    public ImageMetadata metadataOf(ThermalImage thermalImage) throws IOException {
+        if (thermalImage.getImageWidth() != null && thermalImage.getImageHeight() != null) {
+            return new ImageMetadata(thermalImage.getImageWidth(), thermalImage.getImageHeight(),
+                thermalImage.getImageFormat(), thermalImage.getBitDepth());
+        }
+        ImageMetadata metadata = read(resolvePath(thermalImage));
+        thermalImageRepository.updateImageMetadata(thermalImage.getId(), metadata.width(), metadata.height(),
+            metadata.format(), metadata.bitDepth());
+        thermalImage.setImageWidth(metadata.width());
+        thermalImage.setImageHeight(metadata.height());
+        thermalImage.setImageFormat(metadata.format());
+        thermalImage.setBitDepth(metadata.bitDepth());
+        return metadata;
+    }
+
+    public Path resolvePath(ThermalImage thermalImage) {
+        String fileName = thermalImage.getImageUrl().substring(thermalImage.getImageUrl().lastIndexOf('/') + 1);
+        return Paths.get(uploadDir, fileName);
+    }
+
+    private static Integer bitDepth(ImageReader reader) throws IOException {
+        ImageTypeSpecifier type = reader.getRawImageType(0);
+        if (type == null) {
+            Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+            type = types.hasNext() ? types.next() : null;
+        }
+        return type != null ? type.getColorModel().getPixelSize() : null;
+    }
+}
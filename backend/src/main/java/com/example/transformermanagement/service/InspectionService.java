@@ -1,39 +1,143 @@
 package com.example.transformermanagement.service;
 
+import com.example.transformermanagement.config.ReadRouting;
+import com.example.transformermanagement.config.ReplicaLagMonitor;
+import com.example.transformermanagement.dto.DetectionDTO;
+import com.example.transformermanagement.dto.InspectionDetail;
+import com.example.transformermanagement.dto.KeysetPage;
+import com.example.transformermanagement.model.Annotation;
 import com.example.transformermanagement.model.Inspection;
+import com.example.transformermanagement.model.ThermalImage;
+import com.example.transformermanagement.model.Transformer;
+import com.example.transformermanagement.repository.AnnotationRepository;
 import com.example.transformermanagement.repository.InspectionRepository;
+import com.example.transformermanagement.repository.ThermalImageRepository;
+import jakarta.persistence.criteria.JoinType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class InspectionService {
     @Autowired
     private InspectionRepository inspectionRepository;
 
-    public List<Inspection> getAllInspections() {
-        // Use optimized query with JOIN FETCH to avoid N+1 problem
-        return inspectionRepository.findAllWithTransformer();
+    @Autowired
+    private KeysetPager keysetPager;
+
+    @Autowired
+    private ThermalImageRepository thermalImageRepository;
+
+    @Autowired
+    private AnnotationRepository annotationRepository;
+
+    @Autowired
+    private AnnotationService annotationService;
+
+    @Autowired
+    private BulkDeleteService bulkDeleteService;
+
+    // Present only when a read replica is configured
+    @Autowired(required = false)
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    private static final Map<String, Class<? extends Comparable<?>>> SORTABLE = Map.of(
+        "createdAt", OffsetDateTime.class,
+        "inspectedDate", OffsetDateTime.class,
+        "inspectionNo", String.class);
+
+    /**
+     * Keyset-paginated list (newest first by default) with the transformer fetched in the same query
+     *
+     * @param from inclusive lower bound on inspectedDate
+     * @param to exclusive upper bound on inspectedDate
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Inspection> findInspections(UUID transformerId, String status, OffsetDateTime from, OffsetDateTime to,
+                                                  String sort, String direction, String cursor, Integer limit) {
+        Specification<Inspection> filter = Specification.<Inspection>where(fetchTransformer())
+            .and(KeysetPager.equalIfPresent("transformer.id", transformerId))
+            .and(KeysetPager.equalIfPresent("status", status))
+            .and(KeysetPager.between("inspectedDate", from, to));
+        KeysetPager.KeysetSort keysetSort = KeysetPager.KeysetSort.of(sort, direction, SORTABLE, "createdAt", true);
+        return keysetPager.page(inspectionRepository, filter, keysetSort, cursor, limit);
     }
 
-    public List<Inspection> getInspectionsByTransformerId(UUID transformerId) {
-        // Use optimized query with JOIN FETCH
-        return inspectionRepository.findByTransformerIdWithTransformer(transformerId);
+    // JOIN FETCH to avoid N+1 problem (skipped for count queries, where a fetch is not allowed)
+    private static Specification<Inspection> fetchTransformer() {
+        return (root, query, cb) -> {
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("transformer", JoinType.LEFT);
+            }
+            return null;
+        };
     }
 
+    // Not read-only, so it reads the primary: controllers load through here before modifying and saving
     public Optional<Inspection> getInspectionById(java.util.UUID id) {
         // Use optimized query with JOIN FETCH
         return inspectionRepository.findByIdWithTransformer(id);
     }
 
+    /**
+     * Inspection page in three set-based queries regardless of image or annotation count:
+     * inspection + transformer (fetch join), the inspection's images, and all their live annotations.
+     * Read from the primary while the replica may be missing a recent annotation change
+     */
+    @Transactional(readOnly = true)
+    public Optional<InspectionDetail> getInspectionDetail(UUID id) {
+        return ReadRouting.onPrimaryIf(replicaLagMonitor != null && !replicaLagMonitor.hasReplicatedAllAnnotations(),
+            () -> loadInspectionDetail(id));
+    }
+
+    private Optional<InspectionDetail> loadInspectionDetail(UUID id) {
+        Optional<Inspection> found = inspectionRepository.findByIdWithTransformer(id);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        Inspection inspection = found.get();
+
+        List<ThermalImage> images = thermalImageRepository.findByInspection_Id(id);
+        images.sort(Comparator.comparing(ThermalImage::getUploadedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+        Map<String, List<ThermalImage>> imagesByType = new LinkedHashMap<>();
+        for (ThermalImage image : images) {
+            imagesByType.computeIfAbsent(image.getImageType(), t -> new ArrayList<>()).add(image);
+        }
+
+        Map<UUID, List<DetectionDTO>> annotationsByImage = new LinkedHashMap<>();
+        if (!images.isEmpty()) {
+            List<UUID> imageIds = images.stream().map(ThermalImage::getId).toList();
+            Map<UUID, List<Annotation>> grouped = annotationRepository.findLiveByThermalImageIdIn(imageIds).stream()
+                .collect(Collectors.groupingBy(a -> a.getThermalImage().getId()));
+            for (UUID imageId : imageIds) {
+                annotationsByImage.put(imageId, annotationService.convertAnnotationsToDTO(grouped.getOrDefault(imageId, List.of())));
+            }
+        }
+
+        // Same rule as the page: the maintenance image's weather wins over the inspection's
+        String weather = imagesByType.getOrDefault("Maintenance", List.of()).stream()
+            .map(ThermalImage::getWeatherCondition)
+            .filter(w -> w != null && !w.isBlank())
+            .findFirst()
+            .orElse(inspection.getWeatherCondition() != null ? inspection.getWeatherCondition() : "Sunny");
+        Transformer transformer = inspection.getTransformer();
+        return Optional.of(new InspectionDetail(inspection, transformer, imagesByType, annotationsByImage,
+            weather, TransformerService.baselineUrlFor(transformer, weather)));
+    }
+
     public Inspection saveInspection(Inspection inspection) {
         return inspectionRepository.save(inspection);
     }
 
+    /**
+     * Deletes the inspection with its images and annotations; see BulkDeleteService
+     */
     public void deleteInspection(java.util.UUID id) {
-        inspectionRepository.deleteById(id);
+        bulkDeleteService.deleteInspection(id);
     }
 }
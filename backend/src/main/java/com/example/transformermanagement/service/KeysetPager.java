@@ -0,0 +1,151 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.dto.KeysetPage;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keyset (seek) pagination for list endpoints.
+ *
+ * Rows are ordered by (sort field, id) and the cursor carries the last row's values, so the next page
+ * is "WHERE (field, id) > (cursor)" and an index on the filter columns plus the sort field serves
+ * every page at the same cost, unlike OFFSET. Sort fields must be non-null columns.
+ */
+@Component
+public class KeysetPager {
+
+    @Value("${pagination.default-limit:100}")
+    private int defaultLimit;
+
+    @Value("${pagination.max-limit:500}")
+    private int maxLimit;
+
+    public record KeysetSort(String field, Class<? extends Comparable<?>> type, boolean descending) {
+
+        /**
+         * @param allowed sortable fields of the entity and their Java types
+         * @throws IllegalArgumentException for a field that is not sortable
+         */
+        public static KeysetSort of(String field, String direction, Map<String, Class<? extends Comparable<?>>> allowed,
+                                    String defaultField, boolean defaultDescending) {
+            String resolved = (field == null || field.isBlank()) ? defaultField : field;
+            Class<? extends Comparable<?>> type = allowed.get(resolved);
+            if (type == null) {
+                throw new IllegalArgumentException("Cannot sort by '" + resolved + "'; allowed: " + allowed.keySet());
+            }
+            boolean descending = (direction == null || direction.isBlank())
+                ? defaultDescending
+                : "desc".equals(direction.toLowerCase(Locale.ROOT));
+            return new KeysetSort(resolved, type, descending);
+        }
+    }
+
+    private record Cursor(Comparable<?> value, UUID id) {}
+
+    public <T> KeysetPage<T> page(JpaSpecificationExecutor<T> repository, Specification<T> filter,
+                                  KeysetSort sort, String cursor, Integer limit) {
+        int pageSize = (limit == null || limit <= 0) ? defaultLimit : Math.min(limit, maxLimit);
+
+        Specification<T> spec = Specification.where(filter);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(after(sort, decode(cursor, sort.type())));
+        }
+        Sort.Direction direction = sort.descending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort order = Sort.by(direction, sort.field()).and(Sort.by(direction, "id"));
+
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        List<T> rows = repository.findBy(spec, q -> q.sortBy(order).limit(pageSize + 1).all());
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, pageSize));
+        BeanWrapperImpl last = new BeanWrapperImpl(items.get(items.size() - 1));
+        return new KeysetPage<>(items, encode(last.getPropertyValue(sort.field()), (UUID) last.getPropertyValue("id")));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Specification<T> after(KeysetSort sort, Cursor cursor) {
+        return (root, query, cb) -> {
+            Path<Comparable> field = root.get(sort.field());
+            Path<UUID> id = root.get("id");
+            Comparable value = cursor.value();
+            Predicate beyond = sort.descending() ? cb.lessThan(field, value) : cb.greaterThan(field, value);
+            Predicate tie = cb.and(cb.equal(field, value),
+                sort.descending() ? cb.lessThan(id, cursor.id()) : cb.greaterThan(id, cursor.id()));
+            return cb.or(beyond, tie);
+        };
+    }
+
+    private static String encode(Object value, UUID id) {
+        String raw = value + "\n" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String cursor, Class<?> type) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf('\n');
+            String value = raw.substring(0, split);
+            UUID id = UUID.fromString(raw.substring(split + 1));
+            if (type == OffsetDateTime.class) {
+                return new Cursor(OffsetDateTime.parse(value), id);
+            }
+            if (type == UUID.class) {
+                return new Cursor(UUID.fromString(value), id);
+            }
+            return new Cursor(value, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Equality filter that is skipped when the value is absent; field may be a path such as "transformer.id"
+     */
+    public static <T> Specification<T> equalIfPresent(String field, Object value) {
+        if (value == null || (value instanceof String s && s.isBlank())) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Path<?> path = root;
+            for (String part : field.split("\\.")) {
+                path = path.get(part);
+            }
+            return cb.equal(path, value);
+        };
+    }
+
+    /**
+     * Half-open [from, to) range filter on a timestamp; either bound may be absent
+     */
+    public static <T> Specification<T> between(String field, OffsetDateTime from, OffsetDateTime to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Path<OffsetDateTime> path = root.get(field);
+            if (from == null) {
+                return cb.lessThan(path, to);
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(path, from);
+            }
+            return cb.and(cb.greaterThanOrEqualTo(path, from), cb.lessThan(path, to));
+        };
+    }
+}
@@ -0,0 +1,430 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.dto.ModelEvaluationReport;
+import com.example.transformermanagement.model.Annotation;
+import com.example.transformermanagement.model.ThermalImage;
+import com.example.transformermanagement.repository.AnnotationRepository;
+import com.example.transformermanagement.repository.ThermalImageDetectionsRepository;
+import com.example.transformermanagement.repository.ThermalImageRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Measures detector quality against user corrections.
+ *
+ * For every reviewed image the AI prediction snapshot (ThermalImageDetections.aiPredictions) is matched against the
+ * final, non-deleted annotations, which are treated as ground truth. Boxes are matched greedily by
+ * confidence at the given IoU threshold (Pascal VOC style). Images are evaluated in parallel and the
+ * per-image results are merged per model version and time window.
+ */
+@Service
+public class ModelEvaluationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelEvaluationService.class);
+
+    static final String UNKNOWN_MODEL_VERSION = "unknown";
+    static final String BACKGROUND = "background";
+    private static final int PAGE_SIZE = 500;
+    private static final ObjectMapper PREDICTION_READER = new ObjectMapper();
+
+    @Autowired
+    private ThermalImageRepository thermalImageRepository;
+
+    @Autowired
+    private AnnotationRepository annotationRepository;
+
+    @Autowired
+    private ThermalImageDetectionsRepository thermalImageDetectionsRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ForkJoinPool evaluationPool;
+
+    public ModelEvaluationService(@Value("${evaluation.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.evaluationPool = new ForkJoinPool(threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evaluationPool.shutdown();
+    }
+
+    /**
+     * @param bucket none, day, week or month
+     * @param reviewedOnly skip images nobody has touched (their annotations still equal the AI output)
+     */
+    @Transactional(readOnly = true)
+    public ModelEvaluationReport evaluate(OffsetDateTime from, OffsetDateTime to, String bucket,
+                                          double iouThreshold, boolean reviewedOnly) {
+        String resolvedBucket = bucket == null ? "none" : bucket.toLowerCase();
+        if (!List.of("none", "day", "week", "month").contains(resolvedBucket)) {
+            throw new IllegalArgumentException("Invalid bucket: " + bucket);
+        }
+
+        Map<GroupKey, Accumulator> groups = new TreeMap<>();
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE);
+        int scanned = 0;
+
+        while (true) {
+            Slice<ThermalImage> page = thermalImageRepository.findWithAiPredictions(from, to, pageable);
+            List<ThermalImage> images = page.getContent();
+            if (images.isEmpty()) {
+                break;
+            }
+            scanned += images.size();
+
+            List<UUID> imageIds = images.stream().map(ThermalImage::getId).toList();
+            Map<UUID, List<Annotation>> annotationsByImage = annotationRepository
+                .findByThermalImageIdIn(imageIds)
+                .stream()
+                .collect(Collectors.groupingBy(a -> a.getThermalImage().getId()));
+            Map<UUID, String> predictionsByImage = aiPredictionsOf(thermalImageDetectionsRepository, imageIds);
+
+            List<ImageEvaluation> evaluations = runParallel(images, predictionsByImage, annotationsByImage,
+                iouThreshold, reviewedOnly);
+            for (ImageEvaluation evaluation : evaluations) {
+                OffsetDateTime windowStart = windowStart(evaluation.uploadedAt(), resolvedBucket, from);
+                GroupKey key = new GroupKey(evaluation.modelVersion(), windowStart);
+                groups.computeIfAbsent(key, k -> new Accumulator()).add(evaluation);
+            }
+            // The evaluations hold no entities; detach the page so the transaction does not keep every image
+            // and annotation it has read
+            entityManager.clear();
+
+            if (!page.hasNext()) {
+                break;
+            }
+            pageable = page.nextPageable();
+        }
+
+        List<ModelEvaluationReport.Result> results = groups.entrySet().stream()
+            .map(e -> e.getValue().toResult(e.getKey().modelVersion(), e.getKey().windowStart(),
+                windowEnd(e.getKey().windowStart(), resolvedBucket, to)))
+            .toList();
+
+        logger.info("Model evaluation scanned {} images into {} groups (from={}, to={}, bucket={})",
+            scanned, results.size(), from, to, resolvedBucket);
+
+        return new ModelEvaluationReport(from, to, resolvedBucket, iouThreshold, results);
+    }
+
+    private List<ImageEvaluation> runParallel(List<ThermalImage> images, Map<UUID, String> predictionsByImage,
+                                              Map<UUID, List<Annotation>> annotationsByImage,
+                                              double iouThreshold, boolean reviewedOnly) {
+        try {
+            return evaluationPool.submit(() -> images.parallelStream()
+                .map(image -> evaluateImage(image, predictionsByImage.get(image.getId()),
+                    annotationsByImage.getOrDefault(image.getId(), List.of()), iouThreshold, reviewedOnly))
+                .filter(Objects::nonNull)
+                .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Model evaluation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Model evaluation failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private ImageEvaluation evaluateImage(ThermalImage image, String aiPredictions, List<Annotation> annotations,
+                                          double iouThreshold, boolean reviewedOnly) {
+        List<Box> predictions = aiBoxes(image.getId(), aiPredictions).orElse(List.of());
+        List<Box> truths = annotations.stream()
+            .filter(a -> !Boolean.TRUE.equals(a.getIsDeleted()))
+            .map(a -> new Box(normalizeClass(a.getDetectionClass()), 1.0, a.getX(), a.getY(), a.getWidth(), a.getHeight()))
+            .toList();
+
+        if (reviewedOnly && !isReviewed(annotations, predictions.size())) {
+            return null;
+        }
+
+        List<Box> byConfidence = new ArrayList<>(predictions);
+        byConfidence.sort(Comparator.comparingDouble(Box::confidence).reversed());
+
+        // Class-aware matching drives precision, recall and AP
+        List<ScoredPrediction> scored = new ArrayList<>(byConfidence.size());
+        boolean[] matched = new boolean[truths.size()];
+        for (Box prediction : byConfidence) {
+            int best = bestMatch(prediction, truths, matched, iouThreshold, true);
+            if (best >= 0) {
+                matched[best] = true;
+            }
+            scored.add(new ScoredPrediction(prediction.detectionClass(), prediction.confidence(), best >= 0));
+        }
+
+        Map<String, Integer> truthCounts = new HashMap<>();
+        for (Box truth : truths) {
+            truthCounts.merge(truth.detectionClass(), 1, Integer::sum);
+        }
+
+        // Class-agnostic matching drives the confusion matrix (which class the AI confused it with)
+        Map<String, Map<String, Long>> confusion = new HashMap<>();
+        boolean[] localized = new boolean[truths.size()];
+        for (Box prediction : byConfidence) {
+            int best = bestMatch(prediction, truths, localized, iouThreshold, false);
+            String truthClass = BACKGROUND;
+            if (best >= 0) {
+                localized[best] = true;
+                truthClass = truths.get(best).detectionClass();
+            }
+            confusion.computeIfAbsent(truthClass, k -> new HashMap<>()).merge(prediction.detectionClass(), 1L, Long::sum);
+        }
+        for (int i = 0; i < truths.size(); i++) {
+            if (!localized[i]) {
+                confusion.computeIfAbsent(truths.get(i).detectionClass(), k -> new HashMap<>()).merge(BACKGROUND, 1L, Long::sum);
+            }
+        }
+
+        String modelVersion = image.getModelVersion() != null ? image.getModelVersion() : UNKNOWN_MODEL_VERSION;
+        return new ImageEvaluation(modelVersion, image.getUploadedAt(), scored, truthCounts, confusion);
+    }
+
+    /**
+     * An image counts as reviewed once a user added, edited or deleted a box, or once the set of
+     * AI boxes no longer matches the prediction snapshot (sync drops deleted AI boxes outright).
+     */
+    private boolean isReviewed(List<Annotation> annotations, int predictionCount) {
+        long liveAiBoxes = 0;
+        for (Annotation annotation : annotations) {
+            if (!"ai_detected".equals(annotation.getAnnotationType())) {
+                return true;
+            }
+            if (!Boolean.TRUE.equals(annotation.getIsDeleted())) {
+                liveAiBoxes++;
+            }
+        }
+        return liveAiBoxes != predictionCount;
+    }
+
+    private int bestMatch(Box prediction, List<Box> truths, boolean[] taken, double iouThreshold, boolean sameClass) {
+        int best = -1;
+        double bestIou = iouThreshold;
+        for (int i = 0; i < truths.size(); i++) {
+            if (taken[i]) {
+                continue;
+            }
+            Box truth = truths.get(i);
+            if (sameClass && !truth.detectionClass().equals(prediction.detectionClass())) {
+                continue;
+            }
+            double iou = iou(prediction, truth);
+            if (iou >= bestIou) {
+                bestIou = iou;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // Boxes use the detector's centre-based x/y, which the annotation canvas keeps as well
+    static double iou(Box a, Box b) {
+        double ax1 = a.x() - a.width() / 2, ay1 = a.y() - a.height() / 2;
+        double bx1 = b.x() - b.width() / 2, by1 = b.y() - b.height() / 2;
+        double interW = Math.min(ax1 + a.width(), bx1 + b.width()) - Math.max(ax1, bx1);
+        double interH = Math.min(ay1 + a.height(), by1 + b.height()) - Math.max(ay1, by1);
+        if (interW <= 0 || interH <= 0) {
+            return 0.0;
+        }
+        double intersection = interW * interH;
+        double union = a.width() * a.height() + b.width() * b.height() - intersection;
+        return union <= 0 ? 0.0 : intersection / union;
+    }
+
+    /**
+     * AI prediction snapshots of the given images by image id; images without one are absent
+     */
+    static Map<UUID, String> aiPredictionsOf(ThermalImageDetectionsRepository repository, Collection<UUID> thermalImageIds) {
+        Map<UUID, String> predictions = new HashMap<>();
+        for (Object[] row : repository.findAiPredictions(thermalImageIds)) {
+            predictions.put((UUID) row[0], (String) row[1]);
+        }
+        return predictions;
+    }
+
+    /**
+     * Boxes of an AI prediction snapshot (the detector's JSON array), shared by evaluation and active-learning
+     * selection so both score the same boxes. Empty when there is no snapshot or it cannot be read.
+     */
+    static Optional<List<Box>> aiBoxes(UUID thermalImageId, String aiPredictions) {
+        if (aiPredictions == null) {
+            return Optional.empty();
+        }
+        try {
+            JsonNode root = PREDICTION_READER.readTree(aiPredictions);
+            if (root == null || !root.isArray()) {
+                return Optional.empty();
+            }
+            List<Box> boxes = new ArrayList<>(root.size());
+            for (JsonNode node : root) {
+                boxes.add(new Box(
+                    normalizeClass(node.path("class").asText("unknown")),
+                    node.path("confidence").asDouble(0.0),
+                    node.path("x").asDouble(0.0),
+                    node.path("y").asDouble(0.0),
+                    node.path("width").asDouble(0.0),
+                    node.path("height").asDouble(0.0)));
+            }
+            return Optional.of(boxes);
+        } catch (Exception e) {
+            logger.warn("Unreadable AI predictions for thermal image {}: {}", thermalImageId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    static String normalizeClass(String detectionClass) {
+        if (detectionClass == null || detectionClass.isBlank()) {
+            return "unknown";
+        }
+        return detectionClass.trim().toLowerCase().replaceAll("[\\s-]+", "_");
+    }
+
+    private OffsetDateTime windowStart(OffsetDateTime uploadedAt, String bucket, OffsetDateTime from) {
+        OffsetDateTime utc = uploadedAt.withOffsetSameInstant(ZoneOffset.UTC);
+        return switch (bucket) {
+            case "day" -> utc.truncatedTo(ChronoUnit.DAYS);
+            case "week" -> utc.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "month" -> utc.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+            default -> from;
+        };
+    }
+
+    private OffsetDateTime windowEnd(OffsetDateTime windowStart, String bucket, OffsetDateTime to) {
+        return switch (bucket) {
+            case "day" -> windowStart.plusDays(1);
+            case "week" -> windowStart.plusWeeks(1);
+            case "month" -> windowStart.plusMonths(1);
+            default -> to;
+        };
+    }
+
+    record Box(String detectionClass, double confidence, double x, double y, double width, double height) {}
+
+    private record ScoredPrediction(String detectionClass, double confidence, boolean truePositive) {}
+
+    private record ImageEvaluation(String modelVersion, OffsetDateTime uploadedAt, List<ScoredPrediction> predictions,
+                                   Map<String, Integer> truthCounts, Map<String, Map<String, Long>> confusion) {}
+
+    private record GroupKey(String modelVersion, OffsetDateTime windowStart) implements Comparable<GroupKey> {
+        @Override
+        public int compareTo(GroupKey other) {
+            int byVersion = modelVersion.compareTo(other.modelVersion);
+            return byVersion != 0 ? byVersion : windowStart.compareTo(other.windowStart);
+        }
+    }
+
+    /**
+     * Merged counts for one (model version, window) group. Predictions are kept per class so AP can be
+     * computed over the globally confidence-ranked list rather than averaged per image.
+     */
+    private static class Accumulator {
+        private int images;
+        private final Map<String, List<ScoredPrediction>> predictionsByClass = new HashMap<>();
+        private final Map<String, Integer> truthCounts = new HashMap<>();
+        private final Map<String, Map<String, Long>> confusion = new TreeMap<>();
+
+        void add(ImageEvaluation evaluation) {
+            images++;
+            for (ScoredPrediction prediction : evaluation.predictions()) {
+                predictionsByClass.computeIfAbsent(prediction.detectionClass(), k -> new ArrayList<>()).add(prediction);
+            }
+            evaluation.truthCounts().forEach((cls, count) -> truthCounts.merge(cls, count, Integer::sum));
+            evaluation.confusion().forEach((truthClass, row) -> row.forEach((predictedClass, count) ->
+                confusion.computeIfAbsent(truthClass, k -> new TreeMap<>()).merge(predictedClass, count, Long::sum)));
+        }
+
+        ModelEvaluationReport.Result toResult(String modelVersion, OffsetDateTime windowStart, OffsetDateTime windowEnd) {
+            Set<String> classes = new TreeSet<>(truthCounts.keySet());
+            classes.addAll(predictionsByClass.keySet());
+
+            Map<String, ModelEvaluationReport.ClassMetrics> perClass = new LinkedHashMap<>();
+            int totalTp = 0, totalFp = 0, totalGt = 0, totalPredictions = 0;
+            double apSum = 0;
+            int apClasses = 0;
+
+            for (String cls : classes) {
+                List<ScoredPrediction> predictions = predictionsByClass.getOrDefault(cls, List.of());
+                int gt = truthCounts.getOrDefault(cls, 0);
+                int tp = (int) predictions.stream().filter(ScoredPrediction::truePositive).count();
+                int fp = predictions.size() - tp;
+                double ap = averagePrecision(predictions, gt);
+
+                perClass.put(cls, new ModelEvaluationReport.ClassMetrics(
+                    gt, tp, fp, gt - tp, ratio(tp, tp + fp), ratio(tp, gt), ap));
+
+                totalTp += tp;
+                totalFp += fp;
+                totalGt += gt;
+                totalPredictions += predictions.size();
+                if (gt > 0) {
+                    apSum += ap;
+                    apClasses++;
+                }
+            }
+
+            return new ModelEvaluationReport.Result(
+                modelVersion, windowStart, windowEnd, images, totalPredictions, totalGt,
+                totalTp, totalFp, totalGt - totalTp,
+                ratio(totalTp, totalTp + totalFp), ratio(totalTp, totalGt),
+                apClasses > 0 ? apSum / apClasses : 0.0,
+                perClass, confusion);
+        }
+
+        // All-point interpolated AP over the confidence-ranked predictions of one class
+        private static double averagePrecision(List<ScoredPrediction> predictions, int groundTruths) {
+            if (groundTruths == 0 || predictions.isEmpty()) {
+                return 0.0;
+            }
+            List<ScoredPrediction> ranked = new ArrayList<>(predictions);
+            ranked.sort(Comparator.comparingDouble(ScoredPrediction::confidence).reversed());
+
+            int n = ranked.size();
+            double[] precision = new double[n];
+            double[] recall = new double[n];
+            int tp = 0;
+            for (int i = 0; i < n; i++) {
+                if (ranked.get(i).truePositive()) {
+                    tp++;
+                }
+                precision[i] = (double) tp / (i + 1);
+                recall[i] = (double) tp / groundTruths;
+            }
+            for (int i = n - 2; i >= 0; i--) {
+                precision[i] = Math.max(precision[i], precision[i + 1]);
+            }
+            double ap = 0.0;
+            double previousRecall = 0.0;
+            for (int i = 0; i < n; i++) {
+                ap += (recall[i] - previousRecall) * precision[i];
+                previousRecall = recall[i];
+            }
+            return ap;
+        }
+
+        private static double ratio(int numerator, int denominator) {
+            return denominator == 0 ? 0.0 : (double) numerator / denominator;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.dto.BatchUploadStatus;
+import com.example.transformermanagement.dto.RetrainingCandidate;
+import com.example.transformermanagement.model.UploadOutboxEntry;
+import com.example.transformermanagement.repository.UploadOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * Background batch uploads to Roboflow.
+ * A batch is a set of upload outbox rows sharing a batchId; UploadOutboxWorker drains them with bounded
+ * parallelism under the API rate limit, so the calling request returns immediately with a job handle and
+ * progress survives restarts. Training is held back for the duration of a batch and requested once when it completes.
+ */
+@Service
+public class RoboflowBatchUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoboflowBatchUploadService.class);
+
+    @Autowired
+    private UploadOutboxRepository uploadOutboxRepository;
+
+    @Autowired
+    private ActiveLearningService activeLearningService;
+
+    @Autowired
+    private TrainingTriggerService trainingTriggerService;
+
+    /**
+     * Queue multiple images with their annotations for upload
+     * 
+     * @param thermalImageIds List of thermal image IDs to upload
+     * @param split Dataset split: "train", "valid", or "test"
+     * @return The job, whose status can be polled via getJob
+     */
+    @Transactional
+    public BatchUploadStatus startBatchUpload(List<UUID> thermalImageIds, String split) {
+        UUID batchId = UUID.randomUUID();
+        List<UploadOutboxEntry> entries = new LinkedHashSet<>(thermalImageIds).stream()
+            .map(id -> newEntry(id, split, batchId))
+            .toList();
+        uploadOutboxRepository.saveAll(entries);
+
+        if (!entries.isEmpty()) {
+            trainingTriggerService.beginBatch(batchId);
+        }
+        logger.info("Batch upload job {} queued {} images (split={})", batchId, entries.size(), split);
+        return toStatus(batchId, entries);
+    }
+
+    /**
+     * Enqueue a single image upload as part of the caller's transaction (e.g. an annotation change).
+     * Coalesces with an upload for the same image that is still waiting to be picked up.
+     */
+    @Transactional
+    public void enqueue(UUID thermalImageId, String split) {
+        if (uploadOutboxRepository.existsByThermalImageIdAndSplitAndStatusAndBatchIdIsNull(
+                thermalImageId, split, UploadOutboxEntry.PENDING)) {
+            return;
+        }
+        uploadOutboxRepository.save(newEntry(thermalImageId, split, null));
+    }
+
+    /**
+     * Queue the most informative user-corrected images (see ActiveLearningService), capped at the selection budget
+     * 
+     * @param split Dataset split: "train", "valid", or "test"
+     * @param budget Maximum number of images to upload this cycle (null uses retraining.selection.budget)
+     * @return Summary including the job ID and the selected candidates
+     */
+    @Transactional
+    public Map<String, Object> uploadUserCorrectedAnnotations(String split, Integer budget) {
+        logger.info("Selecting thermal images with user corrections for retraining...");
+        
+        List<RetrainingCandidate> selected = activeLearningService.selectForRetraining(budget);
+        List<UUID> thermalImageIds = selected.stream()
+            .map(RetrainingCandidate::thermalImageId)
+            .toList();
+        
+        logger.info("Selected {} thermal images with user corrections", thermalImageIds.size());
+        
+        Map<String, Object> result = new HashMap<>();
+        if (thermalImageIds.isEmpty()) {
+            result.put("message", "No user-corrected annotations found");
+            result.put("total", 0);
+            return result;
+        }
+
+        BatchUploadStatus job = startBatchUpload(thermalImageIds, split);
+        result.put("jobId", job.jobId());
+        result.put("total", job.total());
+        result.put("split", split);
+        result.put("selected", selected);
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<BatchUploadStatus> getJob(UUID jobId) {
+        List<UploadOutboxEntry> entries = uploadOutboxRepository.findByBatchIdOrderByCreatedAt(jobId);
+        return entries.isEmpty() ? Optional.empty() : Optional.of(toStatus(jobId, entries));
+    }
+
+    /**
+     * Cancel images that have not been picked up yet. Uploads already in flight finish normally.
+     */
+    @Transactional
+    public Optional<BatchUploadStatus> cancelJob(UUID jobId) {
+        int cancelled = uploadOutboxRepository.cancelPending(jobId, OffsetDateTime.now());
+        logger.info("Cancelled {} pending uploads of batch upload job {}", cancelled, jobId);
+        settleIfFinished(jobId);
+        return getJob(jobId);
+    }
+
+    /**
+     * Close the batch once none of its entries is pending or leased any more, requesting one training run if
+     * something new reached the dataset (entries skipped as unchanged are DONE too but sent nothing).
+     * Called whenever entries of a batch settle; closing is idempotent, so racing callers are fine.
+     */
+    public void settleIfFinished(UUID batchId) {
+        for (Object[] row : uploadOutboxRepository.countByStatusForBatch(batchId)) {
+            String status = (String) row[0];
+            if (UploadOutboxEntry.PENDING.equals(status) || UploadOutboxEntry.LEASED.equals(status)) {
+                return;
+            }
+        }
+        boolean anyChanged = uploadOutboxRepository.countChangedInBatch(batchId, UploadOutboxEntry.UNCHANGED_NOTE) > 0;
+        trainingTriggerService.endBatch(batchId, anyChanged);
+        logger.info("Batch upload job {} completed", batchId);
+    }
+
+    private UploadOutboxEntry newEntry(UUID thermalImageId, String split, UUID batchId) {
+        UploadOutboxEntry entry = new UploadOutboxEntry();
+        entry.setThermalImageId(thermalImageId);
+        entry.setSplit(split != null ? split : "train");
+        entry.setBatchId(batchId);
+        return entry;
+    }
+
+    private BatchUploadStatus toStatus(UUID batchId, List<UploadOutboxEntry> entries) {
+        int pending = 0, succeeded = 0, failed = 0, cancelled = 0;
+        List<BatchUploadStatus.Item> items = new ArrayList<>(entries.size());
+        for (UploadOutboxEntry e : entries) {
+            switch (e.getStatus()) {
+                case UploadOutboxEntry.DONE -> succeeded++;
+                case UploadOutboxEntry.FAILED -> failed++;
+                case UploadOutboxEntry.CANCELLED -> cancelled++;
+                default -> pending++;
+            }
+            items.add(new BatchUploadStatus.Item(e.getThermalImageId(), e.getStatus(), e.getAttempts(),
+                e.getRoboflowId(), e.getLastError(), e.getUpdatedAt()));
+        }
+        String status = pending > 0 ? "RUNNING" : (cancelled > 0 ? "CANCELLED" : "COMPLETED");
+        int total = entries.size();
+        double progress = total == 0 ? 1.0 : (double) (total - pending) / total;
+        return new BatchUploadStatus(batchId, status, total, pending, succeeded, failed, cancelled, progress, items);
+    }
+}
@@ -28,11 +28,18 @@ import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 /**
@@ -55,6 +62,15 @@ public class RoboflowDatasetService {
     @Autowired
     private AnnotationRepository annotationRepository;
     
+    @Autowired
+    private RoboflowRequestScheduler requestScheduler;
+    
+    @Autowired
+    private TrainingTriggerService trainingTriggerService;
+    
+    @Autowired
+    private ImageMetadataService imageMetadataService;
+    
     @Value("${file.upload-dir}")
     private String uploadDir;
     
@@ -91,12 +107,117 @@ public class RoboflowDatasetService {
 
     /**
      * Upload a single thermal image with its corrected annotations to Roboflow
+     * The annotate call runs in the background through RoboflowRequestScheduler (retried without blocking)
      * 
      * @param thermalImageId The ID of the thermal image to upload
      * @param split Dataset split: "train", "valid", or "test" (default: "train")
      * @return Response from Roboflow API
      */
     public JsonNode uploadImageWithAnnotations(UUID thermalImageId, String split) throws IOException, InterruptedException {
+        String contentHash = computeContentHash(thermalImageId);
+        long revision = currentRevision(thermalImageId);
+        String annotationHash = computeAnnotationHash(thermalImageId);
+        JsonNode uploadResponse = uploadAnnotatedImage(thermalImageId, split);
+        String remoteId = uploadResponse.path("id").asText(null);
+        recordSyncState(thermalImageId, remoteId, contentHash, null, null);
+
+        annotateUploadedImage(thermalImageId, uploadResponse).whenComplete((annotateResp, e) -> {
+            if (e != null) {
+                logger.error("Annotate failed for thermal image {}: {}", thermalImageId, e.getMessage());
+            } else if (annotateResp != null) {
+                recordSyncState(thermalImageId, remoteId, contentHash, annotationHash, revision);
+            }
+        });
+
+        // Coalesced: many uploads in a short window result in a single training run
+        trainingTriggerService.requestTraining();
+
+        return uploadResponse;
+    }
+
+    /**
+     * Outcome of an incremental sync; uploaded/annotated tell which Roboflow calls were actually made
+     */
+    public record SyncResult(String roboflowId, String contentHash, String annotationHash, boolean uploaded, boolean annotated) {}
+
+    /**
+     * Incremental sync of one image against its recorded sync state:
+     * - image bytes unchanged and the remote item known: no upload
+     * - annotation set unchanged since it was last applied: no annotate call
+     * State is recorded per step, so a failed annotate is retried on the next sync without re-uploading the image.
+     */
+    public CompletableFuture<SyncResult> syncImage(UUID thermalImageId, String split) {
+        ThermalImage thermalImage;
+        String contentHash;
+        long revision;
+        String annotationHash;
+        try {
+            thermalImage = thermalImageRepository.findById(thermalImageId)
+                .orElseThrow(() -> new RuntimeException("Thermal image not found: " + thermalImageId));
+            contentHash = computeContentHash(thermalImageId);
+            revision = currentRevision(thermalImageId);
+            annotationHash = computeAnnotationHash(thermalImageId);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        boolean imageUnchanged = thermalImage.getRoboflowImageId() != null
+            && contentHash.equals(thermalImage.getRoboflowContentHash());
+        boolean annotationsUnchanged = annotationHash.equals(thermalImage.getRoboflowAnnotationHash());
+
+        if (imageUnchanged && annotationsUnchanged) {
+            logger.info("Thermal image {} already in sync with Roboflow item {}", thermalImageId, thermalImage.getRoboflowImageId());
+            if (!Objects.equals(thermalImage.getRoboflowSyncedRevision(), revision)) {
+                // Edited back to what was synced; the retraining selection can skip it again
+                recordSyncState(thermalImageId, thermalImage.getRoboflowImageId(), contentHash, annotationHash, revision);
+            }
+            return CompletableFuture.completedFuture(
+                new SyncResult(thermalImage.getRoboflowImageId(), contentHash, annotationHash, false, false));
+        }
+
+        CompletableFuture<JsonNode> upload;
+        if (imageUnchanged) {
+            logger.info("Thermal image {} unchanged; re-annotating Roboflow item {} only", thermalImageId, thermalImage.getRoboflowImageId());
+            upload = CompletableFuture.completedFuture(
+                objectMapper.createObjectNode().put("id", thermalImage.getRoboflowImageId()));
+        } else {
+            upload = requestScheduler.submit("Upload " + thermalImageId, () -> {
+                JsonNode uploadResponse = uploadAnnotatedImage(thermalImageId, split);
+                recordSyncState(thermalImageId, uploadResponse.path("id").asText(null), contentHash, null, null);
+                return uploadResponse;
+            });
+        }
+
+        return upload.thenCompose(uploadResponse -> {
+            String remoteId = uploadResponse.path("id").asText(null);
+            return annotateUploadedImage(thermalImageId, uploadResponse).thenApply(annotateResp -> {
+                boolean annotated = annotateResp != null;
+                if (annotated) {
+                    recordSyncState(thermalImageId, remoteId, contentHash, annotationHash, revision);
+                }
+                return new SyncResult(remoteId, contentHash, annotationHash, !imageUnchanged, annotated);
+            });
+        });
+    }
+
+    /**
+     * @param annotationRevision revision the applied annotations were read at; null (with annotationHash) until annotated
+     */
+    private void recordSyncState(UUID thermalImageId, String remoteId, String contentHash, String annotationHash,
+                                 Long annotationRevision) {
+        thermalImageRepository.updateRoboflowSyncState(thermalImageId, remoteId, contentHash, annotationHash,
+            annotationRevision, OffsetDateTime.now());
+    }
+
+    // Read before the annotations are hashed, so a concurrent edit leaves the recorded revision behind, never ahead
+    private long currentRevision(UUID thermalImageId) {
+        return thermalImageRepository.findAnnotationRevision(thermalImageId).orElse(0L);
+    }
+
+    /**
+     * Validate that the image has annotations and a file on disk, then upload the image bytes
+     */
+    public JsonNode uploadAnnotatedImage(UUID thermalImageId, String split) throws IOException {
         logger.info("Starting upload to Roboflow for thermal image: {}", thermalImageId);
         
         // Get thermal image
@@ -126,55 +247,80 @@ public class RoboflowDatasetService {
         JsonNode uploadResponse = uploadImage(thermalImageId, split);
         boolean duplicate = uploadResponse.path("duplicate").asBoolean(false);
         logger.info("Upload completed. duplicate={} id={}", duplicate, uploadResponse.path("id").asText(null));
-        JsonNode annotateResp = null;
-        // Optionally annotate the image immediately so labels are applied/updated
-        if (roboflowAutoAnnotate) {
-            // Prefer the item ID returned by upload response; fallback to property if absent
-            String imageItemId = uploadResponse.path("id").asText(null);
-            if (imageItemId == null || imageItemId.isBlank()) {
-                imageItemId = (roboflowAnnotatePath != null && !roboflowAnnotatePath.isBlank()) ? roboflowAnnotatePath : null;
-            }
+        return uploadResponse;
+    }
 
-            logger.info("Auto-annotate enabled. file={} using imageItemId={}", fileName, (imageItemId != null ? imageItemId : "<unset>"));
-
-            if (imageItemId == null) {
-                logger.warn("No image item ID available for annotation (upload response did not include 'id' and no 'roboflow.annotatePath' set). Skipping annotation.");
-            } else {
-                int attempts = 0;
-                int maxAttempts = 3;
-                long backoffMs = 1000;
-
-                Exception lastError = null;
-                while (attempts < maxAttempts) {
-                    try {
-                        attempts++;
-                        annotateResp = uploadAnnotation(thermalImageId, imageItemId);
-                        logger.info("Annotate success on attempt {}: status={}, response={}", attempts, annotateResp.path("status").asText(""), annotateResp.toString());
-                        break; // success
-                    } catch (Exception e) {
-                        lastError = e;
-                        logger.warn("Annotate attempt {}/{} failed: {}", attempts, maxAttempts, e.getMessage(), e);
-                        if (attempts < maxAttempts) {
-                            Thread.sleep(backoffMs);
-                            backoffMs *= 2; // exponential backoff
-                        } else {
-                            logger.error("Annotate failed after {} attempts. Proceeding without blocking upload.");
-                        }
-                    }
-                }
+    /**
+     * Apply our annotations to an image that was just uploaded, if auto-annotate is enabled.
+     * Retries are scheduled by RoboflowRequestScheduler; completes with null when annotation is skipped.
+     */
+    public CompletableFuture<JsonNode> annotateUploadedImage(UUID thermalImageId, JsonNode uploadResponse) {
+        if (!roboflowAutoAnnotate) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // Prefer the item ID returned by upload response; fallback to property if absent
+        String imageItemId = uploadResponse.path("id").asText(null);
+        if (imageItemId == null || imageItemId.isBlank()) {
+            imageItemId = (roboflowAnnotatePath != null && !roboflowAnnotatePath.isBlank()) ? roboflowAnnotatePath : null;
+        }
+
+        logger.info("Auto-annotate enabled. thermalImageId={} using imageItemId={}", thermalImageId, (imageItemId != null ? imageItemId : "<unset>"));
+
+        if (imageItemId == null) {
+            logger.warn("No image item ID available for annotation (upload response did not include 'id' and no 'roboflow.annotatePath' set). Skipping annotation.");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String itemId = imageItemId;
+        return requestScheduler.submit("Annotate " + thermalImageId, () -> {
+            JsonNode annotateResp = uploadAnnotation(thermalImageId, itemId);
+            logger.info("Annotate success: status={}, response={}", annotateResp.path("status").asText(""), annotateResp.toString());
+            return annotateResp;
+        });
+    }
+
+    /**
+     * SHA-256 of the image file bytes, streamed from disk
+     */
+    public String computeContentHash(UUID thermalImageId) throws IOException {
+        ThermalImage thermalImage = thermalImageRepository.findById(thermalImageId)
+            .orElseThrow(() -> new RuntimeException("Thermal image not found: " + thermalImageId));
+        String fileName = thermalImage.getImageUrl().substring(thermalImage.getImageUrl().lastIndexOf('/') + 1);
+        Path imagePath = Paths.get(uploadDir, fileName);
+        MessageDigest digest = sha256();
+        try (InputStream in = Files.newInputStream(imagePath)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
             }
         }
+        return HexFormat.of().formatHex(digest.digest());
+    }
 
-        try {
-            JsonNode response = triggerModelTraining();
-            System.out.println("Training Trigger Response:");
-            System.out.println(response.toPrettyString());
-        } catch (Exception e) {
-            System.err.println("Error triggering training: " + e.getMessage());
-            e.printStackTrace();
+    /**
+     * SHA-256 of the live annotation set, independent of row order and IDs
+     */
+    public String computeAnnotationHash(UUID thermalImageId) {
+        List<String> lines = annotationRepository.findByThermalImageIdAndNotDeleted(thermalImageId).stream()
+            .map(a -> String.format(Locale.ROOT, "%s|%.3f|%.3f|%.3f|%.3f",
+                a.getDetectionClass(), a.getX(), a.getY(), a.getWidth(), a.getHeight()))
+            .sorted()
+            .toList();
+        MessageDigest digest = sha256();
+        for (String line : lines) {
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
         }
+        return HexFormat.of().formatHex(digest.digest());
+    }
 
-        return uploadResponse;
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     /**
@@ -442,80 +588,6 @@ public class RoboflowDatasetService {
             if (connection != null) connection.disconnect();
         }
     }
-    /**
-     * Upload multiple images with their annotations (batch upload)
-     * 
-     * @param thermalImageIds List of thermal image IDs to upload
-     * @param split Dataset split: "train", "valid", or "test"
-     * @return Summary of upload results
-     */
-    public Map<String, Object> batchUploadImages(List<UUID> thermalImageIds, String split) {
-        Map<String, Object> results = new HashMap<>();
-        int successCount = 0;
-        int failureCount = 0;
-        
-        for (UUID imageId : thermalImageIds) {
-            try {
-                JsonNode response = uploadImageWithAnnotations(imageId, split);
-                successCount++;
-                logger.info("Successfully uploaded thermal image: {}", imageId);
-            } catch (Exception e) {
-                failureCount++;
-                logger.error("Failed to upload thermal image {}: {}", imageId, e.getMessage());
-            }
-        }
-        
-        results.put("total", thermalImageIds.size());
-        results.put("success", successCount);
-        results.put("failure", failureCount);
-        results.put("split", split);
-        
-        logger.info("Batch upload completed: {} success, {} failure", successCount, failureCount);
-        
-        return results;
-    }
-
-    /**
-     * Upload all user-edited or user-added annotations for retraining
-     * Only uploads images with user corrections (not pure AI detections)
-     * 
-     * @param split Dataset split: "train", "valid", or "test"
-     * @return Summary of upload results
-     */
-    public Map<String, Object> uploadUserCorrectedAnnotations(String split) {
-        logger.info("Finding all thermal images with user corrections...");
-        
-        // Get all annotations that are user-added or user-edited
-        List<Annotation> userAnnotations = annotationRepository.findUserCorrectedAnnotations();
-        
-        // Get unique thermal image IDs
-        List<UUID> thermalImageIds = userAnnotations.stream()
-            .map(a -> a.getThermalImage().getId())
-            .distinct()
-            .toList();
-        
-        logger.info("Found {} thermal images with user corrections", thermalImageIds.size());
-        
-        if (thermalImageIds.isEmpty()) {
-            Map<String, Object> result = new HashMap<>();
-            result.put("message", "No user-corrected annotations found");
-            result.put("total", 0);
-            return result;
-        }
-
-        try {
-            JsonNode response = triggerModelTraining();
-            System.out.println("Training Trigger Response:");
-            System.out.println(response.toPrettyString());
-        } catch (Exception e) {
-            System.err.println("Error triggering training: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        // Batch upload
-        return batchUploadImages(thermalImageIds, split);
-    }
-
     /**
      * Export annotations to YOLO format (alternative to Roboflow JSON)
      * YOLO format: <class_id> <x_center> <y_center> <width> <height> (normalized 0-1)
@@ -526,9 +598,10 @@ public class RoboflowDatasetService {
         
         List<Annotation> annotations = annotationRepository.findByThermalImageIdAndNotDeleted(thermalImageId);
         
-        // Get image dimensions (simplified - should use actual image dimensions)
-        double maxX = annotations.stream().mapToDouble(a -> a.getX() + a.getWidth()).max().orElse(1024.0);
-        double maxY = annotations.stream().mapToDouble(a -> a.getY() + a.getHeight()).max().orElse(768.0);
+        // Real dimensions from the image header, captured at upload
+        ImageMetadataService.ImageMetadata metadata = imageMetadataService.metadataOf(thermalImage);
+        double imageWidth = metadata.width();
+        double imageHeight = metadata.height();
         
         StringBuilder yoloFormat = new StringBuilder();
         
@@ -541,14 +614,8 @@ public class RoboflowDatasetService {
         for (Annotation ann : annotations) {
             int classId = classMapping.getOrDefault(ann.getDetectionClass(), 0);
             
-            // Convert to YOLO format (normalized center coordinates)
-            double xCenter = (ann.getX() + ann.getWidth() / 2) / maxX;
-            double yCenter = (ann.getY() + ann.getHeight() / 2) / maxY;
-            double width = ann.getWidth() / maxX;
-            double height = ann.getHeight() / maxY;
-            
-            yoloFormat.append(String.format("%d %.6f %.6f %.6f %.6f%n", 
-                classId, xCenter, yCenter, width, height));
+            // Annotation x/y already is the box centre; normalize it to the image size
+            yoloFormat.append(BoundingBox.of(ann).toYoloLine(classId, imageWidth, imageHeight));
         }
         
         return yoloFormat.toString();
@@ -601,29 +668,5 @@ public class RoboflowDatasetService {
 //        return objectMapper.readTree(response.body());
 //    }
 
-    public JsonNode triggerModelTraining() throws IOException, InterruptedException {
-        // Use the Python microservice URL (adjust host/port if running in Docker Compose)
-        String trainerServiceUrl = "http://localhost:8000/train";
-
-        logger.info("Triggering model training via Python microservice at: {}", trainerServiceUrl);
-
-        // Empty JSON body (our Python microservice does not require any input for now)
-        ObjectNode requestBody = objectMapper.createObjectNode();
-
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(trainerServiceUrl))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(requestBody.toString()))
-                .build();
-
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-        logger.info("Training trigger response: {} - {}", response.statusCode(), response.body());
-
-        // Returns JSON containing at least: job_id and status
-        return objectMapper.readTree(response.body());
-    }
-
-
 // ...existing code...
 }
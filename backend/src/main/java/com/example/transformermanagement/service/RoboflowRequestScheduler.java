@@ -0,0 +1,124 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.config.WorkerThreads;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs outbound Roboflow calls on a bounded worker pool behind a shared token bucket.
+ *
+ * A worker takes a token just before it makes the call. Nothing here sleeps: when the bucket is empty or a
+ * call fails with an IOException, the next attempt is scheduled on a ScheduledExecutorService (exponential
+ * backoff with full jitter) and the worker thread is released immediately. Other exceptions (missing file, no annotations) are not retried.
+ */
+@Component
+public class RoboflowRequestScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoboflowRequestScheduler.class);
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService scheduler;
+    private final TokenBucket rateLimiter;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+
+    public RoboflowRequestScheduler(
+            @Value("${roboflow.upload.parallelism:4}") int parallelism,
+            @Value("${roboflow.upload.rate-per-second:5}") double ratePerSecond,
+            @Value("${roboflow.upload.burst:10}") int burst,
+            @Value("${roboflow.upload.max-attempts:3}") int maxAttempts,
+            @Value("${roboflow.upload.initial-backoff-ms:1000}") long initialBackoffMs,
+            WorkerThreads workerThreads) {
+        this.workers = Executors.newFixedThreadPool(parallelism, workerThreads.named("roboflow-upload-"));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(workerThreads.named("roboflow-retry-"));
+        this.rateLimiter = new TokenBucket(ratePerSecond, burst);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    public <T> CompletableFuture<T> submit(String label, Callable<T> call) {
+        return submit(label, call, () -> false);
+    }
+
+    /**
+     * @param cancelled checked before every attempt; once true the future completes with CancellationException
+     */
+    public <T> CompletableFuture<T> submit(String label, Callable<T> call, BooleanSupplier cancelled) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(label, call, cancelled, result, 1);
+        return result;
+    }
+
+    private <T> void attempt(String label, Callable<T> call, BooleanSupplier cancelled,
+                             CompletableFuture<T> result, int attempt) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            workers.execute(() -> run(label, call, cancelled, result, attempt));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    // On a worker thread: the token is taken right before the call, so time spent queued for a worker never
+    // counts against the rate and no tokens pile up behind a busy pool
+    private <T> void run(String label, Callable<T> call, BooleanSupplier cancelled,
+                         CompletableFuture<T> result, int attempt) {
+        if (result.isDone()) {
+            return;
+        }
+        if (cancelled.getAsBoolean()) {
+            result.completeExceptionally(new CancellationException(label + " cancelled"));
+            return;
+        }
+
+        long waitNanos = rateLimiter.tryAcquire();
+        if (waitNanos > 0) {
+            schedule(() -> attempt(label, call, cancelled, result, attempt), waitNanos, TimeUnit.NANOSECONDS, result);
+            return;
+        }
+
+        try {
+            result.complete(call.call());
+        } catch (IOException e) {
+            if (attempt < maxAttempts) {
+                long delayMs = backoffWithJitter(attempt);
+                logger.warn("{} attempt {}/{} failed: {}. Retrying in {} ms", label, attempt, maxAttempts, e.getMessage(), delayMs);
+                schedule(() -> attempt(label, call, cancelled, result, attempt + 1), delayMs, TimeUnit.MILLISECONDS, result);
+            } else {
+                logger.error("{} failed after {} attempts: {}", label, attempt, e.getMessage());
+                result.completeExceptionally(e);
+            }
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void schedule(Runnable task, long delay, TimeUnit unit, CompletableFuture<?> result) {
+        try {
+            scheduler.schedule(task, delay, unit);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    // Full jitter: uniform in [0, initial * 2^(attempt-1)]
+    private long backoffWithJitter(int attempt) {
+        long ceiling = initialBackoffMs << Math.min(attempt - 1, 16);
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
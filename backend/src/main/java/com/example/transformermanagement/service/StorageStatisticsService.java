@@ -0,0 +1,50 @@
+package com.example.transformermanagement.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Row count and on-disk data and index size per table, read from MySQL's information_schema.
+ * Used to compare primary and secondary index size before and after id or index changes;
+ * InnoDB's figures are estimates refreshed by ANALYZE TABLE.
+ */
+@Service
+public class StorageStatisticsService {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * @throws IllegalStateException if the database is not MySQL
+     */
+    public List<Map<String, Object>> getTableStatistics() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql")) {
+                throw new IllegalStateException("Storage statistics are only available on MySQL");
+            }
+        }
+        return jdbcTemplate.query(
+            "SELECT TABLE_NAME, TABLE_ROWS, DATA_LENGTH, INDEX_LENGTH FROM information_schema.TABLES " +
+            "WHERE TABLE_SCHEMA = DATABASE() ORDER BY DATA_LENGTH + INDEX_LENGTH DESC",
+            (rs, rowNum) -> {
+                Map<String, Object> table = new LinkedHashMap<>();
+                table.put("table", rs.getString("TABLE_NAME"));
+                table.put("rows", rs.getLong("TABLE_ROWS"));
+                table.put("dataBytes", rs.getLong("DATA_LENGTH"));
+                table.put("indexBytes", rs.getLong("INDEX_LENGTH"));
+                return table;
+            });
+    }
+}
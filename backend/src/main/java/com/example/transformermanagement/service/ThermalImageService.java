@@ -1,22 +1,32 @@
 package com.example.transformermanagement.service;
 
+import com.example.transformermanagement.dto.DetectionEvent;
+import com.example.transformermanagement.dto.KeysetPage;
 import com.example.transformermanagement.model.Annotation;
 import com.example.transformermanagement.model.Inspection;
 import com.example.transformermanagement.model.ThermalImage;
+import com.example.transformermanagement.model.ThermalImageDetections;
 import com.example.transformermanagement.repository.AnnotationRepository;
 import com.example.transformermanagement.repository.InspectionRepository;
+import com.example.transformermanagement.repository.ThermalImageDetectionsRepository;
 import com.example.transformermanagement.repository.ThermalImageRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -31,22 +41,47 @@ public class ThermalImageService {
     @Autowired
     private AnnotationRepository annotationRepository;
 
+    @Autowired
+    private ThermalImageDetectionsRepository thermalImageDetectionsRepository;
+
     @Autowired
     private AnomalyDetectionService anomalyDetectionService;
 
+    @Autowired
+    private ImageMetadataService imageMetadataService;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final Map<String, Class<? extends Comparable<?>>> SORTABLE = Map.of(
+        "uploadedAt", OffsetDateTime.class);
+
     @Value("${file.upload-dir}")
     private String uploadDir;
 
-    public List<ThermalImage> getAllThermalImages() {
-        return thermalImageRepository.findAll();
+    /**
+     * Keyset-paginated list, oldest upload first by default; null filters are ignored
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<ThermalImage> findThermalImages(UUID inspectionId, String imageType,
+                                                      String sort, String direction, String cursor, Integer limit) {
+        Specification<ThermalImage> filter = Specification.<ThermalImage>where(KeysetPager.equalIfPresent("inspection.id", inspectionId))
+            .and(KeysetPager.equalIfPresent("imageType", imageType));
+        KeysetPager.KeysetSort keysetSort = KeysetPager.KeysetSort.of(sort, direction, SORTABLE, "uploadedAt", false);
+        return keysetPager.page(thermalImageRepository, filter, keysetSort, cursor, limit);
     }
 
+    @Transactional(readOnly = true)
     public List<ThermalImage> getThermalImagesByInspectionId(UUID inspectionId) {
-        return thermalImageRepository.findByInspectionId(inspectionId);
+        return thermalImageRepository.findByInspection_Id(inspectionId);
     }
 
+    @Transactional(readOnly = true)
     public List<ThermalImage> getThermalImagesByInspectionIdAndType(UUID inspectionId, String imageType) {
-        return thermalImageRepository.findByInspectionIdAndImageTypeIgnoreCase(inspectionId, imageType);
+        return thermalImageRepository.findByInspection_IdAndImageTypeIgnoreCase(inspectionId, imageType);
     }
 
     public ThermalImage saveThermalImage(UUID inspectionId, ThermalImage thermalImage, MultipartFile file) throws IOException {
@@ -63,152 +98,199 @@ public class ThermalImageService {
         // Public URL served by WebConfig resource handler
         String imageUrl = "/uploads/" + fileName;
         thermalImage.setImageUrl(imageUrl);
+        imageMetadataService.applyTo(thermalImage, destination);
 
         // Save the thermal image first
         ThermalImage savedImage = thermalImageRepository.save(thermalImage);
 
         // If this is a maintenance image, call anomaly detection API
         if ("Maintenance".equalsIgnoreCase(thermalImage.getImageType())) {
+            publishDetectionState(savedImage, DetectionEvent.STARTED, null);
             try {
-                System.out.println("\n🔍 Maintenance image detected - triggering anomaly detection...");
-                JsonNode anomalyResponse = anomalyDetectionService.analyzeMaintenanceImageForAnomalies(imageUrl);
-                System.out.println("✅ Anomaly detection completed successfully!");
-                
-                // Log the full response
-                System.out.println("\n📊 Full Anomaly Detection Response:");
-                System.out.println(anomalyResponse.toPrettyString());
-                
-                // Extract data from response structure: { "outputs": [ {...} ] }
-                JsonNode resultData = null;
-                
-                if (anomalyResponse.has("outputs") && anomalyResponse.get("outputs").isArray()) {
-                    JsonNode outputs = anomalyResponse.get("outputs");
-                    if (!outputs.isEmpty()) {
-                        resultData = outputs.get(0);
-                        System.out.println("✓ Found outputs array, using first element");
-                    }
-                } else {
-                    System.out.println("⚠️ 'outputs' array not found in response");
-                    return savedImage;
+                savedImage = detectAnomalies(savedImage, imageUrl);
+                publishDetectionState(savedImage, DetectionEvent.COMPLETED, null);
+            } catch (Exception e) {
+                // Log error but don't fail the upload
+                System.err.println("❌ Failed to run anomaly detection: " + e.getMessage());
+                e.printStackTrace();
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
                 }
+                publishDetectionState(savedImage, DetectionEvent.FAILED, e.getMessage());
+            }
+        }
+
+        return savedImage;
+    }
+
+    // Calls the detector and stores its detections as legacy JSON, raw predictions and ai_detected annotations
+    private ThermalImage detectAnomalies(ThermalImage savedImage, String imageUrl) throws IOException, InterruptedException {
+        System.out.println("\n🔍 Maintenance image detected - triggering anomaly detection...");
+        JsonNode anomalyResponse = anomalyDetectionService.analyzeMaintenanceImageForAnomalies(imageUrl);
+        System.out.println("✅ Anomaly detection completed successfully!");
+        
+        // Log the full response
+        System.out.println("\n📊 Full Anomaly Detection Response:");
+        System.out.println(anomalyResponse.toPrettyString());
+        
+        // Extract data from response structure: { "outputs": [ {...} ] }
+        JsonNode resultData = null;
+        
+        if (anomalyResponse.has("outputs") && anomalyResponse.get("outputs").isArray()) {
+            JsonNode outputs = anomalyResponse.get("outputs");
+            if (!outputs.isEmpty()) {
+                resultData = outputs.get(0);
+                System.out.println("✓ Found outputs array, using first element");
+            }
+        } else {
+            System.out.println("⚠️ 'outputs' array not found in response");
+            return savedImage;
+        }
+        
+        if (resultData == null) {
+            System.out.println("⚠️ Could not extract result data from response");
+            return savedImage;
+        }
+        
+        // Extract count_objects
+        int countObjects = 0;
+        if (resultData.has("count_objects")) {
+            countObjects = resultData.get("count_objects").asInt();
+            System.out.println("✓ Successfully extracted count_objects: " + countObjects);
+        } else {
+            System.out.println("⚠️ count_objects field not found in outputs[0]");
+        }
+        
+        System.out.println("\n========================================");
+        System.out.println("📈 EXTRACTED DETECTION DATA");
+        System.out.println("========================================");
+        System.out.println("Total Objects Detected: " + countObjects);
+        
+        // Extract individual detections from predictions.predictions array
+        JsonNode predictionsObj = resultData.has("predictions") ? resultData.get("predictions") : null;
+        
+        if (predictionsObj != null && predictionsObj.has("predictions")) {
+            JsonNode detectionsArray = predictionsObj.get("predictions");
+            
+            if (detectionsArray.isArray()) {
+                System.out.println("\n🎯 Individual Detections:");
+                System.out.println("------------------------------------------");
                 
-                if (resultData == null) {
-                    System.out.println("⚠️ Could not extract result data from response");
-                    return savedImage;
+                int detectionIndex = 1;
+                for (JsonNode detection : detectionsArray) {
+                    System.out.println("\nDetection #" + detectionIndex + ":");
+                    
+                    String detectionId = detection.has("detection_id") ? detection.get("detection_id").asText() : "N/A";
+                    String className = detection.has("class") ? detection.get("class").asText() : "N/A";
+                    double confidence = detection.has("confidence") ? detection.get("confidence").asDouble() : 0.0;
+                    double x = detection.has("x") ? detection.get("x").asDouble() : 0.0;
+                    double y = detection.has("y") ? detection.get("y").asDouble() : 0.0;
+                    double width = detection.has("width") ? detection.get("width").asDouble() : 0.0;
+                    double height = detection.has("height") ? detection.get("height").asDouble() : 0.0;
+                    
+                    System.out.println("  ├─ Detection ID: " + detectionId);
+                    System.out.println("  ├─ Class: " + className);
+                    System.out.println("  ├─ Confidence: " + String.format("%.2f%%", confidence * 100));
+                    System.out.println("  ├─ Position: (x=" + x + ", y=" + y + ")");
+                    System.out.println("  └─ Size: (width=" + width + ", height=" + height + ")");
+                    
+                    detectionIndex++;
                 }
                 
-                // Extract count_objects
-                int countObjects = 0;
-                if (resultData.has("count_objects")) {
-                    countObjects = resultData.get("count_objects").asInt();
-                    System.out.println("✓ Successfully extracted count_objects: " + countObjects);
-                } else {
-                    System.out.println("⚠️ count_objects field not found in outputs[0]");
-                }
+                System.out.println("\n------------------------------------------");
+                System.out.println("Total detections processed: " + detectionsArray.size());
                 
-                System.out.println("\n========================================");
-                System.out.println("📈 EXTRACTED DETECTION DATA");
-                System.out.println("========================================");
-                System.out.println("Total Objects Detected: " + countObjects);
+                // Store detection data as JSON string in the database (legacy/backup), together with the
+                // untouched AI snapshot that user edits of the detection data never replace
+                String detectionsJson = detectionsArray.toString();
+                saveDetectionData(savedImage, detectionsJson, detectionsJson);
+                savedImage.setModelVersion(anomalyDetectionService.getModelVersion());
+                savedImage = thermalImageRepository.save(savedImage);
+                System.out.println("✅ Detection data saved to database");
                 
-                // Extract individual detections from predictions.predictions array
-                JsonNode predictionsObj = resultData.has("predictions") ? resultData.get("predictions") : null;
+                // Create Annotation entities for each AI detection (FR3.1 & FR3.2)
+                System.out.println("\n📝 Creating Annotation entities for AI detections...");
                 
-                if (predictionsObj != null && predictionsObj.has("predictions")) {
-                    JsonNode detectionsArray = predictionsObj.get("predictions");
-                    
-                    if (detectionsArray.isArray()) {
-                        System.out.println("\n🎯 Individual Detections:");
-                        System.out.println("------------------------------------------");
-                        
-                        int detectionIndex = 1;
-                        for (JsonNode detection : detectionsArray) {
-                            System.out.println("\nDetection #" + detectionIndex + ":");
-                            
-                            String detectionId = detection.has("detection_id") ? detection.get("detection_id").asText() : "N/A";
-                            String className = detection.has("class") ? detection.get("class").asText() : "N/A";
-                            double confidence = detection.has("confidence") ? detection.get("confidence").asDouble() : 0.0;
-                            double x = detection.has("x") ? detection.get("x").asDouble() : 0.0;
-                            double y = detection.has("y") ? detection.get("y").asDouble() : 0.0;
-                            double width = detection.has("width") ? detection.get("width").asDouble() : 0.0;
-                            double height = detection.has("height") ? detection.get("height").asDouble() : 0.0;
-                            
-                            System.out.println("  ├─ Detection ID: " + detectionId);
-                            System.out.println("  ├─ Class: " + className);
-                            System.out.println("  ├─ Confidence: " + String.format("%.2f%%", confidence * 100));
-                            System.out.println("  ├─ Position: (x=" + x + ", y=" + y + ")");
-                            System.out.println("  └─ Size: (width=" + width + ", height=" + height + ")");
-                            
-                            detectionIndex++;
-                        }
-                        
-                        System.out.println("\n------------------------------------------");
-                        System.out.println("Total detections processed: " + detectionsArray.size());
-                        
-                        // Store detection data as JSON string in the database (legacy/backup)
-                        savedImage.setDetectionData(detectionsArray.toString());
-                        savedImage = thermalImageRepository.save(savedImage);
-                        System.out.println("✅ Detection data saved to database");
-                        
-                        // Create Annotation entities for each AI detection (FR3.1 & FR3.2)
-                        System.out.println("\n📝 Creating Annotation entities for AI detections...");
-                        
-                        // Get transformer ID for FR3.2
-                        java.util.UUID transformerId = null;
-                        if (savedImage.getInspection() != null && savedImage.getInspection().getTransformer() != null) {
-                            transformerId = savedImage.getInspection().getTransformer().getId();
-                            System.out.println("  Transformer ID: " + transformerId);
-                        }
+                // Get transformer ID for FR3.2
+                java.util.UUID transformerId = null;
+                if (savedImage.getInspection() != null && savedImage.getInspection().getTransformer() != null) {
+                    transformerId = savedImage.getInspection().getTransformer().getId();
+                    System.out.println("  Transformer ID: " + transformerId);
+                }
+                
+                for (JsonNode detection : detectionsArray) {
+                    try {
+                        Annotation annotation = new Annotation();
+                        annotation.setThermalImage(savedImage);
+                        annotation.setTransformerId(transformerId); // FR3.2
+                        annotation.setDetectionId(detection.has("detection_id") ? detection.get("detection_id").asText() : "ai_" + System.currentTimeMillis());
+                        annotation.setAnnotationType("ai_detected");
+                        annotation.setDetectionClass(detection.has("class") ? detection.get("class").asText() : "unknown");
+                        annotation.setConfidence(detection.has("confidence") ? detection.get("confidence").asDouble() : 0.0);
+                        annotation.setX(detection.has("x") ? detection.get("x").asDouble() : 0.0);
+                        annotation.setY(detection.has("y") ? detection.get("y").asDouble() : 0.0);
+                        annotation.setWidth(detection.has("width") ? detection.get("width").asDouble() : 0.0);
+                        annotation.setHeight(detection.has("height") ? detection.get("height").asDouble() : 0.0);
+                        annotation.setCreatedBy("ai_system");
+                        annotation.setModifiedBy("ai_system");
+                        annotation.setComments("Automatically detected by AI anomaly detection system");
+                        annotation.setIsDeleted(false);
                         
-                        for (JsonNode detection : detectionsArray) {
-                            try {
-                                Annotation annotation = new Annotation();
-                                annotation.setThermalImage(savedImage);
-                                annotation.setTransformerId(transformerId); // FR3.2
-                                annotation.setDetectionId(detection.has("detection_id") ? detection.get("detection_id").asText() : "ai_" + System.currentTimeMillis());
-                                annotation.setAnnotationType("ai_detected");
-                                annotation.setDetectionClass(detection.has("class") ? detection.get("class").asText() : "unknown");
-                                annotation.setConfidence(detection.has("confidence") ? detection.get("confidence").asDouble() : 0.0);
-                                annotation.setX(detection.has("x") ? detection.get("x").asDouble() : 0.0);
-                                annotation.setY(detection.has("y") ? detection.get("y").asDouble() : 0.0);
-                                annotation.setWidth(detection.has("width") ? detection.get("width").asDouble() : 0.0);
-                                annotation.setHeight(detection.has("height") ? detection.get("height").asDouble() : 0.0);
-                                annotation.setCreatedBy("ai_system");
-                                annotation.setModifiedBy("ai_system");
-                                annotation.setComments("Automatically detected by AI anomaly detection system");
-                                annotation.setIsDeleted(false);
-                                
-                                annotationRepository.save(annotation);
-                            } catch (Exception annotationEx) {
-                                System.err.println("⚠️ Failed to create annotation: " + annotationEx.getMessage());
-                            }
-                        }
-                        System.out.println("✅ Annotation entities created successfully");
-                    } else {
-                        System.out.println("⚠️ predictions.predictions is not an array");
+                        annotationRepository.save(annotation);
+                    } catch (Exception annotationEx) {
+                        System.err.println("⚠️ Failed to create annotation: " + annotationEx.getMessage());
                     }
-                } else {
-                    System.out.println("⚠️ No predictions.predictions found in response");
                 }
-                
-                System.out.println("========================================\n");
-
-            } catch (Exception e) {
-                // Log error but don't fail the upload
-                System.err.println("❌ Failed to run anomaly detection: " + e.getMessage());
-                e.printStackTrace();
+                System.out.println("✅ Annotation entities created successfully");
+            } else {
+                System.out.println("⚠️ predictions.predictions is not an array");
             }
+        } else {
+            System.out.println("⚠️ No predictions.predictions found in response");
         }
+        
+        System.out.println("========================================\n");
 
         return savedImage;
     }
 
+    private void publishDetectionState(ThermalImage image, String state, String message) {
+        Inspection inspection = image.getInspection();
+        eventPublisher.publishEvent(new DetectionEvent(image.getId(),
+            inspection != null ? inspection.getId() : null,
+            inspection != null && inspection.getTransformer() != null ? inspection.getTransformer().getId() : null,
+            state, message, OffsetDateTime.now()));
+    }
+
     public ThermalImage updateDetectionData(UUID thermalImageId, String detectionsJson) {
         return thermalImageRepository.findById(thermalImageId)
             .map(thermalImage -> {
-                thermalImage.setDetectionData(detectionsJson);
-                return thermalImageRepository.save(thermalImage);
+                saveDetectionData(thermalImage, detectionsJson, null);
+                return thermalImage;
             })
             .orElse(null);
     }
+
+    /**
+     * Detection JSON of the image, read only when asked for; empty if the image has none
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getDetectionData(UUID thermalImageId) {
+        return thermalImageDetectionsRepository.findDetectionData(thermalImageId);
+    }
+
+    // aiPredictions is only given when the detector ran; null keeps the existing snapshot
+    private void saveDetectionData(ThermalImage thermalImage, String detectionsJson, String aiPredictions) {
+        ThermalImageDetections detections = thermalImageDetectionsRepository.findById(thermalImage.getId())
+            .orElseGet(() -> {
+                ThermalImageDetections created = new ThermalImageDetections();
+                created.setThermalImage(thermalImage);
+                return created;
+            });
+        detections.setDetectionData(detectionsJson);
+        if (aiPredictions != null) {
+            detections.setAiPredictions(aiPredictions);
+        }
+        thermalImageDetectionsRepository.save(detections);
+    }
 }
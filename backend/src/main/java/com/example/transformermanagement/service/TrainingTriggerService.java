@@ -0,0 +1,311 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.config.WorkerThreads;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Talks to the Python retraining microservice and coalesces training requests.
+ *
+ * Uploads call {@link #requestTraining()} instead of POSTing /train themselves. Requests are debounced
+ * (each one pushes the fire time out by the debounce window, capped by a max delay), held back while a
+ * batch upload is in progress, and never fired while the trainer still reports the last job_id as queued.
+ */
+@Service
+public class TrainingTriggerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrainingTriggerService.class);
+
+    @Value("${trainer.base-url:http://localhost:8000}")
+    private String trainerBaseUrl;
+
+    @Value("${training.trigger.debounce-ms:30000}")
+    private long debounceMs;
+
+    @Value("${training.trigger.max-delay-ms:300000}")
+    private long maxDelayMs;
+
+    @Value("${training.trigger.poll-interval-ms:60000}")
+    private long pollIntervalMs;
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService scheduler;
+
+    // Not a monitor: fire() runs on a virtual thread when spring.threads.virtual.enabled=true
+    private final ReentrantLock lock = new ReentrantLock();
+    private int pendingRequests;
+    private long firstPendingNanos;
+    // Batch uploads still in progress; a batch can only be closed once, however many paths see it finish
+    private final Set<UUID> activeBatches = new HashSet<>();
+    private ScheduledFuture<?> scheduledFire;
+
+    private volatile String activeJobId;
+    private volatile String lastJobStatus;
+    private volatile OffsetDateTime lastTriggeredAt;
+    private volatile int lastCoalescedRequests;
+
+    public TrainingTriggerService(WorkerThreads workerThreads) {
+        this.httpClient = HttpClient.newHttpClient();
+        this.objectMapper = new ObjectMapper();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(workerThreads.named("training-trigger-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Ask for a training run "soon". Safe to call once per uploaded image.
+     */
+    public void requestTraining() {
+        lock.lock();
+        try {
+            addPendingLocked();
+            if (activeBatches.isEmpty()) {
+                scheduleFireLocked(debounceMs);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hold back training until {@link #endBatch(UUID, boolean)} is called for this batch.
+     */
+    public void beginBatch(UUID batchId) {
+        lock.lock();
+        try {
+            if (activeBatches.add(batchId)) {
+                cancelScheduledLocked();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close a batch. Only the first call for a batch counts; later ones (and calls for unknown batches) do nothing.
+     *
+     * @param requestTraining true when the batch uploaded anything worth training on
+     */
+    public void endBatch(UUID batchId, boolean requestTraining) {
+        lock.lock();
+        try {
+            if (!activeBatches.remove(batchId)) {
+                return;
+            }
+            if (requestTraining) {
+                addPendingLocked();
+            }
+            if (activeBatches.isEmpty() && pendingRequests > 0) {
+                scheduleFireLocked(0);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Trigger immediately (manual endpoint), unless the previous job is still running.
+     *
+     * @throws IllegalStateException if the trainer reports the last job as still queued
+     */
+    public JsonNode triggerNow() throws IOException, InterruptedException {
+        if (isTrainingRunning()) {
+            throw new IllegalStateException("Training job " + activeJobId + " is still running");
+        }
+        int coalesced;
+        lock.lock();
+        try {
+            coalesced = pendingRequests + 1;
+            pendingRequests = 0;
+            cancelScheduledLocked();
+        } finally {
+            lock.unlock();
+        }
+        return startTraining(coalesced);
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            status.put("pendingRequests", pendingRequests);
+            status.put("activeBatches", activeBatches.size());
+            status.put("scheduled", scheduledFire != null && !scheduledFire.isDone());
+        } finally {
+            lock.unlock();
+        }
+        status.put("activeJobId", activeJobId);
+        status.put("lastJobStatus", lastJobStatus);
+        status.put("lastTriggeredAt", lastTriggeredAt);
+        status.put("lastCoalescedRequests", lastCoalescedRequests);
+        return status;
+    }
+
+    private void fire() {
+        lock.lock();
+        try {
+            scheduledFire = null;
+            if (!activeBatches.isEmpty() || pendingRequests == 0) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (isTrainingRunning()) {
+            logger.info("Training job {} still running; deferring {} pending training request(s)", activeJobId, pendingRequests);
+            lock.lock();
+            try {
+                scheduleFireLocked(pollIntervalMs);
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+
+        int coalesced;
+        lock.lock();
+        try {
+            coalesced = pendingRequests;
+            pendingRequests = 0;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            startTraining(coalesced);
+        } catch (Exception e) {
+            logger.error("Error triggering training: {}", e.getMessage(), e);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            lock.lock();
+            try {
+                pendingRequests += coalesced;
+                scheduleFireLocked(pollIntervalMs);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private JsonNode startTraining(int coalescedRequests) throws IOException, InterruptedException {
+        JsonNode response = triggerModelTraining();
+        activeJobId = response.path("job_id").asText(null);
+        lastJobStatus = response.path("status").asText(null);
+        lastTriggeredAt = OffsetDateTime.now();
+        lastCoalescedRequests = coalescedRequests;
+        logger.info("Coalesced {} training request(s) into trainer job {}", coalescedRequests, activeJobId);
+        return response;
+    }
+
+    /**
+     * Polls the trainer for the last job_id. Clears it once the job has finished or is unknown to the trainer.
+     */
+    private boolean isTrainingRunning() {
+        String jobId = activeJobId;
+        if (jobId == null) {
+            return false;
+        }
+        try {
+            JsonNode status = getTrainingJobStatus(jobId);
+            String state = status.path("status").asText("unknown");
+            lastJobStatus = state;
+            if ("queued".equals(state) || "running".equals(state)) {
+                return true;
+            }
+            activeJobId = null;
+            return false;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            logger.warn("Could not read status of training job {}: {}", jobId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void addPendingLocked() {
+        if (pendingRequests == 0) {
+            firstPendingNanos = System.nanoTime();
+        }
+        pendingRequests++;
+    }
+
+    // Debounce, but never postpone past maxDelayMs after the first pending request
+    private void scheduleFireLocked(long delayMs) {
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - firstPendingNanos);
+        long delay = Math.max(0, Math.min(delayMs, maxDelayMs - waitedMs));
+        cancelScheduledLocked();
+        scheduledFire = scheduler.schedule(this::fire, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelScheduledLocked() {
+        if (scheduledFire != null) {
+            scheduledFire.cancel(false);
+            scheduledFire = null;
+        }
+    }
+
+    public JsonNode triggerModelTraining() throws IOException, InterruptedException {
+        // Use the Python microservice URL (adjust host/port if running in Docker Compose)
+        String trainerServiceUrl = trainerBaseUrl + "/train";
+
+        logger.info("Triggering model training via Python microservice at: {}", trainerServiceUrl);
+
+        // Empty JSON body (our Python microservice does not require any input for now)
+        ObjectNode requestBody = objectMapper.createObjectNode();
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(trainerServiceUrl))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody.toString()))
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        logger.info("Training trigger response: {} - {}", response.statusCode(), response.body());
+
+        // Returns JSON containing at least: job_id and status
+        return objectMapper.readTree(response.body());
+    }
+
+    public JsonNode getTrainingJobStatus(String jobId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(trainerBaseUrl + "/train/" + jobId))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Trainer status returned " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+}
@@ -1,17 +1,22 @@
 package com.example.transformermanagement.service;
 
+import com.example.transformermanagement.dto.KeysetPage;
 import com.example.transformermanagement.model.Transformer;
 import com.example.transformermanagement.repository.TransformerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -20,11 +25,34 @@ public class TransformerService {
     @Autowired
     private TransformerRepository transformerRepository;
 
+    @Autowired
+    private KeysetPager keysetPager;
+
+    @Autowired
+    private BaselineRasterCache baselineRasterCache;
+
+    @Autowired
+    private BulkDeleteService bulkDeleteService;
+
+    private static final Map<String, Class<? extends Comparable<?>>> SORTABLE = Map.of(
+        "transformerNo", String.class,
+        "region", String.class,
+        "createdAt", OffsetDateTime.class);
+
     @Value("${file.upload-dir}")
     private String uploadDir;
 
-    public List<Transformer> getAllTransformers() {
-        return transformerRepository.findAll();
+    /**
+     * Keyset-paginated list, filtered on indexed columns (region, type, status); null filters are ignored
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Transformer> findTransformers(String region, String type, String status,
+                                                    String sort, String direction, String cursor, Integer limit) {
+        Specification<Transformer> filter = Specification.<Transformer>where(KeysetPager.equalIfPresent("region", region))
+            .and(KeysetPager.equalIfPresent("type", type))
+            .and(KeysetPager.equalIfPresent("status", status));
+        KeysetPager.KeysetSort keysetSort = KeysetPager.KeysetSort.of(sort, direction, SORTABLE, "transformerNo", false);
+        return keysetPager.page(transformerRepository, filter, keysetSort, cursor, limit);
     }
 
     public Optional<Transformer> getTransformerById(java.util.UUID id) {
@@ -35,8 +63,11 @@ public class TransformerService {
         return transformerRepository.save(transformer);
     }
 
+    /**
+     * Deletes the transformer with its inspections, images, annotations and alerts; see BulkDeleteService
+     */
     public void deleteTransformer(java.util.UUID id) {
-        transformerRepository.deleteById(id);
+        bulkDeleteService.deleteTransformer(id);
     }
 
     public Transformer uploadBaselineImage(java.util.UUID transformerId, String weatherCondition, MultipartFile file) throws IOException {
@@ -93,6 +124,7 @@ public class TransformerService {
         }
         
         Transformer savedTransformer = transformerRepository.save(transformer);
+        baselineRasterCache.invalidate(transformerId, weatherCondition);
         System.out.println("✅ Transformer saved to database!");
         System.out.println("  - Sunny URL: " + savedTransformer.getSunnyBaselineImageUrl());
         System.out.println("  - Cloudy URL: " + savedTransformer.getCloudyBaselineImageUrl());
@@ -102,6 +134,7 @@ public class TransformerService {
         return savedTransformer;
     }
 
+    @Transactional(readOnly = true)
     public String getBaselineImageUrl(java.util.UUID transformerId, String weatherCondition) {
         System.out.println("\n=== GET BASELINE IMAGE URL ===");
         System.out.println("Transformer ID: " + transformerId);
@@ -119,24 +152,25 @@ public class TransformerService {
         System.out.println("  - Cloudy baseline: " + transformer.getCloudyBaselineImageUrl());
         System.out.println("  - Rainy baseline: " + transformer.getRainyBaselineImageUrl());
         
-        String imageUrl = null;
-        switch (weatherCondition.toLowerCase()) {
-            case "sunny":
-                imageUrl = transformer.getSunnyBaselineImageUrl();
-                break;
-            case "cloudy":
-                imageUrl = transformer.getCloudyBaselineImageUrl();
-                break;
-            case "rainy":
-                imageUrl = transformer.getRainyBaselineImageUrl();
-                break;
-            default:
-                System.out.println("ERROR: Invalid weather condition: " + weatherCondition);
-                return null;
-        }
+        String imageUrl = baselineUrlFor(transformer, weatherCondition);
         
         System.out.println("Returning image URL: " + imageUrl);
         System.out.println("=== END ===\n");
         return imageUrl;
     }
+
+    /**
+     * Baseline image URL matching the weather condition (case-insensitive); null if none uploaded or the condition is unknown
+     */
+    public static String baselineUrlFor(Transformer transformer, String weatherCondition) {
+        if (transformer == null || weatherCondition == null) {
+            return null;
+        }
+        return switch (weatherCondition.toLowerCase()) {
+            case "sunny" -> transformer.getSunnyBaselineImageUrl();
+            case "cloudy" -> transformer.getCloudyBaselineImageUrl();
+            case "rainy" -> transformer.getRainyBaselineImageUrl();
+            default -> null;
+        };
+    }
 }
@@ -0,0 +1,118 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.config.WorkerThreads;
+import com.example.transformermanagement.model.UploadCleanupEntry;
+import com.example.transformermanagement.repository.UploadCleanupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes upload files queued in upload_cleanup_queue by bulk deletes.
+ *
+ * Runs on its own thread so a large backlog never holds up the shared @Scheduled jobs: woken after each bulk
+ * delete commits and polled every uploads.cleanup.poll-interval-ms for anything queued before a restart.
+ * Files are removed in pages of uploads.cleanup.batch-size; a file that cannot be deleted is logged and dropped
+ * from the queue rather than retried forever.
+ */
+@Component
+public class UploadFileCleaner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadFileCleaner.class);
+
+    @Autowired
+    private UploadCleanupRepository uploadCleanupRepository;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Value("${uploads.cleanup.batch-size:500}")
+    private int batchSize;
+
+    @Value("${uploads.cleanup.poll-interval-ms:60000}")
+    private long pollIntervalMs;
+
+    private final ScheduledExecutorService executor;
+
+    public UploadFileCleaner(WorkerThreads workerThreads) {
+        this.executor = Executors.newSingleThreadScheduledExecutor(workerThreads.named("upload-cleaner-"));
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(this::drain, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Drain the queue soon instead of at the next poll
+     */
+    public void wake() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the next start picks the queue up
+        }
+    }
+
+    private void drain() {
+        try {
+            Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+            int removed = 0;
+            List<UploadCleanupEntry> page;
+            do {
+                page = uploadCleanupRepository.findByOrderByIdAsc(PageRequest.of(0, batchSize));
+                for (UploadCleanupEntry entry : page) {
+                    if (deleteFile(root, entry.getFileUrl())) {
+                        removed++;
+                    }
+                }
+                uploadCleanupRepository.deleteAllInBatch(page);
+            } while (page.size() == batchSize && !Thread.currentThread().isInterrupted());
+            if (removed > 0) {
+                logger.info("Removed {} upload file(s) of deleted records", removed);
+            }
+        } catch (Exception e) {
+            // Keep the periodic task alive; the entries stay queued for the next round
+            logger.error("Upload cleanup failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean deleteFile(Path root, String fileUrl) {
+        // Extract filename from URL (e.g., /uploads/filename.jpg -> filename.jpg); never leaves the upload directory
+        String fileName = fileUrl.substring(fileUrl.lastIndexOf('/') + 1);
+        if (fileName.isEmpty()) {
+            return false;
+        }
+        Path path = root.resolve(fileName).normalize();
+        if (!path.getParent().equals(root)) {
+            logger.warn("Skipping cleanup of {}: outside the upload directory", fileUrl);
+            return false;
+        }
+        try {
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete upload file {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+}
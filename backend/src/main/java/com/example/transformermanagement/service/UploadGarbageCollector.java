@@ -0,0 +1,276 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.config.WorkerThreads;
+import com.example.transformermanagement.dto.UploadGcReport;
+import com.example.transformermanagement.repository.ThermalImageRepository;
+import com.example.transformermanagement.repository.TransformerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes files in the upload directory that no thermal image or transformer baseline references any more
+ * (replaced baselines, uploads whose row was never committed, files of rows deleted before UploadFileCleaner existed).
+ *
+ * A pass builds the set of referenced file names from keyset-paged id/URL projections, so no entity is loaded,
+ * then streams the directory. Files younger than uploads.gc.grace-period-hours are never touched: they may belong
+ * to an upload whose row is not committed yet. Every pass first counts the orphans (that count is the whole of a
+ * dry run); a deleting pass then walks again and removes them at no more than uploads.gc.deletes-per-second.
+ * If the orphans exceed uploads.gc.max-orphan-ratio of all files nothing is deleted, since that usually means
+ * the application points at the wrong or an empty database. Scheduled passes are dry runs unless
+ * uploads.gc.dry-run=false, so nothing is deleted before someone has looked at a report.
+ */
+@Component
+public class UploadGarbageCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadGarbageCollector.class);
+
+    // Time-ordered ids sort after it, so keyset paging starts here
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+    private static final int SAMPLE_SIZE = 20;
+
+    @Autowired
+    private ThermalImageRepository thermalImageRepository;
+
+    @Autowired
+    private TransformerRepository transformerRepository;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Value("${uploads.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${uploads.gc.dry-run:true}")
+    private boolean dryRun;
+
+    @Value("${uploads.gc.initial-delay-ms:600000}")
+    private long initialDelayMs;
+
+    @Value("${uploads.gc.interval-ms:21600000}")
+    private long intervalMs;
+
+    @Value("${uploads.gc.grace-period-hours:24}")
+    private long gracePeriodHours;
+
+    @Value("${uploads.gc.page-size:1000}")
+    private int pageSize;
+
+    @Value("${uploads.gc.deletes-per-second:10}")
+    private double deletesPerSecond;
+
+    @Value("${uploads.gc.max-orphan-ratio:0.5}")
+    private double maxOrphanRatio;
+
+    // Single thread: scheduled and manual passes never overlap
+    private final ScheduledExecutorService executor;
+
+    private volatile UploadGcReport lastReport;
+
+    public UploadGarbageCollector(WorkerThreads workerThreads) {
+        this.executor = Executors.newSingleThreadScheduledExecutor(workerThreads.named("upload-gc-"));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            executor.scheduleWithFixedDelay(this::runScheduled, initialDelayMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return the report of the last finished pass, or null if none has run yet
+     */
+    public UploadGcReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Run a pass now, after any pass already in progress
+     */
+    public CompletableFuture<UploadGcReport> runNow(boolean dryRun) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return collect(dryRun);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private void runScheduled() {
+        try {
+            collect(dryRun);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Keep the periodic task alive; the next pass starts over
+            logger.error("Upload garbage collection failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private UploadGcReport collect(boolean dryRun) throws IOException, InterruptedException {
+        OffsetDateTime startedAt = OffsetDateTime.now();
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        if (!Files.isDirectory(root)) {
+            return finish(new UploadGcReport(startedAt, OffsetDateTime.now(), dryRun, 0, 0, 0, 0, 0, 0, 0,
+                "Upload directory " + root + " does not exist", List.of()));
+        }
+
+        Set<String> referenced = loadReferencedFileNames();
+        FileTime cutoff = FileTime.from(Instant.now().minus(Duration.ofHours(gracePeriodHours)));
+        Walk counted = walk(root, referenced, cutoff, null);
+
+        String skippedReason = null;
+        Walk deleted = null;
+        if (!dryRun && counted.orphans > 0) {
+            if (counted.orphans > maxOrphanRatio * counted.scanned) {
+                skippedReason = String.format(Locale.ROOT,
+                    "%d of %d files are unreferenced, above uploads.gc.max-orphan-ratio=%s; check the database before deleting",
+                    counted.orphans, counted.scanned, maxOrphanRatio);
+            } else {
+                deleted = walk(root, referenced, cutoff, new TokenBucket(deletesPerSecond, 1));
+            }
+        }
+
+        return finish(new UploadGcReport(startedAt, OffsetDateTime.now(), dryRun, referenced.size(), counted.scanned,
+            counted.withinGracePeriod, counted.orphans, counted.orphanBytes,
+            deleted == null ? 0 : deleted.deletedFiles, deleted == null ? 0 : deleted.deletedBytes,
+            skippedReason, List.copyOf(counted.sample)));
+    }
+
+    private UploadGcReport finish(UploadGcReport report) {
+        lastReport = report;
+        if (report.skippedReason() != null) {
+            logger.warn("Upload garbage collection skipped deletes: {}", report.skippedReason());
+        }
+        logger.info("Upload garbage collection{}: {} file(s) scanned, {} referenced, {} orphan(s) ({} bytes), {} deleted, {} within grace period",
+            report.dryRun() ? " (dry run)" : "", report.scannedFiles(), report.referencedFiles(), report.orphanFiles(),
+            report.orphanBytes(), report.deletedFiles(), report.withinGracePeriod());
+        return report;
+    }
+
+    /**
+     * File names referenced by thermal_images.image_url and the transformer baseline columns, read page by page
+     */
+    private Set<String> loadReferencedFileNames() {
+        Set<String> names = new HashSet<>();
+        UUID after = FIRST_ID;
+        List<Object[]> page;
+        do {
+            page = thermalImageRepository.findImageUrlsAfter(after, PageRequest.of(0, pageSize));
+            for (Object[] row : page) {
+                addFileName(names, (String) row[1]);
+                after = (UUID) row[0];
+            }
+        } while (page.size() == pageSize);
+
+        after = FIRST_ID;
+        do {
+            page = transformerRepository.findBaselineUrlsAfter(after, PageRequest.of(0, pageSize));
+            for (Object[] row : page) {
+                for (int i = 1; i < row.length; i++) {
+                    addFileName(names, (String) row[i]);
+                }
+                after = (UUID) row[0];
+            }
+        } while (page.size() == pageSize);
+        return names;
+    }
+
+    private static void addFileName(Set<String> names, String url) {
+        // Extract filename from URL (e.g., /uploads/filename.jpg -> filename.jpg)
+        if (url != null && !url.isBlank()) {
+            names.add(url.substring(url.lastIndexOf('/') + 1));
+        }
+    }
+
+    /**
+     * @param deleteLimiter null to only count; otherwise each orphan is deleted once a token is available
+     */
+    private Walk walk(Path root, Set<String> referenced, FileTime cutoff, TokenBucket deleteLimiter)
+            throws IOException, InterruptedException {
+        Walk walk = new Walk();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root)) {
+            for (Path path : files) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (NoSuchFileException e) {
+                    continue; // Removed while walking
+                }
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+                walk.scanned++;
+                String name = path.getFileName().toString();
+                if (referenced.contains(name)) {
+                    continue;
+                }
+                if (attributes.lastModifiedTime().compareTo(cutoff) > 0) {
+                    walk.withinGracePeriod++;
+                    continue;
+                }
+                walk.orphans++;
+                walk.orphanBytes += attributes.size();
+                if (walk.sample.size() < SAMPLE_SIZE) {
+                    walk.sample.add(name);
+                }
+                if (deleteLimiter != null) {
+                    // This thread does nothing else, so it simply waits for the token
+                    long waitNanos;
+                    while ((waitNanos = deleteLimiter.tryAcquire()) > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                    try {
+                        if (Files.deleteIfExists(path)) {
+                            walk.deletedFiles++;
+                            walk.deletedBytes += attributes.size();
+                        }
+                    } catch (IOException e) {
+                        logger.warn("Could not delete orphaned upload {}: {}", path, e.getMessage());
+                    }
+                }
+            }
+        }
+        return walk;
+    }
+
+    private static final class Walk {
+        long scanned;
+        long withinGracePeriod;
+        long orphans;
+        long orphanBytes;
+        long deletedFiles;
+        long deletedBytes;
+        final List<String> sample = new ArrayList<>();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.model.UploadOutboxEntry;
+import com.example.transformermanagement.repository.UploadOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the upload outbox.
+ *
+ * Each poll claims due entries with a conditional UPDATE (the lease), syncs them through the
+ * rate-limited RoboflowRequestScheduler and acks the result fenced on the lease owner. Entries whose lease expires
+ * (the JVM died mid-upload) become claimable again. Each entry is an incremental sync
+ * (RoboflowDatasetService#syncImage): unchanged images are not re-uploaded and unchanged annotations are not re-applied.
+ */
+@Component
+public class UploadOutboxWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadOutboxWorker.class);
+
+    private final String workerId = "worker-" + UUID.randomUUID();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Autowired
+    private UploadOutboxRepository uploadOutboxRepository;
+
+    @Autowired
+    private RoboflowDatasetService roboflowDatasetService;
+
+    @Autowired
+    private TrainingTriggerService trainingTriggerService;
+
+    @Autowired
+    private RoboflowBatchUploadService roboflowBatchUploadService;
+
+    @Value("${roboflow.outbox.max-in-flight:16}")
+    private int maxInFlight;
+
+    @Value("${roboflow.outbox.lease-ms:600000}")
+    private long leaseMs;
+
+    @Value("${roboflow.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${roboflow.outbox.retry-delay-ms:60000}")
+    private long retryDelayMs;
+
+    // Batches interrupted by a restart still hold back training until they settle; runs before the first drain
+    @PostConstruct
+    public void restoreActiveBatches() {
+        List<UUID> batchIds = uploadOutboxRepository.findUnsettledBatchIds();
+        for (UUID batchId : batchIds) {
+            trainingTriggerService.beginBatch(batchId);
+        }
+        if (!batchIds.isEmpty()) {
+            logger.info("Resumed {} unfinished batch upload job(s)", batchIds.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${roboflow.outbox.poll-interval-ms:5000}")
+    public void drain() {
+        int capacity = maxInFlight - inFlight.get();
+        if (capacity <= 0) {
+            return;
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        List<UUID> candidates = uploadOutboxRepository.findClaimable(now, PageRequest.of(0, capacity));
+        for (UUID id : candidates) {
+            if (uploadOutboxRepository.claim(id, workerId, now, now.plusNanos(leaseMs * 1_000_000)) == 1) {
+                uploadOutboxRepository.findById(id).ifPresent(this::process);
+            }
+        }
+    }
+
+    private void process(UploadOutboxEntry entry) {
+        inFlight.incrementAndGet();
+        roboflowDatasetService.syncImage(entry.getThermalImageId(), entry.getSplit())
+            .whenComplete((result, error) -> {
+                try {
+                    if (error == null) {
+                        acknowledge(entry, result);
+                    } else {
+                        Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+                        retryOrFail(entry, cause);
+                    }
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+    }
+
+    private void acknowledge(UploadOutboxEntry entry, RoboflowDatasetService.SyncResult result) {
+        String note = result.uploaded() ? null
+            : (result.annotated() ? "Image unchanged; annotations re-applied" : UploadOutboxEntry.UNCHANGED_NOTE);
+        int updated = uploadOutboxRepository.complete(entry.getId(), workerId, UploadOutboxEntry.DONE,
+            result.roboflowId(), result.contentHash(), result.annotationHash(), note, OffsetDateTime.now());
+        if (updated == 0) {
+            logger.warn("Lost lease on outbox entry {} before ack; another worker owns it now", entry.getId());
+            return;
+        }
+        logger.info("Synced thermal image {} (uploaded={}, annotated={})",
+            entry.getThermalImageId(), result.uploaded(), result.annotated());
+        onSettled(entry, result.uploaded() || result.annotated());
+    }
+
+    private void retryOrFail(UploadOutboxEntry entry, Throwable cause) {
+        OffsetDateTime now = OffsetDateTime.now();
+        String message = Objects.toString(cause.getMessage(), cause.getClass().getSimpleName());
+        // Only I/O failures are transient; a missing file or an image without annotations will not fix itself
+        boolean retryable = cause instanceof IOException && !(cause instanceof NoSuchFileException);
+        if (retryable && entry.getAttempts() < maxAttempts) {
+            long delay = retryDelayMs << Math.min(entry.getAttempts() - 1, 10);
+            uploadOutboxRepository.release(entry.getId(), workerId, now.plusNanos(delay * 1_000_000), message, now);
+            logger.warn("Upload of thermal image {} failed (attempt {}/{}), retrying later: {}",
+                entry.getThermalImageId(), entry.getAttempts(), maxAttempts, message);
+            return;
+        }
+        uploadOutboxRepository.complete(entry.getId(), workerId, UploadOutboxEntry.FAILED,
+            null, null, null, message, now);
+        logger.error("Failed to upload thermal image {}: {}", entry.getThermalImageId(), message);
+        onSettled(entry, false);
+    }
+
+    private void onSettled(UploadOutboxEntry entry, boolean uploaded) {
+        if (entry.getBatchId() == null) {
+            if (uploaded) {
+                trainingTriggerService.requestTraining();
+            }
+            return;
+        }
+        // One training run for the whole batch, and only if something new reached the dataset
+        roboflowBatchUploadService.settleIfFinished(entry.getBatchId());
+    }
+}
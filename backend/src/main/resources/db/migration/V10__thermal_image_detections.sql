@@ -0,0 +1,11 @@
+-- Detection JSON moved out of thermal_images so list queries never read it; filled from the legacy column by V11
+
+create table thermal_image_detections (
+    updated_at datetime(6),
+    thermal_image_id binary(16) not null,
+    detection_data TEXT,
+    primary key (thermal_image_id)
+) engine=InnoDB;
+
+alter table thermal_image_detections add constraint fk_thermal_image_detections_thermal_image
+    foreign key (thermal_image_id) references thermal_images (id) on delete cascade;
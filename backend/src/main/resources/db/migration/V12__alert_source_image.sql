@@ -0,0 +1,5 @@
+-- Image that triggered a rule-generated alert (AlertRuleEngine); null for client-created alerts
+
+alter table alerts add column thermal_image_id binary(16);
+
+create index idx_alerts_image_type on alerts (thermal_image_id, alert_type);
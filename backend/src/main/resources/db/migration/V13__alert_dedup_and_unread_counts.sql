@@ -0,0 +1,20 @@
+-- Alert deduplication (recurrences folded into one row per transformer, type and location bucket) and
+-- per-transformer unread counters. Existing alerts become single occurrences last seen when created;
+-- AlertService seeds the counters from the alerts table on the first start with an empty table
+
+alter table alerts add column occurrence_count integer;
+alter table alerts add column last_seen_at datetime(6);
+alter table alerts add column location_bucket varchar(255);
+
+update alerts set occurrence_count = 1, last_seen_at = created_at, location_bucket = '' where occurrence_count is null;
+
+create index idx_alerts_dedup on alerts (transformer_id, alert_type, location_bucket, last_seen_at);
+
+create table alert_unread_counts (
+    unread_count bigint not null,
+    transformer_id binary(16) not null,
+    primary key (transformer_id)
+) engine=InnoDB;
+
+alter table alert_unread_counts add constraint fk_alert_unread_counts_transformer
+    foreign key (transformer_id) references transformers (id) on delete cascade;
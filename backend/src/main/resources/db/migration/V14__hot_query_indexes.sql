@@ -0,0 +1,28 @@
+-- Indexes for repository queries that previously fell back to table scans or filesort.
+-- Each index is also declared in the entity's @Table(indexes), which SchemaDriftCheck verifies at startup.
+
+-- AnnotationRepository.findByThermalImageIdAndNotDeleted / findByThermalImageId / findLiveByThermalImageIdIn
+-- and the EXISTS probe of ThermalImageRepository.findAnnotatedForExport
+create index idx_annotations_image_live_created on annotations (thermal_image_id, is_deleted, created_at);
+
+-- AnnotationRepository.findUserCorrectedAnnotations / findUserCorrectedThermalImageIds
+create index idx_annotations_type_live on annotations (annotation_type, is_deleted, thermal_image_id);
+
+-- AnnotationRepository.countByDetectionClass
+create index idx_annotations_live_class on annotations (is_deleted, detection_class);
+
+-- FleetRollupRepository.countAnomaliesByClassAndDay
+create index idx_annotations_live_created on annotations (is_deleted, created_at);
+
+-- ThermalImageRepository.findWithAiPredictions / findAnnotatedForExport (range and order on uploaded_at)
+create index idx_thermal_images_uploaded on thermal_images (uploaded_at, id);
+
+-- FleetRollupRepository.countTransformers and the segment joins of the other rollup aggregations
+create index idx_transformers_segment on transformers (region, type);
+
+-- UploadOutboxRepository.findClaimable, expired-lease branch
+create index idx_upload_outbox_status_lease on upload_outbox (status, lease_until);
+
+-- UploadOutboxRepository.findByBatchIdOrderByCreatedAt (replaces the batch_id-only index)
+create index idx_upload_outbox_batch_created on upload_outbox (batch_id, created_at);
+drop index idx_upload_outbox_batch on upload_outbox;
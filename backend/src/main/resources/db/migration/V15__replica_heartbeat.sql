@@ -0,0 +1,10 @@
+-- Single-row heartbeat written on the primary and read back on the read replica to measure replication lag
+-- (ReplicaLagMonitor). Harmless when no replica is configured.
+
+create table replica_heartbeat (
+    id integer not null,
+    beat_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+insert into replica_heartbeat (id, beat_at) values (1, current_timestamp(6));
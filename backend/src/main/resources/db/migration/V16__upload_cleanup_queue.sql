@@ -0,0 +1,9 @@
+-- Upload files left behind by bulk deletes of transformers and inspections (BulkDeleteService), removed from disk
+-- in the background by UploadFileCleaner. Rows are inserted in the deleting transaction and drained in id order.
+
+create table upload_cleanup_queue (
+    id bigint not null auto_increment,
+    enqueued_at datetime(6) not null,
+    file_url varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
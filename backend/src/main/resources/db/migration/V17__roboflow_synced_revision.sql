@@ -0,0 +1,4 @@
+-- Annotation revision of the annotation set last applied to the Roboflow dataset, so the retraining
+-- selection (ActiveLearningService) skips images that have not changed since. Null until the next sync
+
+alter table thermal_images add column roboflow_synced_revision bigint;
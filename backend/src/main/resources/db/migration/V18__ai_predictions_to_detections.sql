@@ -0,0 +1,16 @@
+-- Raw AI predictions move next to the detection JSON in thermal_image_detections, so thermal_images rows (read by
+-- every list, keyset, export and upload query) no longer carry the prediction JSON. Only model evaluation and
+-- retraining selection read it, by image id
+
+alter table thermal_image_detections add column ai_predictions TEXT;
+
+insert into thermal_image_detections (thermal_image_id, ai_predictions, updated_at)
+select t.id, t.ai_predictions, current_timestamp from thermal_images t
+where t.ai_predictions is not null
+  and not exists (select 1 from thermal_image_detections d where d.thermal_image_id = t.id);
+
+update thermal_image_detections d
+set ai_predictions = (select t.ai_predictions from thermal_images t where t.id = d.thermal_image_id)
+where d.ai_predictions is null;
+
+alter table thermal_images drop column ai_predictions;
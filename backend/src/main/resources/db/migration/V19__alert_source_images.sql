@@ -0,0 +1,19 @@
+-- A deduplicated alert keeps the image that first raised it; the image of the latest occurrence is tracked
+-- separately, and every image folded into the alert is recorded, so re-evaluating any of them (an annotation
+-- edit) is recognized instead of counted as a new occurrence. Existing rows only know their latest image
+
+alter table alerts add column last_thermal_image_id binary(16);
+
+update alerts set last_thermal_image_id = thermal_image_id;
+
+create table alert_source_images (
+    alert_id binary(16) not null,
+    thermal_image_id binary(16) not null,
+    primary key (thermal_image_id, alert_id)
+) engine=InnoDB;
+
+alter table alert_source_images add constraint fk_alert_source_images_alert
+    foreign key (alert_id) references alerts (id) on delete cascade;
+
+insert into alert_source_images (alert_id, thermal_image_id)
+select id, thermal_image_id from alerts where thermal_image_id is not null;
@@ -0,0 +1,90 @@
+-- Baseline: the schema Hibernate generated with ddl-auto=update for the entities as they were before versioned
+-- migrations were introduced (transformers, inspections, thermal images, annotations, alerts). Databases created
+-- that way are baselined at this version instead of running it (spring.flyway.baseline-on-migrate); every table,
+-- column and index added since comes from a later migration, so they run on those databases too.
+
+create table alerts (
+    is_read bit,
+    created_at datetime(6),
+    id binary(16) not null,
+    transformer_id binary(16),
+    alert_type varchar(255) not null,
+    message varchar(255) not null,
+    severity varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table annotations (
+    confidence float(53) not null,
+    height float(53) not null,
+    is_deleted bit not null,
+    width float(53) not null,
+    x float(53) not null,
+    y float(53) not null,
+    created_at datetime(6) not null,
+    modified_at datetime(6),
+    id binary(16) not null,
+    thermal_image_id binary(16) not null,
+    transformer_id binary(16),
+    annotation_type varchar(255) not null,
+    comments TEXT,
+    created_by varchar(255) not null,
+    detection_class varchar(255) not null,
+    detection_id varchar(255) not null,
+    modified_by varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table inspections (
+    created_at datetime(6),
+    inspected_date datetime(6) not null,
+    maintenance_date datetime(6),
+    updated_at datetime(6),
+    id binary(16) not null,
+    transformer_id binary(16),
+    inspected_by varchar(255),
+    inspection_no varchar(255) not null,
+    status varchar(255),
+    weather_condition varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table thermal_images (
+    anomaly_detected bit,
+    temperature_reading decimal(38,2),
+    uploaded_at datetime(6),
+    id binary(16) not null,
+    inspection_id binary(16),
+    detection_data TEXT,
+    image_type varchar(255) not null,
+    image_url varchar(255) not null,
+    weather_condition varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table transformers (
+    capacity decimal(38,2),
+    no_of_feeders integer,
+    created_at datetime(6),
+    last_inspected datetime(6),
+    updated_at datetime(6),
+    id binary(16) not null,
+    cloudy_baseline_image_url varchar(255),
+    location_details varchar(255),
+    pole_no varchar(255) not null,
+    rainy_baseline_image_url varchar(255),
+    region varchar(255) not null,
+    status varchar(255),
+    sunny_baseline_image_url varchar(255),
+    transformer_no varchar(255) not null,
+    type varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table inspections add constraint uk_inspections_inspection_no unique (inspection_no);
+alter table transformers add constraint uk_transformers_transformer_no unique (transformer_no);
+
+alter table alerts add constraint fk_alerts_transformer foreign key (transformer_id) references transformers (id);
+alter table annotations add constraint fk_annotations_thermal_image foreign key (thermal_image_id) references thermal_images (id);
+alter table inspections add constraint fk_inspections_transformer foreign key (transformer_id) references transformers (id);
+alter table thermal_images add constraint fk_thermal_images_inspection foreign key (inspection_id) references inspections (id);
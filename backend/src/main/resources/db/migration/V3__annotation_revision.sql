@@ -0,0 +1,4 @@
+-- Annotation revision counter of a thermal image, compared on concurrent annotation edits (AnnotationService).
+-- Null on existing rows; the repository queries read it with COALESCE(annotation_revision, 0)
+
+alter table thermal_images add column annotation_revision bigint;
@@ -0,0 +1,5 @@
+-- Raw detector output kept next to the user-edited annotations, and the model version that produced it
+-- (model evaluation baseline, see ModelEvaluationService)
+
+alter table thermal_images add column ai_predictions TEXT;
+alter table thermal_images add column model_version varchar(255);
@@ -0,0 +1,24 @@
+-- Durable queue of Roboflow dataset uploads drained by UploadOutboxWorker
+
+create table upload_outbox (
+    attempts integer not null,
+    available_at datetime(6) not null,
+    created_at datetime(6),
+    lease_until datetime(6),
+    updated_at datetime(6),
+    batch_id binary(16),
+    id binary(16) not null,
+    thermal_image_id binary(16) not null,
+    annotation_hash varchar(255),
+    content_hash varchar(255),
+    last_error TEXT,
+    lease_owner varchar(255),
+    roboflow_id varchar(255),
+    split varchar(255) not null,
+    status varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_upload_outbox_status_available on upload_outbox (status, available_at);
+create index idx_upload_outbox_batch on upload_outbox (batch_id);
+create index idx_upload_outbox_image_status on upload_outbox (thermal_image_id, status);
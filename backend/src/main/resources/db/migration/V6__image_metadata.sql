@@ -0,0 +1,7 @@
+-- Image header metadata captured at upload, so exports and label normalization never decode the file.
+-- Existing rows are filled in by ImageMetadataService's backfill
+
+alter table thermal_images add column image_width integer;
+alter table thermal_images add column image_height integer;
+alter table thermal_images add column image_format varchar(255);
+alter table thermal_images add column bit_depth integer;
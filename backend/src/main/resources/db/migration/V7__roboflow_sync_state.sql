@@ -0,0 +1,6 @@
+-- What was last uploaded to the Roboflow dataset for each image, so unchanged images are skipped
+
+alter table thermal_images add column roboflow_image_id varchar(255);
+alter table thermal_images add column roboflow_content_hash varchar(255);
+alter table thermal_images add column roboflow_annotation_hash varchar(255);
+alter table thermal_images add column roboflow_synced_at datetime(6);
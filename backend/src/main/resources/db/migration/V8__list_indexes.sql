@@ -0,0 +1,18 @@
+-- Filter and keyset-order indexes of the paginated list endpoints (KeysetPager)
+
+create index idx_alerts_created on alerts (created_at, id);
+create index idx_alerts_transformer_created on alerts (transformer_id, created_at, id);
+create index idx_alerts_severity_created on alerts (severity, created_at, id);
+create index idx_alerts_read_created on alerts (is_read, created_at, id);
+
+create index idx_inspections_created on inspections (created_at, id);
+create index idx_inspections_transformer_created on inspections (transformer_id, created_at, id);
+create index idx_inspections_status_created on inspections (status, created_at, id);
+create index idx_inspections_inspected_date on inspections (inspected_date, id);
+
+create index idx_thermal_images_inspection_type on thermal_images (inspection_id, image_type, uploaded_at, id);
+create index idx_thermal_images_type_uploaded on thermal_images (image_type, uploaded_at, id);
+
+create index idx_transformers_region_no on transformers (region, transformer_no, id);
+create index idx_transformers_type_no on transformers (type, transformer_no, id);
+create index idx_transformers_status_no on transformers (status, transformer_no, id);
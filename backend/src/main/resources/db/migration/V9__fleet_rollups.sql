@@ -0,0 +1,16 @@
+-- Precomputed fleet dashboard counters, rebuilt by FleetRollupService (empty until its first refresh)
+
+create table fleet_rollups (
+    rollup_day date,
+    refreshed_at datetime(6),
+    total bigint not null,
+    id binary(16) not null,
+    dimension varchar(255) not null,
+    metric varchar(255) not null,
+    region varchar(255) not null,
+    type varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_fleet_rollups_segment on fleet_rollups (region, type);
+create index idx_fleet_rollups_day on fleet_rollups (rollup_day);
@@ -0,0 +1,184 @@
+package com.example.transformermanagement.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Upgrades a database that only has the baseline schema (as ddl-auto=update left it) and checks that every later
+ * migration ran, the declared indexes exist (SchemaDriftCheck) and the hot queries are planned on their indexes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SchemaMigrationTest {
+
+    private static final String URL = "jdbc:h2:mem:legacy;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final String TRANSFORMER_ID = "X'01900000000070008000000000000001'";
+    private static final String INSPECTION_ID = "X'01900000000070008000000000000002'";
+    private static final String IMAGE_ID = "X'01900000000070008000000000000003'";
+    private static final String ALERT_ID = "X'01900000000070008000000000000004'";
+
+    private static boolean legacyCreated;
+    private static boolean statisticsSeeded;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SchemaDriftCheck schemaDriftCheck;
+
+    @DynamicPropertySource
+    static void legacyDatabase(DynamicPropertyRegistry registry) throws SQLException {
+        if (!legacyCreated) {
+            try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+                 Statement statement = connection.createStatement()) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V1__baseline_schema.sql"));
+                statement.execute("insert into transformers (id, transformer_no, pole_no, region, type) values (" +
+                    TRANSFORMER_ID + ", 'T-1', 'P-1', 'Colombo', 'Distribution')");
+                statement.execute("insert into inspections (id, inspection_no, transformer_id, inspected_date) values (" +
+                    INSPECTION_ID + ", 'I-1', " + TRANSFORMER_ID + ", current_timestamp)");
+                statement.execute("insert into thermal_images (id, inspection_id, image_url, image_type, detection_data, uploaded_at) values (" +
+                    IMAGE_ID + ", " + INSPECTION_ID + ", '/uploads/a.png', 'Maintenance', '{\"predictions\":[]}', current_timestamp)");
+                statement.execute("insert into alerts (id, transformer_id, alert_type, message, is_read, created_at) values (" +
+                    ALERT_ID + ", " + TRANSFORMER_ID + ", 'anomaly', 'Hotspot', false, current_timestamp)");
+            }
+            legacyCreated = true;
+        }
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @Test
+    void upgradesBaselineDatabaseThroughEveryMigration() {
+        // The existing schema is baselined at V1, which itself does not run
+        assertThat(jdbcTemplate.queryForList(
+            "select \"version\" from \"flyway_schema_history\" where \"type\" = 'BASELINE'", String.class))
+            .containsExactly("1");
+        List<String> applied = jdbcTemplate.queryForList(
+            "select \"version\" from \"flyway_schema_history\" where \"success\" = true and \"type\" <> 'BASELINE' " +
+            "and \"version\" is not null order by \"installed_rank\"", String.class);
+        assertThat(applied).containsExactly(
+            "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15", "16", "17", "18", "19");
+
+        // V10/V11: detection JSON moved out of the baseline column, which is gone
+        assertThat(jdbcTemplate.queryForObject(
+            "select detection_data from thermal_image_detections where thermal_image_id = " + IMAGE_ID, String.class))
+            .isEqualTo("{\"predictions\":[]}");
+        assertThat(jdbcTemplate.queryForObject(
+            "select count(*) from information_schema.columns where table_name = 'thermal_images' and column_name = 'detection_data'",
+            Integer.class)).isZero();
+
+        // V18: the AI prediction snapshot lives with the detection JSON, not on the image row
+        assertThat(jdbcTemplate.queryForObject(
+            "select count(*) from information_schema.columns where table_name = 'thermal_images' and column_name = 'ai_predictions'",
+            Integer.class)).isZero();
+
+        // V13: existing alerts are single occurrences
+        assertThat(jdbcTemplate.queryForObject(
+            "select occurrence_count from alerts where id = " + ALERT_ID, Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void driftCheckFailsWhenADeclaredIndexIsMissing() throws SQLException {
+        schemaDriftCheck.verify();
+
+        jdbcTemplate.execute("drop index idx_alerts_dedup on alerts");
+        try {
+            assertThatThrownBy(schemaDriftCheck::verify)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("idx_alerts_dedup");
+        } finally {
+            jdbcTemplate.execute("create index idx_alerts_dedup on alerts (transformer_id, alert_type, location_bucket, last_seen_at)");
+        }
+    }
+
+    @Test
+    void hotQueriesUseTheirIndexes() {
+        seedStatistics();
+        // AnnotationRepository.findByThermalImageIdAndNotDeleted
+        assertPlanUses("idx_annotations_image_live_created",
+            "select * from annotations where thermal_image_id = " + seedId('3', "42") + " and is_deleted = false order by created_at desc");
+        // AnnotationRepository.findUserCorrectedThermalImageIds
+        assertPlanUses("idx_annotations_type_live",
+            "select distinct thermal_image_id from annotations where annotation_type = 'user_added' and is_deleted = false");
+        // ThermalImageRepository.findWithAiPredictions
+        assertPlanUses("idx_thermal_images_uploaded",
+            "select * from thermal_images where uploaded_at >= timestamp '2024-01-01 00:00:00' " +
+            "and uploaded_at < timestamp '2025-01-01 00:00:00' order by uploaded_at");
+        // AlertRepository.findRecentDuplicate
+        assertPlanUses("idx_alerts_dedup",
+            "select * from alerts where transformer_id = " + seedId('1', "42") + " and alert_type = 'anomaly' " +
+            "and location_bucket = 'b1' and last_seen_at >= timestamp '2024-01-01 00:00:00' order by last_seen_at desc");
+        // Keyset pages (after the first) of the inspection list filtered by transformer, newest first
+        assertPlanUses("idx_inspections_transformer_created",
+            "select * from inspections where transformer_id = " + seedId('1', "42") +
+            " and created_at < timestamp '2024-01-05 00:00:00' order by created_at desc, id desc limit 20");
+        // UploadOutboxRepository.findByBatchIdOrderByCreatedAt
+        assertPlanUses("idx_upload_outbox_batch_created",
+            "select * from upload_outbox where batch_id = " + seedId('7', "42") + " order by created_at");
+    }
+
+    /**
+     * The planner only prefers the composite indexes over the foreign-key ones once it has row counts and
+     * selectivity, so fill the tables with a few thousand spread-out rows and analyze them. Annotated images get
+     * dozens of rows, half of them soft-deleted by edits, as they do after a few review rounds.
+     */
+    private void seedStatistics() {
+        if (statisticsSeeded) {
+            return;
+        }
+        jdbcTemplate.execute("insert into transformers (id, transformer_no, pole_no, region, type) " +
+            "select " + seedId('1', "x") + ", 'S-' || x, 'P-' || x, 'Region ' || (x % 9), 'Distribution' " +
+            "from system_range(1, 100) r(x)");
+        jdbcTemplate.execute("insert into inspections (id, inspection_no, transformer_id, inspected_date, created_at) " +
+            "select " + seedId('2', "x") + ", 'SI-' || x, " + seedId('1', "x % 100 + 1") + ", current_timestamp, " +
+            "dateadd(minute, x, timestamp '2024-01-01 00:00:00') from system_range(1, 1000) r(x)");
+        jdbcTemplate.execute("insert into thermal_images (id, inspection_id, image_url, image_type, uploaded_at) " +
+            "select " + seedId('3', "x") + ", " + seedId('2', "x % 1000 + 1") + ", '/uploads/s' || x || '.png', " +
+            "case when x % 2 = 0 then 'Baseline' else 'Maintenance' end, dateadd(minute, x, timestamp '2023-01-01 00:00:00') " +
+            "from system_range(1, 5000) r(x)");
+        jdbcTemplate.execute("insert into annotations (id, thermal_image_id, annotation_type, confidence, x, y, width, " +
+            "height, detection_class, detection_id, created_by, is_deleted, created_at) " +
+            "select " + seedId('4', "x") + ", " + seedId('3', "x % 500 + 1") + ", " +
+            "case when x % 10 = 0 then 'user_added' else 'ai_generated' end, 0.9, 10, 10, 5, 5, 'Faulty', 'd' || x, " +
+            "'seed', x % 2 = 0, dateadd(minute, x, timestamp '2024-01-01 00:00:00') from system_range(1, 20000) r(x)");
+        jdbcTemplate.execute("insert into alerts (id, transformer_id, alert_type, message, is_read, created_at, " +
+            "occurrence_count, last_seen_at, location_bucket) " +
+            "select " + seedId('5', "x") + ", " + seedId('1', "x % 100 + 1") + ", " +
+            "case when x % 3 = 0 then 'anomaly' else 'maintenance' end, 'Seed', false, current_timestamp, 1, " +
+            "dateadd(minute, x, timestamp '2024-01-01 00:00:00'), 'b' || (x % 20) from system_range(1, 5000) r(x)");
+        jdbcTemplate.execute("insert into upload_outbox (id, thermal_image_id, batch_id, split, status, attempts, " +
+            "available_at, created_at) " +
+            "select " + seedId('6', "x") + ", " + seedId('3', "x % 5000 + 1") + ", " + seedId('7', "x % 50 + 1") + ", " +
+            "'train', 'DONE', 1, current_timestamp, dateadd(second, x, timestamp '2024-01-01 00:00:00') " +
+            "from system_range(1, 5000) r(x)");
+        jdbcTemplate.execute("analyze");
+        statisticsSeeded = true;
+    }
+
+    // Binary UUID whose first group tells the seeded tables apart and whose last group is the row number
+    private static String seedId(char table, String number) {
+        return "cast(cast('0191000" + table + "-0000-7000-8000-' || lpad(" + number + ", 12, '0') as uuid) as binary(16))";
+    }
+
+    private void assertPlanUses(String index, String sql) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+        assertThat(plan.toLowerCase(Locale.ROOT)).as(sql).contains(index);
+    }
+}
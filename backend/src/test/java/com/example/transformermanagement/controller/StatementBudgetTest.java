@@ -0,0 +1,110 @@
+package com.example.transformermanagement.controller;
+
+import com.example.transformermanagement.config.SqlStatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exact SQL statement counts of the hot read endpoints (SqlStatementCounter), over several transformers,
+ * inspections, images and annotations, so a lazy association touched per row (N+1) fails the build.
+ * The second-level cache is emptied before each request, so the counts are those of a cold cache.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatementBudgetTest {
+
+    private static final int TRANSFORMERS = 3;
+    private static final int INSPECTIONS_PER_TRANSFORMER = 2;
+    private static final int ANNOTATIONS_PER_IMAGE = 3;
+
+    private static final String INSPECTION_ID = "0192000b-0000-7000-8000-000000000001";
+    private static final String IMAGE_ID = "0192000c-0000-7000-8000-000000000002";
+
+    private static boolean seeded;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void seed() {
+        if (seeded) {
+            return;
+        }
+        int inspections = TRANSFORMERS * INSPECTIONS_PER_TRANSFORMER;
+        jdbcTemplate.execute("insert into transformers (id, transformer_no, pole_no, region, type) " +
+            "select " + seedId('a', "x") + ", 'B-' || x, 'P-' || x, 'Colombo', 'Distribution' " +
+            "from system_range(1, " + TRANSFORMERS + ") r(x)");
+        jdbcTemplate.execute("insert into inspections (id, inspection_no, transformer_id, inspected_date, created_at) " +
+            "select " + seedId('b', "x") + ", 'BI-' || x, " + seedId('a', "x % " + TRANSFORMERS + " + 1") + ", " +
+            "current_timestamp, dateadd(minute, x, timestamp '2024-01-01 00:00:00') from system_range(1, " + inspections + ") r(x)");
+        // A baseline (odd) and a maintenance (even) image per inspection
+        jdbcTemplate.execute("insert into thermal_images (id, inspection_id, image_url, image_type, uploaded_at) " +
+            "select " + seedId('c', "x") + ", " + seedId('b', "(x + 1) / 2") + ", '/uploads/b' || x || '.png', " +
+            "case when x % 2 = 0 then 'Maintenance' else 'Baseline' end, dateadd(minute, x, timestamp '2024-01-01 00:00:00') " +
+            "from system_range(1, " + 2 * inspections + ") r(x)");
+        jdbcTemplate.execute("insert into annotations (id, thermal_image_id, annotation_type, confidence, x, y, width, " +
+            "height, detection_class, detection_id, created_by, is_deleted, created_at) " +
+            "select " + seedId('d', "x") + ", " + seedId('c', "2 * (x % " + inspections + " + 1)") + ", 'ai_generated', 0.9, " +
+            "10, 10, 5, 5, 'Faulty', 'b' || x, 'seed', false, dateadd(minute, x, timestamp '2024-01-01 00:00:00') " +
+            "from system_range(1, " + ANNOTATIONS_PER_IMAGE * inspections + ") r(x)");
+        seeded = true;
+    }
+
+    @Test
+    void transformerList() throws Exception {
+        assertStatements("/api/transformers", 1);
+    }
+
+    @Test
+    void inspectionList() throws Exception {
+        assertStatements("/api/inspections", 1);
+    }
+
+    @Test
+    void thermalImageList() throws Exception {
+        assertStatements("/api/thermal-images", 1);
+    }
+
+    @Test
+    void inspectionDetail() throws Exception {
+        // inspection with its transformer, its images, their live annotations
+        assertStatements("/api/inspections/" + INSPECTION_ID + "/detail", 3);
+    }
+
+    @Test
+    void annotationsOfAnImage() throws Exception {
+        // revision, annotations, and the one image they all serialize
+        assertStatements("/api/annotations/thermal-image/" + IMAGE_ID, 3);
+    }
+
+    private void assertStatements(String url, int expected) throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        Object count = mockMvc.perform(get(url))
+            .andExpect(status().isOk())
+            .andReturn().getRequest().getAttribute(SqlStatementCounter.STATEMENT_COUNT_ATTRIBUTE);
+        assertThat(count).as(url).isEqualTo(expected);
+    }
+
+    // Binary UUID whose first group tells the seeded tables apart and whose last group is the row number
+    private static String seedId(char table, String number) {
+        return "cast(cast('0192000" + table + "-0000-7000-8000-' || lpad(" + number + ", 12, '0') as uuid) as binary(16))";
+    }
+}
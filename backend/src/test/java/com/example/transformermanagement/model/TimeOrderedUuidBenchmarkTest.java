@@ -0,0 +1,109 @@
+package com.example.transformermanagement.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput and index size of annotation-shaped rows keyed by TimeOrderedUuidGenerator ids in BINARY(16),
+ * against the keys used before: random UUIDs in BINARY(16) (Hibernate's default) and in CHAR(36) (older schemas).
+ *
+ * Needs a MySQL/MariaDB database it may create tables in, so it only runs when asked to, e.g.
+ * mvn test -Dtest=TimeOrderedUuidBenchmarkTest -Dbenchmark.mysql.url="jdbc:mysql://localhost:3306/bench?user=root&rewriteBatchedStatements=true"
+ * Optional: -Dbenchmark.rows (default 200000). The results are printed, not asserted; they depend on the server.
+ */
+@EnabledIfSystemProperty(named = "benchmark.mysql.url", matches = ".+")
+class TimeOrderedUuidBenchmarkTest {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final String url = System.getProperty("benchmark.mysql.url");
+    private final int rows = Integer.getInteger("benchmark.rows", 200_000);
+
+    // Images get annotations in bursts, so the secondary index key is a recent image id like in production
+    private final UUID[] images = new UUID[rows / 20 + 1];
+
+    @Test
+    void timeOrderedKeysAgainstRandomKeys() throws SQLException {
+        for (int i = 0; i < images.length; i++) {
+            images[i] = TimeOrderedUuidGenerator.next();
+        }
+        try (Connection connection = DriverManager.getConnection(url)) {
+            System.out.printf(Locale.ROOT, "%-22s %10s %12s %12s %12s%n", "keys", "rows", "rows/s", "data MiB", "index MiB");
+            run(connection, "uuid7_binary16", "binary(16)", TimeOrderedUuidGenerator::next);
+            run(connection, "uuid4_binary16", "binary(16)", UUID::randomUUID);
+            run(connection, "uuid4_char36", "char(36)", UUID::randomUUID);
+        }
+    }
+
+    private void run(Connection connection, String name, String keyType, Supplier<UUID> keys) throws SQLException {
+        String table = "bench_" + name;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists " + table);
+            statement.execute("create table " + table + " (" +
+                "id " + keyType + " not null, thermal_image_id " + keyType + " not null, is_deleted bit not null, " +
+                "created_at datetime(6) not null, detection_class varchar(255) not null, confidence double not null, " +
+                "x double not null, y double not null, width double not null, height double not null, " +
+                "primary key (id), " +
+                "index idx_" + name + "_image_live_created (thermal_image_id, is_deleted, created_at)) engine=InnoDB");
+        }
+
+        boolean binary = keyType.startsWith("binary");
+        connection.setAutoCommit(false);
+        long started = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement("insert into " + table +
+                " (id, thermal_image_id, is_deleted, created_at, detection_class, confidence, x, y, width, height)" +
+                " values (?, ?, false, ?, 'Faulty', ?, ?, ?, ?, ?)")) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < rows; i++) {
+                UUID image = images[i / 20];
+                setKey(insert, 1, keys.get(), binary);
+                setKey(insert, 2, image, binary);
+                insert.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+                for (int column = 4; column <= 8; column++) {
+                    insert.setDouble(column, random.nextDouble(640));
+                }
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0 || i == rows - 1) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("analyze table " + table);
+            try (ResultSet size = statement.executeQuery("select data_length, index_length from information_schema.tables " +
+                    "where table_schema = database() and table_name = '" + table + "'")) {
+                size.next();
+                System.out.printf(Locale.ROOT, "%-22s %10d %12.0f %12.1f %12.1f%n", name, rows, rows / seconds,
+                    size.getLong(1) / 1048576.0, size.getLong(2) / 1048576.0);
+            }
+            statement.execute("drop table " + table);
+        }
+    }
+
+    private static void setKey(PreparedStatement statement, int index, UUID key, boolean binary) throws SQLException {
+        if (binary) {
+            statement.setBytes(index, ByteBuffer.allocate(16)
+                .putLong(key.getMostSignificantBits()).putLong(key.getLeastSignificantBits()).array());
+        } else {
+            statement.setString(index, key.toString());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.model.Alert;
+import com.example.transformermanagement.model.Transformer;
+import com.example.transformermanagement.repository.AlertRepository;
+import com.example.transformermanagement.repository.TransformerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Deduplication keeps track of every image folded into an alert: re-evaluating the image that first raised it
+ * (e.g. after an annotation edit) is neither a new occurrence nor a reason to mark the alert unread again.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AlertServiceTest {
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private TransformerRepository transformerRepository;
+
+    @Test
+    void reEvaluatingAnImageFoldedIntoAnAlertIsNotANewOccurrence() {
+        Transformer transformer = new Transformer();
+        transformer.setTransformerNo("AL-" + UUID.randomUUID());
+        transformer.setPoleNo("P-1");
+        transformer.setRegion("Colombo");
+        transformer.setType("Distribution");
+        transformer = transformerRepository.save(transformer);
+        UUID imageA = UUID.randomUUID();
+        UUID imageB = UUID.randomUUID();
+
+        Alert raised = alertService.ingest(candidate(transformer, imageA));
+        alertService.markRead(raised.getId(), true);
+        alertService.ingest(candidate(transformer, imageB));
+        alertService.markRead(raised.getId(), true);
+
+        // Image A is edited and evaluated again: the rule engine's guard and ingestion both recognize it
+        assertThat(alertRepository.existsRaisedForImage(imageA, "anomaly")).isTrue();
+        assertThat(alertRepository.existsRaisedForImage(imageB, "anomaly")).isTrue();
+        alertService.ingest(candidate(transformer, imageA));
+
+        Alert merged = alertRepository.findById(raised.getId()).orElseThrow();
+        assertThat(merged.getOccurrenceCount()).isEqualTo(2);
+        assertThat(merged.getIsRead()).isTrue();
+        assertThat(merged.getThermalImageId()).isEqualTo(imageA);
+        assertThat(merged.getLastThermalImageId()).isEqualTo(imageB);
+        assertThat(alertService.getUnreadCount(transformer.getId())).isZero();
+    }
+
+    private static Alert candidate(Transformer transformer, UUID thermalImageId) {
+        Alert alert = new Alert();
+        alert.setTransformer(transformer);
+        alert.setThermalImageId(thermalImageId);
+        alert.setAlertType("anomaly");
+        alert.setSeverity("high");
+        alert.setMessage("Hotspot");
+        alert.setLocationBucket("1:1");
+        return alert;
+    }
+}
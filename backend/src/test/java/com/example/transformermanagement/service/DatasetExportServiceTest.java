@@ -0,0 +1,70 @@
+package com.example.transformermanagement.service;
+
+import com.example.transformermanagement.model.Annotation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * One known box (centre 100,50, 40x20 px, in a 200x100 image) through every export format and back
+ */
+class DatasetExportServiceTest {
+
+    private static final ImageMetadataService.ImageMetadata SIZE = new ImageMetadataService.ImageMetadata(200, 100, "png", 8);
+
+    private final DatasetExportService exportService = new DatasetExportService();
+
+    @Test
+    void yoloLabelIsTheNormalizedCentre() {
+        String line = exportService.toYolo(List.of(box()), SIZE, Map.of("faulty", 0)).trim();
+        assertThat(line).isEqualTo("0 0.500000 0.500000 0.200000 0.200000");
+
+        String[] fields = line.split(" ");
+        Annotation parsed = annotation(Double.parseDouble(fields[1]) * SIZE.width(), Double.parseDouble(fields[2]) * SIZE.height(),
+            Double.parseDouble(fields[3]) * SIZE.width(), Double.parseDouble(fields[4]) * SIZE.height());
+        assertSameBox(parsed, box());
+    }
+
+    @Test
+    void vocBoxSpansHalfTheSizeAroundTheCentre() throws Exception {
+        String xml = exportService.toVoc("a.png", List.of(box()), SIZE);
+        assertThat(xml).contains("<xmin>80</xmin>", "<ymin>40</ymin>", "<xmax>120</xmax>", "<ymax>60</ymax>");
+
+        Annotation parsed = annotation((80 + 120) / 2.0, (40 + 60) / 2.0, 120 - 80, 60 - 40);
+        assertSameBox(parsed, box());
+    }
+
+    @Test
+    void cocoBboxStartsAtTheTopLeftCorner() {
+        double[] bbox = BoundingBox.of(box()).toCocoBbox();
+        assertThat(bbox).containsExactly(80, 40, 40, 20);
+
+        Annotation parsed = annotation(bbox[0] + bbox[2] / 2, bbox[1] + bbox[3] / 2, bbox[2], bbox[3]);
+        assertSameBox(parsed, box());
+    }
+
+    private static Annotation box() {
+        return annotation(100, 50, 40, 20);
+    }
+
+    private static Annotation annotation(double x, double y, double width, double height) {
+        Annotation annotation = new Annotation();
+        annotation.setDetectionClass("Faulty");
+        annotation.setX(x);
+        annotation.setY(y);
+        annotation.setWidth(width);
+        annotation.setHeight(height);
+        return annotation;
+    }
+
+    private static void assertSameBox(Annotation actual, Annotation expected) {
+        assertThat(actual.getX()).isCloseTo(expected.getX(), within(1e-6));
+        assertThat(actual.getY()).isCloseTo(expected.getY(), within(1e-6));
+        assertThat(actual.getWidth()).isCloseTo(expected.getWidth(), within(1e-6));
+        assertThat(actual.getHeight()).isCloseTo(expected.getHeight(), within(1e-6));
+    }
+}
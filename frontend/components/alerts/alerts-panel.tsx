@@ -1,47 +1,82 @@
 "use client"
 
+import { useCallback, useEffect, useState } from "react"
 import { Card, CardContent, CardHeader, CardTitle } from "@/components/ui/card"
 import { Badge } from "@/components/ui/badge"
 import { AlertTriangle, CheckCircle, Thermometer, Activity } from "lucide-react"
+import { api, AlertData, AlertEventData } from "@/lib/api"
 
 interface Alert {
   id: string
-  type: "temperature" | "maintenance" | "vibration"
+  type: string
   title: string
   message: string
   timestamp: string
-  severity: "high" | "medium" | "low"
+  severity: "high" | "medium" | "low" | "critical"
+  occurrences: number
 }
 
-const mockAlerts: Alert[] = [
-  {
-    id: "1",
-    type: "temperature",
-    title: "Temperature Threshold Exceeded",
-    message: "Transformer AZ-8070 in Nugegoda has exceeded temperature threshold (95°C). Immediate attention required.",
-    timestamp: "2025-07-25T04:32:00Z",
-    severity: "high",
-  },
-  {
-    id: "2",
-    type: "maintenance",
-    title: "Maintenance Completed",
-    message:
-      "Scheduled maintenance for Transformer AZ-5678 in Nugegoda has been completed successfully. All parameters normal.",
-    timestamp: "2025-07-25T04:32:00Z",
-    severity: "low",
-  },
-  {
-    id: "3",
-    type: "vibration",
-    title: "Warning: Unusual Vibration Detected",
-    message: "Abnormal vibration patterns detected in Transformer AZ-4563. Inspection recommended.",
-    timestamp: "2025-07-24T16:20:00Z",
-    severity: "medium",
-  },
-]
+const MAX_ALERTS = 50
+
+// Rule-generated types look like TEMPERATURE_LIMIT or DETECTION_FAULTY
+const toAlert = (id: string, alertType: string, message: string, severity: Alert["severity"], occurrences: number, timestamp?: string): Alert => ({
+  id,
+  type: alertType.startsWith("TEMPERATURE") || alertType.startsWith("HOTSPOT") ? "temperature" : alertType.toLowerCase(),
+  title: alertType
+    .toLowerCase()
+    .split("_")
+    .map((word) => word.charAt(0).toUpperCase() + word.slice(1))
+    .join(" "),
+  message,
+  timestamp: timestamp ?? new Date().toISOString(),
+  severity,
+  occurrences,
+})
+
+const fromAlertData = (alert: AlertData): Alert =>
+  toAlert(alert.id ?? "", alert.alertType, alert.message, alert.severity, alert.occurrenceCount ?? 1, alert.lastSeenAt ?? alert.createdAt)
+
+const fromAlertEvent = (event: AlertEventData): Alert =>
+  toAlert(event.id, event.alertType, event.message, event.severity, event.occurrenceCount, event.lastSeenAt ?? event.createdAt)
+
+export function AlertsPanel({ open, onAlertsChanged }: { open: boolean; onAlertsChanged?: () => void }) {
+  const [alerts, setAlerts] = useState<Alert[]>([])
+
+  const loadAlerts = useCallback(async () => {
+    const response = await api.getAlerts()
+    if (response.success) {
+      setAlerts(
+        response.data
+          .filter((alert) => !alert.isRead)
+          .map(fromAlertData)
+          .sort((a, b) => b.timestamp.localeCompare(a.timestamp))
+          .slice(0, MAX_ALERTS),
+      )
+    }
+  }, [])
+
+  // New alerts arrive over the event stream instead of by polling
+  useEffect(() => {
+    if (!open) return
+    loadAlerts()
+    return api.subscribeToEvents(
+      { types: ["alert"] },
+      {
+        onAlert: (event) =>
+          setAlerts((current) => [fromAlertEvent(event), ...current.filter((a) => a.id !== event.id)].slice(0, MAX_ALERTS)),
+        onOverflow: loadAlerts,
+      },
+    )
+  }, [open, loadAlerts])
+
+  const dismissAlert = async (id: string) => {
+    const response = await api.markAlertRead(id)
+    if (response.success) {
+      setAlerts((current) => current.filter((a) => a.id !== id))
+      onAlertsChanged?.()
+    }
+  }
 
-export function AlertsPanel({ open }: { open: boolean }) {
   if (!open) return null // only render if open
 
   const getAlertIcon = (type: string) => {
@@ -59,6 +94,7 @@ export function AlertsPanel({ open }: { open: boolean }) {
 
   const getSeverityColor = (severity: string) => {
     switch (severity) {
+      case "critical":
       case "high":
         return "bg-red-100 text-red-800 border-red-200"
       case "medium":
@@ -90,7 +126,8 @@ export function AlertsPanel({ open }: { open: boolean }) {
       </CardHeader>
       <CardContent>
         <div className="space-y-4">
-          {mockAlerts.map((alert) => (
+          {alerts.length === 0 && <p className="text-sm text-muted-foreground">No unread alerts</p>}
+          {alerts.map((alert) => (
             <div key={alert.id} className="p-3 border border-border rounded-lg space-y-2">
               <div className="flex items-start gap-2">
                 <div className="text-muted-foreground mt-0.5">{getAlertIcon(alert.type)}</div>
@@ -98,9 +135,15 @@ export function AlertsPanel({ open }: { open: boolean }) {
                   <div className="flex items-center gap-2 mb-1">
                     <h4 className="text-sm font-medium truncate">{alert.title}</h4>
                     <Badge className={`text-xs ${getSeverityColor(alert.severity)}`}>{alert.severity}</Badge>
+                    {alert.occurrences > 1 && <Badge variant="outline" className="text-xs">×{alert.occurrences}</Badge>}
                   </div>
                   <p className="text-xs text-muted-foreground leading-relaxed">{alert.message}</p>
-                  <p className="text-xs text-muted-foreground mt-2">{formatTimestamp(alert.timestamp)}</p>
+                  <div className="flex items-center justify-between mt-2">
+                    <p className="text-xs text-muted-foreground">{formatTimestamp(alert.timestamp)}</p>
+                    <button className="text-xs text-primary hover:underline" onClick={() => dismissAlert(alert.id)}>
+                      Mark as read
+                    </button>
+                  </div>
                 </div>
               </div>
             </div>
@@ -1,6 +1,6 @@
 "use client"
 
-import { useEffect, useMemo, useState } from "react"
+import { useEffect, useMemo, useRef, useState } from "react"
 import { Button } from "@/components/ui/button"
 import { Card, CardContent, CardHeader, CardTitle } from "@/components/ui/card"
 import { Badge } from "@/components/ui/badge"
@@ -13,9 +13,46 @@ import { ThermalImageCanvas, DetectionMetadata } from "./thermal-image-canvas"
 import { EditInspectionDialog } from "./edit-inspection-dialog"
 import { ModelRetrainingDialog } from "./model-retraining-dialog"
 import { ConfirmDialog } from "@/components/ui/confirm-dialog"
-import type { InspectionData, ThermalImageData, Detection } from "@/lib/api"
+import type { InspectionData, ThermalImageData, Detection, AnnotationDelta } from "@/lib/api"
 import { api } from "@/lib/api"
 
+// Annotation entities and DetectionDTOs both map onto the canvas Detection shape
+function toDetection(annotation: any): Detection {
+  return {
+    id: annotation.id,
+    detection_id: annotation.detectionId || annotation.detection_id,
+    class: annotation.detectionClass || annotation.class,
+    confidence: annotation.confidence,
+    x: annotation.x,
+    y: annotation.y,
+    width: annotation.width,
+    height: annotation.height,
+    annotationType: annotation.annotationType,
+    comments: annotation.comments,
+    createdAt: annotation.createdAt,
+    createdBy: annotation.createdBy,
+    modifiedAt: annotation.modifiedAt,
+    modifiedBy: annotation.modifiedBy,
+  }
+}
+
+function applyAnnotationDelta(current: Detection[], delta: AnnotationDelta): Detection[] {
+  const changed = delta.annotations.map(toDetection)
+  const same = (a: Detection, b: Detection) => (a.id && b.id ? a.id === b.id : a.detection_id === b.detection_id)
+  switch (delta.operation) {
+    case "synced":
+      return changed
+    case "created":
+      return [...current, ...changed]
+    case "updated":
+      return current.map((d) => changed.find((c) => same(d, c)) ?? d)
+    case "deleted":
+      return current.filter((d) => !changed.some((c) => same(d, c)))
+    default:
+      return current
+  }
+}
+
 interface InspectionDetailsProps {
   inspectionId: string
   onBack: () => void
@@ -43,25 +80,33 @@ export function InspectionDetails({ inspectionId, onBack }: InspectionDetailsPro
   const [isEditMode, setIsEditMode] = useState(false)
   const [showRetrainingDialog, setShowRetrainingDialog] = useState(false)
 
+  // Baseline and annotations delivered with the initial detail response; consumed once by the effects below
+  const prefetchedBaseline = useRef<{ transformerId: string; weatherCondition: string; url: string | null } | null>(null)
+  const prefetchedAnnotations = useRef<Record<string, Detection[]>>({})
+
   useEffect(() => {
     let isMounted = true
     async function fetchData() {
       try {
         setLoading(true)
-        const [inspRes, imgsRes] = await Promise.all([api.getInspection(inspectionId), api.getThermalImages(inspectionId)])
+        const detailRes = await api.getInspectionDetail(inspectionId)
         if (!isMounted) return
-        if (inspRes.success) {
-          console.log("Inspection Data:", inspRes.data)
-          setInspection(inspRes.data)
-          if (inspRes.data.weatherCondition) {
-            setWeatherCondition(inspRes.data.weatherCondition)
+        if (detailRes.success) {
+          const detail = detailRes.data
+          console.log("Inspection Detail:", detail)
+          prefetchedBaseline.current = {
+            transformerId: detail.inspection.transformerId,
+            weatherCondition: detail.baselineWeatherCondition,
+            url: detail.baselineImageUrl,
+          }
+          prefetchedAnnotations.current = detail.annotationsByImage
+          setInspection(detail.inspection)
+          setImages(Object.values(detail.imagesByType).flat())
+          if (detail.inspection.weatherCondition) {
+            setWeatherCondition(detail.inspection.weatherCondition)
           }
         } else {
-          setError(inspRes.message || "Failed to load inspection")
-        }
-        if (imgsRes.success) {
-          console.log("Thermal Images:", imgsRes.data)
-          setImages(imgsRes.data)
+          setError(detailRes.message || "Failed to load inspection")
         }
       } catch (e: any) {
         if (isMounted) {
@@ -86,6 +131,14 @@ export function InspectionDetails({ inspectionId, onBack }: InspectionDetailsPro
       console.log("  - Transformer ID:", inspection?.transformerId)
       console.log("  - Weather Condition:", weatherCondition)
       
+      const prefetched = prefetchedBaseline.current
+      if (prefetched && prefetched.transformerId === inspection?.transformerId
+          && prefetched.weatherCondition.toLowerCase() === weatherCondition.toLowerCase()) {
+        prefetchedBaseline.current = null
+        setBaselineImageUrl(prefetched.url)
+        return
+      }
+
       if (inspection?.transformerId) {
         try {
           const response = await api.getBaselineImageUrl(inspection.transformerId, weatherCondition)
@@ -140,71 +193,82 @@ export function InspectionDetails({ inspectionId, onBack }: InspectionDetailsPro
   // Load annotations from backend (FR3.2)
   const [detections, setDetections] = useState<Detection[]>([])
   const [loadingAnnotations, setLoadingAnnotations] = useState(false)
+  const [annotationNotice, setAnnotationNotice] = useState<string | null>(null)
+  // Annotation revision the canvas shows; saves send it so an edit based on stale annotations is rejected (409)
+  const annotationRevision = useRef<number | undefined>(undefined)
+
+  const reloadAnnotations = async (thermalImageId: string) => {
+    const res = await api.getAnnotations(thermalImageId, false)
+    if (res.success) {
+      annotationRevision.current = res.revision
+      setDetections(res.data.map(toDetection))
+    }
+    return res
+  }
 
   // Load annotations when maintenance image changes
   useEffect(() => {
     const loadAnnotations = async () => {
+      annotationRevision.current = undefined
+      setAnnotationNotice(null)
       if (!maintenanceImage?.id) {
         setDetections([])
         return
       }
 
+      const prefetched = prefetchedAnnotations.current[maintenanceImage.id]
+      delete prefetchedAnnotations.current[maintenanceImage.id]
+      if (prefetched && prefetched.length > 0) {
+        annotationRevision.current = maintenanceImage.annotationRevision
+        setDetections(prefetched)
+        return
+      }
+
       setLoadingAnnotations(true)
       try {
         // Try to load from new Annotation API first (FR3.2)
         const annotationRes = await api.getAnnotations(maintenanceImage.id, false)
+        annotationRevision.current = annotationRes.revision
         if (annotationRes.success && annotationRes.data.length > 0) {
           // Convert Annotation entities to Detection format
-          const loadedDetections = annotationRes.data.map((annotation: any) => ({
-            detection_id: annotation.detectionId || annotation.detection_id,
-            class: annotation.detectionClass || annotation.class,
-            confidence: annotation.confidence,
-            x: annotation.x,
-            y: annotation.y,
-            width: annotation.width,
-            height: annotation.height,
-            annotationType: annotation.annotationType,
-            comments: annotation.comments,
-            createdAt: annotation.createdAt,
-            createdBy: annotation.createdBy,
-            modifiedAt: annotation.modifiedAt,
-            modifiedBy: annotation.modifiedBy,
-          }))
-          setDetections(loadedDetections)
+          setDetections(annotationRes.data.map(toDetection))
           console.log("✅ Loaded annotations from Annotation API (FR3.2)")
         } else {
-          // Fallback to legacy JSON string for backward compatibility
-          if (maintenanceImage.detectionData) {
-            try {
-              const parsed = JSON.parse(maintenanceImage.detectionData) as Detection[]
-              setDetections(parsed)
-              console.log("⚠️ Loaded from legacy detectionData JSON (fallback)")
-            } catch (e) {
-              console.error("Failed to parse detection data:", e)
-              setDetections([])
-            }
+          // Fallback to legacy detection JSON for backward compatibility
+          const legacyRes = await api.getDetectionData(maintenanceImage.id)
+          if (legacyRes.success && Array.isArray(legacyRes.data)) {
+            setDetections(legacyRes.data)
+            console.log("⚠️ Loaded from legacy detectionData JSON (fallback)")
           } else {
             setDetections([])
           }
         }
       } catch (error) {
         console.error("Failed to load annotations:", error)
-        // Fallback to legacy JSON string
-        if (maintenanceImage.detectionData) {
-          try {
-            const parsed = JSON.parse(maintenanceImage.detectionData) as Detection[]
-            setDetections(parsed)
-          } catch (e) {
-            setDetections([])
-          }
-        }
+        setDetections([])
       } finally {
         setLoadingAnnotations(false)
       }
     }
 
     loadAnnotations()
-  }, [maintenanceImage?.id, maintenanceImage?.detectionData])
+  }, [maintenanceImage?.id])
+
+  // Show other editors' changes as they are committed; a gap in the revisions means a delta was missed
+  useEffect(() => {
+    const thermalImageId = maintenanceImage?.id
+    if (!thermalImageId) return
+    return api.subscribeToAnnotationDeltas(thermalImageId, (delta) => {
+      const shown = annotationRevision.current
+      if (shown !== undefined && delta.revision <= shown) return // already shown, e.g. our own save
+      if (shown === undefined || (delta.revision > shown + 1 && delta.operation !== "synced")) {
+        reloadAnnotations(thermalImageId)
+        return
+      }
+      annotationRevision.current = delta.revision
+      setDetections((current) => applyAnnotationDelta(current, delta))
+    }, () => reloadAnnotations(thermalImageId))
+  }, [maintenanceImage?.id])
 
   // Check if we have any images
   const hasAnyImages = useMemo(() => images && images.length > 0, [images])
@@ -296,41 +360,28 @@ export function InspectionDetails({ inspectionId, onBack }: InspectionDetailsPro
     try {
       // Save to new Annotation API with full metadata (FR3.2)
       const userId = "system" // Replace with actual user ID when authentication is implemented
-      const annotationRes = await api.syncAnnotations(maintenanceImage.id, updatedDetections, userId)
+      const annotationRes = await api.syncAnnotations(maintenanceImage.id, updatedDetections, userId, annotationRevision.current)
       
       if (annotationRes.success) {
+        annotationRevision.current = annotationRes.revision
+        setAnnotationNotice(null)
         console.log("✅ Annotations saved with metadata (FR3.2)")
         
         // Also update legacy detectionData for backward compatibility
         const legacyRes = await api.updateDetectionData(maintenanceImage.id, updatedDetections)
         
         // Reload annotations to get updated metadata from backend
-        const reloadRes = await api.getAnnotations(maintenanceImage.id, false)
-        if (reloadRes.success) {
-          // Convert and update local state
-          const loadedDetections = reloadRes.data.map((annotation: any) => ({
-            detection_id: annotation.detectionId || annotation.detection_id,
-            class: annotation.detectionClass || annotation.class,
-            confidence: annotation.confidence,
-            x: annotation.x,
-            y: annotation.y,
-            width: annotation.width,
-            height: annotation.height,
-            annotationType: annotation.annotationType,
-            comments: annotation.comments,
-            createdAt: annotation.createdAt,
-            createdBy: annotation.createdBy,
-            modifiedAt: annotation.modifiedAt,
-            modifiedBy: annotation.modifiedBy,
-          }))
-          setDetections(loadedDetections)
-        }
+        await reloadAnnotations(maintenanceImage.id)
         
         // Refresh images
         const imgsRes = await api.getThermalImages(inspectionId)
         if (imgsRes.success) {
           setImages(imgsRes.data)
         }
+      } else if (annotationRes.conflict) {
+        // Someone else saved first: show their version instead of overwriting it
+        await reloadAnnotations(maintenanceImage.id)
+        setAnnotationNotice("These annotations were changed by someone else. Your edit was not saved; the latest version is shown.")
       } else {
         setError(annotationRes.message || "Failed to save annotations")
       }
@@ -525,6 +576,11 @@ export function InspectionDetails({ inspectionId, onBack }: InspectionDetailsPro
                     </div>
                     {maintenanceImage ? (
                       <div>
+                        {annotationNotice && (
+                          <div className="mb-2 rounded-md border border-amber-300 bg-amber-50 px-3 py-2 text-xs text-amber-800">
+                            {annotationNotice}
+                          </div>
+                        )}
                         <ThermalImageCanvas
                           imageUrl={maintenanceImage.imageUrl}
                           detections={detections}
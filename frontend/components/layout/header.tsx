@@ -1,6 +1,6 @@
 "use client"
 
-import { useState } from "react"
+import { useCallback, useEffect, useState } from "react"
 import { Bell, Search, User } from "lucide-react"
 import { Button } from "@/components/ui/button"
 import { Input } from "@/components/ui/input"
@@ -14,9 +14,24 @@ import {
 } from "@/components/ui/dropdown-menu"
 import { Badge } from "@/components/ui/badge"
 import { AlertsPanel } from "@/components/alerts/alerts-panel"  // ⬅️ import alerts panel
+import { api } from "@/lib/api"
 
 export function Header() {
   const [alertsOpen, setAlertsOpen] = useState(false)
+  const [unreadCount, setUnreadCount] = useState(0)
+
+  // Sum of the per-transformer unread counters; refreshed when the event stream reports an alert
+  const loadUnreadCount = useCallback(async () => {
+    const response = await api.getUnreadAlertCounts()
+    if (response.success) {
+      setUnreadCount(Object.values(response.data).reduce((sum, count) => sum + count, 0))
+    }
+  }, [])
+
+  useEffect(() => {
+    loadUnreadCount()
+    return api.subscribeToEvents({ types: ["alert"] }, { onAlert: loadUnreadCount, onOverflow: loadUnreadCount })
+  }, [loadUnreadCount])
 
   return (
     <header className="h-16 border-b border-border bg-card px-6 flex items-center justify-between relative">
@@ -36,9 +51,11 @@ export function Header() {
           onClick={() => setAlertsOpen(!alertsOpen)}
         >
           <Bell className="w-5 h-5" />
-          <Badge className="absolute -top-1 -right-1 w-5 h-5 p-0 flex items-center justify-center text-xs bg-accent">
-            3
-          </Badge>
+          {unreadCount > 0 && (
+            <Badge className="absolute -top-1 -right-1 w-5 h-5 p-0 flex items-center justify-center text-xs bg-accent">
+              {unreadCount > 99 ? "99+" : unreadCount}
+            </Badge>
+          )}
         </Button>
 
         {/* 👤 User menu */}
@@ -66,7 +83,7 @@ export function Header() {
       </div>
 
       {/* 🔽 Alerts Panel (dropdown under bell) */}
-      <AlertsPanel open={alertsOpen} />
+      <AlertsPanel open={alertsOpen} onAlertsChanged={loadUnreadCount} />
     </header>
   )
 }
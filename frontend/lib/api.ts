@@ -1,7 +1,10 @@
 // API service layer for backend communication
 // This provides a modular architecture for connecting to backend services
 
+import { subscribeStomp } from "./stomp"
+
 const API_BASE_URL = "/api";
+const REVISION_HEADER = "X-Annotation-Revision";
 
 export interface ApiResponse<T> {
   data: T;
@@ -9,6 +12,13 @@ export interface ApiResponse<T> {
   message?: string;
 }
 
+// Annotation responses carry the image's annotation revision (X-Annotation-Revision). conflict is set when a
+// save was rejected because someone else changed the annotations since `revision` was read; revision is then the current one.
+export interface RevisionedResponse<T> extends ApiResponse<T> {
+  revision?: number;
+  conflict?: boolean;
+}
+
 export interface TransformerData {
   id?: string;
   transformerNo: string;
@@ -39,7 +49,17 @@ export interface InspectionData {
   imageUrl?: string;
 }
 
+export interface InspectionDetailData {
+  inspection: InspectionData;
+  transformer: TransformerData;
+  imagesByType: Record<string, ThermalImageData[]>;
+  annotationsByImage: Record<string, Detection[]>;
+  baselineWeatherCondition: string;
+  baselineImageUrl: string | null;
+}
+
 export interface Detection {
+  id?: string;         // Annotation id once persisted
   detection_id: string;
   class: string;
   confidence: number;
@@ -65,27 +85,103 @@ export interface ThermalImageData {
   temperatureReading?: number;
   anomalyDetected?: boolean;
   weatherCondition?: "Sunny" | "Cloudy" | "Rainy";
-  detectionData?: string; // JSON string of Detection[]
+  annotationRevision?: number;
 }
 
 export interface AlertData {
     id?: string;
-    transformer_id: string;
-    alert_type: string;
+    transformer?: TransformerData;
+    thermalImageId?: string | null;
+    alertType: string;
     message: string;
     severity: 'low' | 'medium' | 'high' | 'critical';
-    is_read?: boolean;
+    isRead?: boolean;
+    occurrenceCount?: number;
+    createdAt?: string;
+    lastSeenAt?: string;
+}
+
+// Payloads pushed on the /api/events Server-Sent Events stream
+export interface AlertEventData {
+  id: string
+  transformerId: string | null
+  thermalImageId: string | null
+  alertType: string
+  severity: AlertData["severity"]
+  message: string
+  occurrenceCount: number
+  createdAt: string
+  lastSeenAt: string
+}
+
+export interface DetectionEventData {
+  thermalImageId: string
+  inspectionId: string
+  transformerId: string
+  state: "started" | "completed" | "failed"
+  message: string | null
+  timestamp: string
+}
+
+export interface AnnotationEventData {
+  thermalImageId: string
+  revision: number
+  operation: string
+  timestamp: string
+}
+
+// Pushed on /topic/thermal-images/{id}/annotations; a synced delta carries the full annotation set
+export interface AnnotationDelta {
+  thermalImageId: string
+  revision: number
+  operation: "created" | "updated" | "deleted" | "synced"
+  annotations: Detection[]
+  userId: string | null
+  timestamp: string
+}
+
+export interface EventStreamFilters {
+  transformerIds?: string[]
+  region?: string
+  types?: ("alert" | "detection" | "annotation")[]
+}
+
+export interface EventStreamHandlers {
+  onAlert?: (event: AlertEventData) => void
+  onDetection?: (event: DetectionEventData) => void
+  onAnnotation?: (event: AnnotationEventData) => void
+  // Events were dropped because this client fell behind; re-fetch whatever it displays
+  onOverflow?: () => void
+}
+
+function readRevision(response: Response): number | undefined {
+  const value = response.headers.get(REVISION_HEADER)
+  return value === null ? undefined : Number(value)
+}
+
+// List endpoints are keyset-paginated: each response is one page and the cursor for the next
+// page comes back in the X-Next-Cursor header. Follows the cursor until the last page.
+async function fetchAllPages<T>(url: string, errorMessage: string): Promise<T[]> {
+  const items: T[] = []
+  let cursor: string | null = null
+  do {
+    const separator = url.includes("?") ? "&" : "?"
+    const pageUrl: string = cursor ? `${url}${separator}cursor=${encodeURIComponent(cursor)}` : url
+    const response = await fetch(pageUrl)
+    if (!response.ok) {
+      throw new Error(errorMessage)
+    }
+    items.push(...(await response.json()))
+    cursor = response.headers.get("X-Next-Cursor")
+  } while (cursor)
+  return items
 }
 
 class ApiService {
   // Transformer API methods
   async getTransformers(): Promise<ApiResponse<TransformerData[]>> {
     try {
-      const response = await fetch(`${API_BASE_URL}/transformers`);
-      if (!response.ok) {
-        throw new Error("Failed to fetch transformers");
-      }
-      const data = await response.json();
+      const data = await fetchAllPages<TransformerData>(`${API_BASE_URL}/transformers`, "Failed to fetch transformers");
       return { data, success: true };
     } catch (error: any) {
       return { data: [], success: false, message: error.message };
@@ -200,14 +296,24 @@ class ApiService {
       const url = transformerId
         ? `${API_BASE_URL}/inspections?transformerId=${transformerId}`
         : `${API_BASE_URL}/inspections`;
-      const response = await fetch(url);
+      const data = await fetchAllPages<InspectionData>(url, "Failed to fetch inspections");
+      return { data, success: true };
+    } catch (error: any) {
+      return { data: [], success: false, message: error.message };
+    }
+  }
+
+  // Inspection, images, annotations and weather-matched baseline in one request
+  async getInspectionDetail(id: string): Promise<ApiResponse<InspectionDetailData>> {
+    try {
+      const response = await fetch(`${API_BASE_URL}/inspections/${id}/detail`);
       if (!response.ok) {
-        throw new Error("Failed to fetch inspections");
+        throw new Error("Failed to fetch inspection");
       }
       const data = await response.json();
       return { data, success: true };
     } catch (error: any) {
-      return { data: [], success: false, message: error.message };
+      return { data: null as any, success: false, message: error.message };
     }
   }
 
@@ -349,6 +455,18 @@ class ApiService {
     }
   }
 
+  // Legacy detection JSON of an image; only fetched as a fallback when the image has no annotations
+  async getDetectionData(thermalImageId: string): Promise<ApiResponse<Detection[]>> {
+    try {
+      const response = await fetch(`${API_BASE_URL}/thermal-images/${thermalImageId}/detections`)
+      if (!response.ok) throw new Error("Failed to fetch detection data")
+      const data = await response.json()
+      return { data, success: true }
+    } catch (error: any) {
+      return { data: [], success: false, message: error.message }
+    }
+  }
+
   async updateDetectionData(thermalImageId: string, detections: Detection[]): Promise<ApiResponse<ThermalImageData>> {
     try {
       const response = await fetch(`${API_BASE_URL}/thermal-images/${thermalImageId}/detections`, {
@@ -367,12 +485,12 @@ class ApiService {
   }
 
   // Annotation API methods (FR3.1)
-  async getAnnotations(thermalImageId: string, includeDeleted: boolean = false): Promise<ApiResponse<Detection[]>> {
+  async getAnnotations(thermalImageId: string, includeDeleted: boolean = false): Promise<RevisionedResponse<Detection[]>> {
     try {
       const response = await fetch(`${API_BASE_URL}/annotations/thermal-image/${thermalImageId}?includeDeleted=${includeDeleted}`)
       if (!response.ok) throw new Error("Failed to fetch annotations")
       const data = await response.json()
-      return { data, success: true }
+      return { data, success: true, revision: readRevision(response) }
     } catch (error: any) {
       return { data: [], success: false, message: error.message }
     }
@@ -427,41 +545,110 @@ class ApiService {
     }
   }
 
-  async syncAnnotations(thermalImageId: string, annotations: Detection[], userId: string = "system"): Promise<ApiResponse<Detection[]>> {
+  // expectedRevision is the annotation revision the edit was based on; without it the save always wins
+  async syncAnnotations(thermalImageId: string, annotations: Detection[], userId: string = "system",
+                        expectedRevision?: number): Promise<RevisionedResponse<Detection[]>> {
     try {
+      const headers: Record<string, string> = {
+        "Content-Type": "application/json",
+        "X-User-Id": userId
+      }
+      if (expectedRevision !== undefined) headers[REVISION_HEADER] = String(expectedRevision)
       const response = await fetch(`${API_BASE_URL}/annotations/thermal-image/${thermalImageId}/sync`, {
         method: "POST",
-        headers: { 
-          "Content-Type": "application/json",
-          "X-User-Id": userId
-        },
+        headers,
         body: JSON.stringify(annotations),
       })
+      if (response.status === 409) {
+        return {
+          data: [], success: false, conflict: true, revision: readRevision(response),
+          message: "The annotations were changed by someone else in the meantime",
+        }
+      }
       if (!response.ok) throw new Error("Failed to sync annotations")
       const data = await response.json()
-      return { data, success: true }
+      return { data, success: true, revision: readRevision(response) }
     } catch (error: any) {
       return { data: [], success: false, message: error.message }
     }
   }
 
+  // Dashboard API methods
+  async getFleetSummary(windowsDays?: number[]): Promise<ApiResponse<any>> {
+    try {
+      const query = windowsDays && windowsDays.length ? `?windows=${windowsDays.join(",")}` : ""
+      const response = await fetch(`${API_BASE_URL}/dashboard/summary${query}`)
+      if (!response.ok) throw new Error("Failed to fetch fleet summary")
+      const data = await response.json()
+      return { data, success: true }
+    } catch (error: any) {
+      return { data: null as any, success: false, message: error.message }
+    }
+  }
+
   // Alert API methods
   async getAlerts(transformerId?: string): Promise<ApiResponse<AlertData[]>> {
     try {
         const url = transformerId
         ? `${API_BASE_URL}/alerts?transformerId=${transformerId}`
         : `${API_BASE_URL}/alerts`;
-      const response = await fetch(url);
-      if (!response.ok) {
-        throw new Error("Failed to fetch alerts");
-      }
-      const data = await response.json();
+      const data = await fetchAllPages<AlertData>(url, "Failed to fetch alerts");
       return { data, success: true };
     } catch (error: any) {
       return { data: [], success: false, message: error.message };
     }
   }
 
+  async markAlertRead(alertId: string, isRead: boolean = true): Promise<ApiResponse<AlertData>> {
+    try {
+      const response = await fetch(`${API_BASE_URL}/alerts/${alertId}/read?isRead=${isRead}`, { method: "PUT" })
+      if (!response.ok) throw new Error("Failed to update alert")
+      const data = await response.json()
+      return { data, success: true }
+    } catch (error: any) {
+      return { data: null as any, success: false, message: error.message }
+    }
+  }
+
+  // Unread alerts per transformer id, served from counters maintained on the server
+  async getUnreadAlertCounts(): Promise<ApiResponse<Record<string, number>>> {
+    try {
+      const response = await fetch(`${API_BASE_URL}/alerts/unread-counts`)
+      if (!response.ok) throw new Error("Failed to fetch unread alert counts")
+      const data = await response.json()
+      return { data, success: true }
+    } catch (error: any) {
+      return { data: {}, success: false, message: error.message }
+    }
+  }
+
+  // Opens the Server-Sent Events stream; EventSource reconnects on its own. Call the returned function to close it.
+  subscribeToEvents(filters: EventStreamFilters, handlers: EventStreamHandlers): () => void {
+    const params = new URLSearchParams()
+    filters.transformerIds?.forEach((id) => params.append("transformerId", id))
+    if (filters.region) params.set("region", filters.region)
+    if (filters.types?.length) params.set("types", filters.types.join(","))
+    const query = params.toString()
+    const source = new EventSource(`${API_BASE_URL}/events${query ? `?${query}` : ""}`)
+    const listen = <T,>(name: string, handler?: (event: T) => void) => {
+      if (!handler) return
+      source.addEventListener(name, (message) => handler(JSON.parse((message as MessageEvent).data)))
+    }
+    listen("alert", handlers.onAlert)
+    listen("detection", handlers.onDetection)
+    listen("annotation", handlers.onAnnotation)
+    if (handlers.onOverflow) source.addEventListener("overflow", () => handlers.onOverflow?.())
+    return () => source.close()
+  }
+
+  // Live annotation changes of one image from other editors (STOMP over the /ws endpoint). onResubscribed runs
+  // after the connection had to be re-established, when deltas may have been missed and the caller should reload.
+  subscribeToAnnotationDeltas(thermalImageId: string, onDelta: (delta: AnnotationDelta) => void,
+                              onResubscribed?: () => void): () => void {
+    return subscribeStomp(`/topic/thermal-images/${thermalImageId}/annotations`,
+      (body) => onDelta(JSON.parse(body)), onResubscribed)
+  }
+
   // Roboflow Dataset API methods (Model Retraining)
   async uploadToRoboflow(thermalImageId: string, split: string = "train"): Promise<ApiResponse<any>> {
     try {
@@ -504,6 +691,35 @@ class ApiService {
     }
   }
 
+  async getRoboflowUploadJob(jobId: string): Promise<ApiResponse<any>> {
+    try {
+      const response = await fetch(`${API_BASE_URL}/roboflow/jobs/${jobId}`)
+      if (!response.ok) throw new Error("Failed to fetch upload job status")
+      const data = await response.json()
+      return { data, success: true }
+    } catch (error: any) {
+      return { data: null as any, success: false, message: error.message }
+    }
+  }
+
+  async cancelRoboflowUploadJob(jobId: string): Promise<ApiResponse<any>> {
+    try {
+      const response = await fetch(`${API_BASE_URL}/roboflow/jobs/${jobId}`, { method: "DELETE" })
+      if (!response.ok) throw new Error("Failed to cancel upload job")
+      const data = await response.json()
+      return { data, success: true }
+    } catch (error: any) {
+      return { data: null as any, success: false, message: error.message }
+    }
+  }
+
+  // Streamed ZIP download; use as an <a href> or window.location target rather than fetching into memory
+  getDatasetExportUrl(format: "yolo" | "coco" | "voc" = "yolo", transformerId?: string): string {
+    const params = new URLSearchParams({ format })
+    if (transformerId) params.set("transformerId", transformerId)
+    return `${API_BASE_URL}/roboflow/export/dataset?${params.toString()}`
+  }
+
   async exportYOLO(thermalImageId: string): Promise<ApiResponse<any>> {
     try {
       const response = await fetch(`${API_BASE_URL}/roboflow/export/yolo/${thermalImageId}`)
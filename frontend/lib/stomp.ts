@@ -0,0 +1,78 @@
+// Minimal STOMP 1.2 client for the backend's /ws endpoint (plain WebSocket, simple broker).
+// It only subscribes: one connection per subscription, reconnecting after a short delay when it drops.
+
+const RECONNECT_DELAY_MS = 3000
+
+interface StompFrame {
+  command: string
+  headers: Record<string, string>
+  body: string
+}
+
+function encodeFrame(command: string, headers: Record<string, string>): string {
+  const lines = Object.entries(headers).map(([name, value]) => `${name}:${value}`)
+  return `${command}\n${lines.join("\n")}\n\n\0`
+}
+
+function decodeFrame(raw: string): StompFrame | null {
+  const text = raw.replace(/^[\r\n]+/, "") // heart-beats between frames are bare EOLs
+  if (!text) return null
+  const separator = text.indexOf("\n\n")
+  const head = (separator < 0 ? text : text.slice(0, separator)).split("\n")
+  const headers: Record<string, string> = {}
+  for (const line of head.slice(1)) {
+    const colon = line.indexOf(":")
+    if (colon > 0 && !(line.slice(0, colon) in headers)) headers[line.slice(0, colon)] = line.slice(colon + 1)
+  }
+  return { command: head[0].replace(/\r$/, ""), headers, body: separator < 0 ? "" : text.slice(separator + 2) }
+}
+
+function webSocketUrl(): string {
+  const protocol = window.location.protocol === "https:" ? "wss:" : "ws:"
+  return `${protocol}//${window.location.host}/ws`
+}
+
+/**
+ * Subscribe to a broker destination; onMessage gets each MESSAGE body. onResubscribed runs after a dropped
+ * connection was re-established, since messages sent in between are lost. Returns the unsubscribe function.
+ */
+export function subscribeStomp(destination: string, onMessage: (body: string) => void,
+                               onResubscribed?: () => void): () => void {
+  let socket: WebSocket | null = null
+  let reconnectTimer: ReturnType<typeof setTimeout> | null = null
+  let closed = false
+  let connectedBefore = false
+
+  const connect = () => {
+    socket = new WebSocket(webSocketUrl())
+    socket.onopen = () => {
+      socket?.send(encodeFrame("CONNECT", { "accept-version": "1.2", host: window.location.hostname, "heart-beat": "0,0" }))
+    }
+    socket.onmessage = (event) => {
+      for (const raw of String(event.data).split("\0")) {
+        const frame = decodeFrame(raw)
+        if (!frame) continue
+        if (frame.command === "CONNECTED") {
+          socket?.send(encodeFrame("SUBSCRIBE", { id: "sub-0", destination, ack: "auto" }))
+          if (connectedBefore) onResubscribed?.()
+          connectedBefore = true
+        } else if (frame.command === "MESSAGE") {
+          onMessage(frame.body)
+        } else if (frame.command === "ERROR") {
+          console.error("STOMP error:", frame.headers.message || frame.body)
+        }
+      }
+    }
+    socket.onclose = () => {
+      socket = null
+      if (!closed) reconnectTimer = setTimeout(connect, RECONNECT_DELAY_MS)
+    }
+  }
+
+  connect()
+  return () => {
+    closed = true
+    if (reconnectTimer) clearTimeout(reconnectTimer)
+    socket?.close()
+  }
+}
@@ -19,6 +19,10 @@ const nextConfig = {
         source: "/uploads/:path*",
         destination: "http://localhost:8080/uploads/:path*",
       },
+      {
+        source: "/ws",
+        destination: "http://localhost:8080/ws",
+      },
     ];
   },
 }